@@ -0,0 +1,18 @@
+package com.organization.config;
+
+import com.organization.monitoring.SlowQueryProfiler;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adds the slow query profiler to the Mongo client; the actuator adds its own command timers alongside it.
+ */
+@Configuration
+public class MongoClientConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryProfilerCustomizer(SlowQueryProfiler slowQueryProfiler) {
+        return builder -> builder.addCommandListener(slowQueryProfiler);
+    }
+}
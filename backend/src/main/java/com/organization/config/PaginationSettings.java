@@ -0,0 +1,43 @@
+package com.organization.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Page size limits for the list endpoints and the switch that keeps the old "whole collection" responses
+ * for clients that do not send {@code size} or {@code cursor}.
+ */
+@Component
+public class PaginationSettings {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final boolean unpagedByDefault;
+    private final int defaultSize;
+    private final int maxSize;
+
+    public PaginationSettings(@Value("${app.pagination.unpaged-by-default:true}") boolean unpagedByDefault,
+                              @Value("${app.pagination.default-size:50}") int defaultSize,
+                              @Value("${app.pagination.max-size:500}") int maxSize) {
+        this.unpagedByDefault = unpagedByDefault;
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Whether a request without paging parameters should get the legacy unpaginated list.
+     */
+    public boolean isUnpaged(Integer size, String cursor) {
+        return unpagedByDefault && size == null && cursor == null;
+    }
+
+    public int resolveSize(Integer size) {
+        if (size == null) {
+            return defaultSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(size, maxSize);
+    }
+}
@@ -11,16 +11,18 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.expression.WebExpressionAuthorizationManager;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.organization.security.AdaptiveBCryptPasswordEncoder;
 import com.organization.security.JwtAuthenticationEntryPoint;
 import com.organization.security.JwtAuthenticationFilter;
+import com.organization.security.RateLimitFilter;
 
 @Configuration
 @EnableMethodSecurity
@@ -30,18 +32,22 @@ public class SecurityConfig {
 
 	private final JwtAuthenticationFilter authenticationFilter;
 
+	private final RateLimitFilter rateLimitFilter;
+
 	@Value("${cors.allowed.origins:http://localhost:5173}")
 	private String corsAllowedOrigins;
 
 	public SecurityConfig(JwtAuthenticationEntryPoint authenticationEntryPoint,
-			JwtAuthenticationFilter authenticationFilter) {
+			JwtAuthenticationFilter authenticationFilter, RateLimitFilter rateLimitFilter) {
 		this.authenticationEntryPoint = authenticationEntryPoint;
 		this.authenticationFilter = authenticationFilter;
+		this.rateLimitFilter = rateLimitFilter;
 	}
 
+	// Hashes made with another cost are rehashed on the next successful sign-in
 	@Bean
-	static PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+	static PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength) {
+		return new AdaptiveBCryptPasswordEncoder(strength);
 	}
 
 	@Bean
@@ -59,6 +65,13 @@ public class SecurityConfig {
         				.collect(Collectors.toList()));
         configuration.addAllowedMethod("*");
         configuration.addAllowedHeader("*");
+        configuration.addExposedHeader(PaginationSettings.NEXT_CURSOR_HEADER);
+        configuration.addExposedHeader("Idempotent-Replayed");
+        configuration.addExposedHeader("RateLimit-Limit");
+        configuration.addExposedHeader("RateLimit-Remaining");
+        configuration.addExposedHeader("RateLimit-Reset");
+        configuration.addExposedHeader("RateLimit-Policy");
+        configuration.addExposedHeader("Retry-After");
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -75,7 +88,11 @@ public class SecurityConfig {
                         authorize
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/db/**").permitAll()
-                        .requestMatchers("/actuator/health", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                        // Scraped by the Prometheus agent on the same host only
+                        .requestMatchers("/actuator/prometheus").access(new WebExpressionAuthorizationManager(
+                                "hasIpAddress('127.0.0.1') or hasIpAddress('::1')"))
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui.html", "/swagger-ui/**").permitAll()
                         .anyRequest().authenticated()
 
@@ -86,6 +103,8 @@ public class SecurityConfig {
                 );
 
         http.addFilterBefore(authenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // After authentication so signed-in users are limited by account rather than address
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
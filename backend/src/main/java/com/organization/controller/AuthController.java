@@ -3,9 +3,14 @@ package com.organization.controller;
 import com.organization.dto.JWTAuthResponse;
 import com.organization.dto.LoginDto;
 import com.organization.dto.RegisterDto;
+import com.organization.dto.TokenVerificationStats;
+import com.organization.security.JwtVerifier;
 import com.organization.service.AuthService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -16,9 +21,11 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final JwtVerifier jwtVerifier;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, JwtVerifier jwtVerifier) {
         this.authService = authService;
+        this.jwtVerifier = jwtVerifier;
     }
 
     // Build Login REST API
@@ -37,4 +44,17 @@ public class AuthController {
         String response = authService.register(registerDto);
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/users/{userId}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable String userId){
+        authService.revokeTokens(userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/token-verification/stats")
+    public TokenVerificationStats tokenVerificationStats(){
+        return jwtVerifier.stats();
+    }
 }
@@ -1,13 +1,23 @@
 package com.organization.controller;
 
+import com.organization.dto.SlowQueryShape;
+import com.organization.entity.StudentFee;
+import com.organization.monitoring.SlowQueryProfiler;
+import com.organization.service.IndexService;
 import org.bson.Document;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.data.mongodb.core.MongoTemplate;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -15,11 +25,17 @@ import java.util.Map;
 public class DbStatsController {
 
     private static final double FREE_TIER_LIMIT_MB = 512.0;
+    private static final int LAYOUT_SAMPLE_SIZE = 1000;
 
     private final MongoTemplate mongoTemplate;
+    private final SlowQueryProfiler slowQueryProfiler;
+    private final IndexService indexService;
 
-    public DbStatsController(MongoTemplate mongoTemplate) {
+    public DbStatsController(MongoTemplate mongoTemplate, SlowQueryProfiler slowQueryProfiler,
+                             IndexService indexService) {
         this.mongoTemplate = mongoTemplate;
+        this.slowQueryProfiler = slowQueryProfiler;
+        this.indexService = indexService;
     }
 
     @GetMapping("/stats")
@@ -51,6 +67,76 @@ public class DbStatsController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Storage of student fees against the plan versions they reference, plus the average document size of fees
+     * that still carry copied plan amounts and of versioned fees, measured on a random sample.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/stats/student-fees")
+    public ResponseEntity<Map<String, Object>> getStudentFeeStorage() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("student_fees", collectionStats("student_fees"));
+        response.put("fee_plan_versions", collectionStats("fee_plan_versions"));
+
+        Document layout = new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$type", "$" + StudentFee.Fields.PLAN_VERSION_ID), "missing")), "copied", "versioned"));
+        Map<String, Object> sample = new LinkedHashMap<>();
+        for (Document row : mongoTemplate.getCollection("student_fees").aggregate(List.of(
+                new Document("$sample", new Document("size", LAYOUT_SAMPLE_SIZE)),
+                new Document("$group", new Document("_id", layout)
+                        .append("documents", new Document("$sum", 1))
+                        .append("avgBytes", new Document("$avg", new Document("$bsonSize", "$$ROOT"))))))) {
+            sample.put(row.getString("_id"), Map.of(
+                    "documents", row.get("documents"),
+                    "avgBytes", Math.round(getNumericValue(row, "avgBytes"))));
+        }
+        response.put("sampledLayouts", sample);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Slowest query shapes seen since startup (or the last reset), with a summary of their winning plan.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/slow-queries")
+    public List<SlowQueryShape> getSlowQueries(@RequestParam(defaultValue = "20") int limit) {
+        return slowQueryProfiler.top(Math.max(1, Math.min(limit, 200)));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<Void> resetSlowQueries() {
+        slowQueryProfiler.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Index footprint and usage per collection, with the query shapes each index serves.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/indexes")
+    public List<Map<String, Object>> getIndexes() {
+        return indexService.report();
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/indexes/ensure")
+    public List<Map<String, Object>> ensureIndexes() {
+        indexService.ensureIndexes();
+        return indexService.report();
+    }
+
+    private Map<String, Object> collectionStats(String collection) {
+        Document stats = mongoTemplate.executeCommand(new Document("collStats", collection));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", stats.get("count"));
+        result.put("avgObjSize", stats.get("avgObjSize"));
+        result.put("dataSize", formatMb(bytesToMegabytes(getNumericValue(stats, "size"))));
+        result.put("storageSize", formatMb(bytesToMegabytes(getNumericValue(stats, "storageSize"))));
+        result.put("indexSize", formatMb(bytesToMegabytes(getNumericValue(stats, "totalIndexSize"))));
+        return result;
+    }
+
     private double getNumericValue(Document stats, String key) {
         Object value = stats.get(key);
         if (value instanceof Number number) {
@@ -0,0 +1,28 @@
+package com.organization.controller;
+
+import com.organization.service.ExportService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+final class ExportResponses {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+    private ExportResponses() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> attachment(String baseName, ExportService.Format format,
+                                                            StreamingResponseBody body) {
+        boolean csv = format == ExportService.Format.CSV;
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(baseName + (csv ? ".csv" : ".ndjson"))
+                .build();
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+}
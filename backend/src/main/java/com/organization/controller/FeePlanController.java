@@ -1,7 +1,14 @@
 package com.organization.controller;
 
+import com.organization.config.PaginationSettings;
+import com.organization.dto.JobProgress;
+import com.organization.dto.RepriceResult;
 import com.organization.entity.FeePlan;
+import com.organization.entity.FeePlanVersion;
 import com.organization.service.FeePlanService;
+import com.organization.service.FeePlanVersionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
@@ -13,9 +20,15 @@ import java.util.List;
 public class FeePlanController {
 
     private final FeePlanService feePlanService;
+    private final FeePlanVersionService feePlanVersionService;
+    private final PaginationSettings paginationSettings;
 
-    public FeePlanController(FeePlanService feePlanService) {
+    public FeePlanController(FeePlanService feePlanService,
+                             FeePlanVersionService feePlanVersionService,
+                             PaginationSettings paginationSettings) {
         this.feePlanService = feePlanService;
+        this.feePlanVersionService = feePlanVersionService;
+        this.paginationSettings = paginationSettings;
     }
 
     @PostMapping
@@ -24,9 +37,14 @@ public class FeePlanController {
     }
 
     @GetMapping
-    public List<FeePlan> list(@RequestParam(required = false) String course,
-                                @RequestParam(required = false) String academicYear) {
-        return feePlanService.list(course, academicYear);
+    public ResponseEntity<List<FeePlan>> list(@RequestParam(required = false) String course,
+                                @RequestParam(required = false) String academicYear,
+                                @RequestParam(required = false) String cursor,
+                                @RequestParam(required = false) Integer size) {
+        if (paginationSettings.isUnpaged(size, cursor)) {
+            return ResponseEntity.ok(feePlanService.list(course, academicYear));
+        }
+        return PageResponses.of(feePlanService.page(course, academicYear, cursor, paginationSettings.resolveSize(size)));
     }
 
     @GetMapping("/{id}")
@@ -39,6 +57,24 @@ public class FeePlanController {
         return feePlanService.update(id, feePlan);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/{id}/reprice")
+    public RepriceResult reprice(@PathVariable String id,
+                                 @RequestParam(defaultValue = "true") boolean dryRun) {
+        return feePlanService.reprice(id, dryRun);
+    }
+
+    @GetMapping("/{id}/versions")
+    public List<FeePlanVersion> versions(@PathVariable String id) {
+        return feePlanService.versions(id);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/versions/migrate")
+    public ResponseEntity<JobProgress> migrateToVersions() {
+        return new ResponseEntity<>(feePlanVersionService.migrate(), HttpStatus.ACCEPTED);
+    }
+
     @DeleteMapping("/{id}")
     public void delete(@PathVariable String id) {
         feePlanService.delete(id);
@@ -1,33 +0,0 @@
-package com.organization.controller;
-
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-
-@RestController
-@RequestMapping("/actuator")
-public class HealthController {
-
-    @GetMapping("/health")
-    public ResponseEntity<Map<String, Object>> health() {
-        Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
-        health.put("timestamp", LocalDateTime.now());
-        health.put("service", "fee-management-system");
-        return ResponseEntity.ok(health);
-    }
-
-    @GetMapping("/info")
-    public ResponseEntity<Map<String, Object>> info() {
-        Map<String, Object> info = new HashMap<>();
-        info.put("name", "Fee Management System");
-        info.put("version", "1.0.0");
-        info.put("description", "A comprehensive fee and payment management system");
-        return ResponseEntity.ok(info);
-    }
-}
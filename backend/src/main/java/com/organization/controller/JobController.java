@@ -0,0 +1,35 @@
+package com.organization.controller;
+
+import com.organization.dto.JobProgress;
+import com.organization.service.JobService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    private final JobService jobService;
+
+    public JobController(JobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @GetMapping
+    public List<JobProgress> list() {
+        return jobService.list();
+    }
+
+    @GetMapping("/{id}")
+    public JobProgress get(@PathVariable String id) {
+        return jobService.get(id);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/{id}")
+    public JobProgress cancel(@PathVariable String id) {
+        return jobService.cancel(id);
+    }
+}
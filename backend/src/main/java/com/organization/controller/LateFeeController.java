@@ -0,0 +1,37 @@
+package com.organization.controller;
+
+import com.organization.dto.JobProgress;
+import com.organization.entity.LateFeeRunPartition;
+import com.organization.service.LateFeeService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/late-fees")
+public class LateFeeController {
+
+    private final LateFeeService lateFeeService;
+
+    public LateFeeController(LateFeeService lateFeeService) {
+        this.lateFeeService = lateFeeService;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/runs")
+    public ResponseEntity<JobProgress> start(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        return new ResponseEntity<>(lateFeeService.start(day), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/runs/{day}/partitions")
+    public List<LateFeeRunPartition> partitions(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
+        return lateFeeService.partitions(day);
+    }
+}
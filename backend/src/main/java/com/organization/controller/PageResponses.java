@@ -0,0 +1,24 @@
+package com.organization.controller;
+
+import com.organization.config.PaginationSettings;
+import com.organization.dto.CursorPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+final class PageResponses {
+
+    private PageResponses() {
+    }
+
+    /**
+     * Keeps the response body a plain JSON array and carries the next-page token in a header.
+     */
+    static <T> ResponseEntity<List<T>> of(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(PaginationSettings.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
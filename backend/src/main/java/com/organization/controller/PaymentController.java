@@ -1,47 +1,155 @@
 package com.organization.controller;
 
+import com.organization.config.PaginationSettings;
+import com.organization.dto.BulkPaymentReport;
+import com.organization.dto.JobProgress;
+import com.organization.dto.PaymentSummary;
+import com.organization.dto.WriteBehindStats;
 import com.organization.entity.Payment;
+import com.organization.entity.PendingPayment;
+import com.organization.service.ExportService;
+import com.organization.service.IdempotencyService;
+import com.organization.service.PaymentIngestionService;
+import com.organization.service.PaymentRollupService;
 import com.organization.service.PaymentService;
+import com.organization.service.WriteBehindPaymentService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.constraints.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.security.Principal;
 import java.util.List;
 import java.time.Instant;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/payments")
 public class PaymentController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final PaymentService paymentService;
+    private final PaymentIngestionService paymentIngestionService;
+    private final ExportService exportService;
+    private final PaginationSettings paginationSettings;
+    private final IdempotencyService idempotencyService;
+    private final PaymentRollupService paymentRollupService;
+    private final WriteBehindPaymentService writeBehindPaymentService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService,
+                             PaymentIngestionService paymentIngestionService,
+                             ExportService exportService,
+                             PaginationSettings paginationSettings,
+                             IdempotencyService idempotencyService,
+                             PaymentRollupService paymentRollupService,
+                             WriteBehindPaymentService writeBehindPaymentService) {
         this.paymentService = paymentService;
+        this.paymentIngestionService = paymentIngestionService;
+        this.exportService = exportService;
+        this.paginationSettings = paginationSettings;
+        this.idempotencyService = idempotencyService;
+        this.paymentRollupService = paymentRollupService;
+        this.writeBehindPaymentService = writeBehindPaymentService;
     }
 
     @PostMapping
-    public Payment create(@RequestParam @NotBlank String studentFeeId,
+    public ResponseEntity<?> create(@RequestParam @NotBlank String studentFeeId,
                           @RequestParam @NotNull Payment.Method method,
-                          @RequestParam @NotNull @DecimalMin(value = "0.01") BigDecimal amount) {
+                          @RequestParam @NotNull @DecimalMin(value = "0.01") BigDecimal amount,
+                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         String payerUserId = "anonymous"; // For demo purposes
         
         // Log the received parameters for debugging
         System.out.println("PaymentController.create() - studentFeeId: " + studentFeeId + 
                           ", method: " + method + ", amount: " + amount);
-        
-        return paymentService.create(payerUserId, studentFeeId, method, amount);
+
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(paymentService.create(payerUserId, studentFeeId, method, amount));
+        }
+
+        // Retries with the same key get the stored JSON of the first response, byte for byte
+        String fingerprint = studentFeeId + "|" + method + "|" + amount.stripTrailingZeros().toPlainString();
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey, fingerprint,
+                paymentId -> paymentService.create(paymentId, payerUserId, studentFeeId, method, amount),
+                paymentService::findById);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.body());
+    }
+
+    // Acknowledged once the pending entry is journaled; poll /pending/{id} for the committed payment id
+    @PostMapping("/async")
+    public ResponseEntity<PendingPayment> createAsync(@RequestParam @NotBlank String studentFeeId,
+                                                      @RequestParam @NotNull Payment.Method method,
+                                                      @RequestParam @NotNull @DecimalMin(value = "0.01") BigDecimal amount) {
+        String payerUserId = "anonymous"; // For demo purposes
+        return new ResponseEntity<>(writeBehindPaymentService.submit(payerUserId, studentFeeId, method, amount),
+                HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/pending/stats")
+    public WriteBehindStats pendingStats() {
+        return writeBehindPaymentService.stats();
+    }
+
+    @GetMapping("/pending/{id}")
+    public PendingPayment pending(@PathVariable String id) {
+        return writeBehindPaymentService.getPending(id);
+    }
+
+    // Accepts a JSON array or NDJSON body; the stream is read record by record rather than bound up front
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkPaymentReport bulkCreate(HttpServletRequest request) throws IOException {
+        String payerUserId = "anonymous"; // For demo purposes
+        return paymentIngestionService.ingest(payerUserId, request.getInputStream());
     }
 
     @GetMapping
-    public List<Payment> listAll(@RequestParam(required = false) Payment.Method method,
+    public ResponseEntity<List<Payment>> listAll(@RequestParam(required = false) Payment.Method method,
                                    @RequestParam(required = false) Instant from,
-                                   @RequestParam(required = false) Instant to) {
+                                   @RequestParam(required = false) Instant to,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(required = false) Integer size) {
         System.out.println("PaymentController.listAll() - method: " + method + ", from: " + from + ", to: " + to);
+        if (!paginationSettings.isUnpaged(size, cursor)) {
+            return PageResponses.of(paymentService.page(method, from, to, cursor, paginationSettings.resolveSize(size)));
+        }
         List<Payment> result = paymentService.list(method, from, to);
         System.out.println("PaymentController.listAll() - returning " + result.size() + " payments");
-        return result;
+        return ResponseEntity.ok(result);
+    }
+
+    // Served from payment_daily_rollups, so the cost depends on the number of days in range, not on payment volume
+    @GetMapping("/summary")
+    public PaymentSummary summary(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                  @RequestParam(defaultValue = "") List<PaymentRollupService.GroupBy> groupBy) {
+        return paymentRollupService.summarize(from, to, groupBy);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/summary/rebuild")
+    public ResponseEntity<JobProgress> rebuildSummary() {
+        return new ResponseEntity<>(paymentRollupService.rebuild(), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) Payment.Method method,
+                                                        @RequestParam(required = false) Instant from,
+                                                        @RequestParam(required = false) Instant to,
+                                                        @RequestParam(defaultValue = "NDJSON") ExportService.Format format) {
+        return ExportResponses.attachment("payments", format,
+                out -> exportService.exportPayments(method, from, to, format, out));
     }
 
     @GetMapping("/student-fee/{studentFeeId}")
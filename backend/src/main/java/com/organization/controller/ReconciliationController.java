@@ -0,0 +1,34 @@
+package com.organization.controller;
+
+import com.organization.dto.JobProgress;
+import com.organization.service.JobService;
+import com.organization.service.ReconciliationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reconciliation")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+    private final JobService jobService;
+
+    public ReconciliationController(ReconciliationService reconciliationService,
+                                    JobService jobService) {
+        this.reconciliationService = reconciliationService;
+        this.jobService = jobService;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/runs")
+    public ResponseEntity<JobProgress> start(@RequestParam(defaultValue = "false") boolean repair) {
+        return new ResponseEntity<>(reconciliationService.start(repair), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/runs/{jobId}")
+    public JobProgress progress(@PathVariable String jobId) {
+        return jobService.get(jobId);
+    }
+}
@@ -0,0 +1,25 @@
+package com.organization.controller;
+
+import com.organization.dto.JobProgress;
+import com.organization.service.StorageMigrationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/migrations")
+public class StorageMigrationController {
+
+    private final StorageMigrationService storageMigrationService;
+
+    public StorageMigrationController(StorageMigrationService storageMigrationService) {
+        this.storageMigrationService = storageMigrationService;
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/compact-storage")
+    public ResponseEntity<JobProgress> compactStorage() {
+        return new ResponseEntity<>(storageMigrationService.compact(), HttpStatus.ACCEPTED);
+    }
+}
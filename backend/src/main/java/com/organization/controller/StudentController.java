@@ -1,13 +1,24 @@
 package com.organization.controller;
 
+import java.math.BigDecimal;
 import java.util.List;
 
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
 
+import com.organization.config.PaginationSettings;
+import com.organization.dto.JobProgress;
+import com.organization.dto.StudentDashboard;
 import com.organization.entity.Student;
+import com.organization.entity.StudentBalance;
+import com.organization.service.DashboardService;
+import com.organization.service.ExportService;
+import com.organization.service.StudentBalanceService;
 import com.organization.service.StudentService;
 
 @RestController
@@ -15,17 +26,78 @@ import com.organization.service.StudentService;
 public class StudentController {
 
 	private final StudentService studentService;
+	private final ExportService exportService;
+	private final PaginationSettings paginationSettings;
+	private final StudentBalanceService studentBalanceService;
+	private final DashboardService dashboardService;
 
-	public StudentController(StudentService studentService) {
+	public StudentController(StudentService studentService, ExportService exportService,
+			PaginationSettings paginationSettings, StudentBalanceService studentBalanceService,
+			DashboardService dashboardService) {
 		this.studentService = studentService;
+		this.exportService = exportService;
+		this.paginationSettings = paginationSettings;
+		this.studentBalanceService = studentBalanceService;
+		this.dashboardService = dashboardService;
 	}
 
 	@GetMapping
-	public ResponseEntity<List<Student>> findAllStudents() {
+	public ResponseEntity<List<Student>> findAllStudents(@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size) {
+		if (!paginationSettings.isUnpaged(size, cursor)) {
+			return PageResponses.of(studentService.findPage(cursor, paginationSettings.resolveSize(size)));
+		}
 		List<Student> studentList = studentService.findAll();
 		return new ResponseEntity<>(studentList, HttpStatus.OK);
 	}
 
+	// Sorted and filtered on the balance_id index of student_balances instead of joining fees per student
+	@GetMapping("/balances")
+	public ResponseEntity<List<StudentBalance>> findBalances(@RequestParam(required = false) BigDecimal minBalance,
+			@RequestParam(required = false) BigDecimal maxBalance,
+			@RequestParam(defaultValue = "DESC") Sort.Direction sort,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size) {
+		if (!paginationSettings.isUnpaged(size, cursor)) {
+			return PageResponses.of(studentBalanceService.page(minBalance, maxBalance, sort, cursor,
+					paginationSettings.resolveSize(size)));
+		}
+		return new ResponseEntity<>(studentBalanceService.list(minBalance, maxBalance, sort), HttpStatus.OK);
+	}
+
+	@PreAuthorize("hasRole('ADMIN')")
+	@PostMapping("/balances/rebuild")
+	public ResponseEntity<JobProgress> rebuildBalances() {
+		return new ResponseEntity<>(studentBalanceService.rebuild(), HttpStatus.ACCEPTED);
+	}
+
+	@GetMapping("/{sid}/balance")
+	public ResponseEntity<StudentBalance> findBalance(@PathVariable(name = "sid") String id) {
+		return new ResponseEntity<>(studentBalanceService.get(id), HttpStatus.OK);
+	}
+
+	@GetMapping("/{sid}/dashboard")
+	public ResponseEntity<StudentDashboard> findDashboard(@PathVariable(name = "sid") String id) {
+		return new ResponseEntity<>(dashboardService.studentDashboard(id), HttpStatus.OK);
+	}
+
+	// Served by the course_enrollment multikey index; always paged
+	@GetMapping("/enrolled")
+	public ResponseEntity<List<Student>> findEnrolled(@RequestParam String course,
+			@RequestParam String academicYear,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(required = false) Integer size) {
+		return PageResponses.of(studentService.findEnrolled(course, academicYear, cursor,
+				paginationSettings.resolveSize(size)));
+	}
+
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportStudents(
+			@RequestParam(defaultValue = "NDJSON") ExportService.Format format) {
+		return ExportResponses.attachment("students", format,
+				out -> exportService.exportStudents(format, out));
+	}
+
 	@GetMapping("/{sid}")
 	public ResponseEntity<Student> findStudent(@PathVariable(name = "sid") String id) {
 		Student student = studentService.findById(id);
@@ -1,10 +1,19 @@
 package com.organization.controller;
 
+import com.organization.config.PaginationSettings;
+import com.organization.dto.JobProgress;
+import com.organization.entity.ScanCheckpoint;
 import com.organization.entity.StudentFee;
+import com.organization.service.CohortAssignmentService;
+import com.organization.service.ExportService;
+import com.organization.service.OverdueScanService;
 import com.organization.service.StudentFeeService;
 import com.organization.exception.StudentApiException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.List;
@@ -14,9 +23,21 @@ import java.util.List;
 public class StudentFeeController {
 
     private final StudentFeeService studentFeeService;
+    private final ExportService exportService;
+    private final PaginationSettings paginationSettings;
+    private final CohortAssignmentService cohortAssignmentService;
+    private final OverdueScanService overdueScanService;
 
-    public StudentFeeController(StudentFeeService studentFeeService) {
+    public StudentFeeController(StudentFeeService studentFeeService,
+                                ExportService exportService,
+                                PaginationSettings paginationSettings,
+                                CohortAssignmentService cohortAssignmentService,
+                                OverdueScanService overdueScanService) {
         this.studentFeeService = studentFeeService;
+        this.exportService = exportService;
+        this.paginationSettings = paginationSettings;
+        this.cohortAssignmentService = cohortAssignmentService;
+        this.overdueScanService = overdueScanService;
     }
 
     @PostMapping("/assign")
@@ -30,9 +51,49 @@ public class StudentFeeController {
         }
     }
 
+    // Progress, cancellation and the per-student skip report are available under /api/jobs/{id}
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/assign-cohort")
+    public ResponseEntity<JobProgress> assignCohort(@RequestParam String feePlanId,
+                                                    @RequestParam Instant dueDate) {
+        try {
+            return new ResponseEntity<>(cohortAssignmentService.start(feePlanId, dueDate), HttpStatus.ACCEPTED);
+        } catch (IllegalStateException ex) {
+            throw new StudentApiException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
     @GetMapping
-    public List<StudentFee> listAll() {
-        return studentFeeService.listAll();
+    public ResponseEntity<List<StudentFee>> listAll(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        if (paginationSettings.isUnpaged(size, cursor)) {
+            return ResponseEntity.ok(studentFeeService.listAll());
+        }
+        return PageResponses.of(studentFeeService.page(cursor, paginationSettings.resolveSize(size)));
+    }
+
+    // Served by the overdue_due_date partial index; always paged
+    @GetMapping("/overdue")
+    public ResponseEntity<List<StudentFee>> overdue(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        return PageResponses.of(studentFeeService.overduePage(cursor, paginationSettings.resolveSize(size)));
+    }
+
+    @GetMapping("/overdue/scan")
+    public ScanCheckpoint overdueCheckpoint() {
+        return overdueScanService.checkpoint();
+    }
+
+    // Runs the scheduled scan immediately; it only covers due dates passed since the last checkpoint
+    @PostMapping("/overdue/scan")
+    public ScanCheckpoint scanOverdue() {
+        return overdueScanService.scan();
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "NDJSON") ExportService.Format format) {
+        return ExportResponses.attachment("student-fees", format,
+                out -> exportService.exportStudentFees(format, out));
     }
 
     @GetMapping("/me")
@@ -0,0 +1,77 @@
+package com.organization.dto;
+
+import com.organization.entity.StudentFee;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class AdminDashboardStats {
+
+	private final long totalStudents;
+	private final long activeFeePlans;
+	private final long totalAssignments;
+	private final Map<String, Long> assignmentsByStatus;
+	private final BigDecimal outstandingAmount;
+	private final long paymentsThisMonth;
+	private final BigDecimal collectedThisMonth;
+	private final List<StudentFee> overdueFees;
+	private final Instant generatedAt;
+
+	public AdminDashboardStats(long totalStudents, long activeFeePlans, long totalAssignments,
+			Map<String, Long> assignmentsByStatus, BigDecimal outstandingAmount, long paymentsThisMonth,
+			BigDecimal collectedThisMonth, List<StudentFee> overdueFees, Instant generatedAt) {
+		this.totalStudents = totalStudents;
+		this.activeFeePlans = activeFeePlans;
+		this.totalAssignments = totalAssignments;
+		this.assignmentsByStatus = assignmentsByStatus;
+		this.outstandingAmount = outstandingAmount;
+		this.paymentsThisMonth = paymentsThisMonth;
+		this.collectedThisMonth = collectedThisMonth;
+		this.overdueFees = overdueFees;
+		this.generatedAt = generatedAt;
+	}
+
+	public long getTotalStudents() {
+		return totalStudents;
+	}
+
+	public long getActiveFeePlans() {
+		return activeFeePlans;
+	}
+
+	public long getTotalAssignments() {
+		return totalAssignments;
+	}
+
+	public Map<String, Long> getAssignmentsByStatus() {
+		return assignmentsByStatus;
+	}
+
+	public BigDecimal getOutstandingAmount() {
+		return outstandingAmount;
+	}
+
+	public long getPaymentsThisMonth() {
+		return paymentsThisMonth;
+	}
+
+	public BigDecimal getCollectedThisMonth() {
+		return collectedThisMonth;
+	}
+
+	/**
+	 * Unpaid fees past their due date, oldest due date first.
+	 */
+	public List<StudentFee> getOverdueFees() {
+		return overdueFees;
+	}
+
+	/**
+	 * When the figures were computed; responses may be served from cache for a few seconds.
+	 */
+	public Instant getGeneratedAt() {
+		return generatedAt;
+	}
+}
@@ -0,0 +1,74 @@
+package com.organization.dto;
+
+import com.organization.entity.Payment;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+public class BulkPaymentRecord {
+
+	@NotBlank(message = "Student fee ID is required")
+	private String studentFeeId;
+
+	@NotNull(message = "Payment method is required")
+	private Payment.Method method;
+
+	@NotNull(message = "Payment amount is required")
+	@DecimalMin(value = "0.01", message = "Payment amount must be greater than 0")
+	@Digits(integer = 10, fraction = 2, message = "Payment amount must have at most 10 integer digits and 2 decimal places")
+	private BigDecimal amount;
+
+	@Size(max = 50, message = "Reference number must not exceed 50 characters")
+	private String referenceNo;
+
+	@Size(max = 500, message = "Notes must not exceed 500 characters")
+	private String notes;
+
+	public BulkPaymentRecord() {
+		super();
+	}
+
+	public String getStudentFeeId() {
+		return studentFeeId;
+	}
+
+	public void setStudentFeeId(String studentFeeId) {
+		this.studentFeeId = studentFeeId;
+	}
+
+	public Payment.Method getMethod() {
+		return method;
+	}
+
+	public void setMethod(Payment.Method method) {
+		this.method = method;
+	}
+
+	public BigDecimal getAmount() {
+		return amount;
+	}
+
+	public void setAmount(BigDecimal amount) {
+		this.amount = amount;
+	}
+
+	public String getReferenceNo() {
+		return referenceNo;
+	}
+
+	public void setReferenceNo(String referenceNo) {
+		this.referenceNo = referenceNo;
+	}
+
+	public String getNotes() {
+		return notes;
+	}
+
+	public void setNotes(String notes) {
+		this.notes = notes;
+	}
+}
@@ -0,0 +1,47 @@
+package com.organization.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkPaymentReport {
+
+	private int received;
+	private int accepted;
+	private int rejected;
+	private long elapsedMillis;
+	private final List<BulkPaymentResult> results = new ArrayList<>();
+
+	public void add(BulkPaymentResult result) {
+		results.add(result);
+		received++;
+		if (result.getStatus() == BulkPaymentResult.Status.ACCEPTED) {
+			accepted++;
+		} else {
+			rejected++;
+		}
+	}
+
+	public int getReceived() {
+		return received;
+	}
+
+	public int getAccepted() {
+		return accepted;
+	}
+
+	public int getRejected() {
+		return rejected;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	public List<BulkPaymentResult> getResults() {
+		return results;
+	}
+}
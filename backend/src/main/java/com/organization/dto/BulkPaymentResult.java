@@ -0,0 +1,48 @@
+package com.organization.dto;
+
+public class BulkPaymentResult {
+
+	public enum Status { ACCEPTED, REJECTED }
+
+	private final int index;
+	private final Status status;
+	private final String studentFeeId;
+	private final String paymentId;
+	private final String error;
+
+	public BulkPaymentResult(int index, Status status, String studentFeeId, String paymentId, String error) {
+		this.index = index;
+		this.status = status;
+		this.studentFeeId = studentFeeId;
+		this.paymentId = paymentId;
+		this.error = error;
+	}
+
+	public static BulkPaymentResult accepted(int index, String studentFeeId, String paymentId) {
+		return new BulkPaymentResult(index, Status.ACCEPTED, studentFeeId, paymentId, null);
+	}
+
+	public static BulkPaymentResult rejected(int index, String studentFeeId, String error) {
+		return new BulkPaymentResult(index, Status.REJECTED, studentFeeId, null, error);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public String getStudentFeeId() {
+		return studentFeeId;
+	}
+
+	public String getPaymentId() {
+		return paymentId;
+	}
+
+	public String getError() {
+		return error;
+	}
+}
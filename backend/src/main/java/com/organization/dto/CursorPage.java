@@ -0,0 +1,25 @@
+package com.organization.dto;
+
+import java.util.List;
+
+public class CursorPage<T> {
+
+	private final List<T> items;
+	private final String nextCursor;
+
+	public CursorPage(List<T> items, String nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * Opaque token for the following page, or {@code null} when this is the last page.
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+}
@@ -0,0 +1,129 @@
+package com.organization.dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress of a background job. Counters and details are updated by worker threads while the job runs
+ * and read by the progress endpoint, so every mutator is thread-safe.
+ */
+public class JobProgress {
+
+	public enum Status { RUNNING, COMPLETED, FAILED, CANCELLED }
+
+	private final String id;
+	private final String type;
+	private final Instant startedAt = Instant.now();
+	private final int maxDetails;
+	private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+	private final List<Object> details = new ArrayList<>();
+	private final AtomicLong completedUnits = new AtomicLong();
+	private volatile long totalUnits;
+	private volatile Status status = Status.RUNNING;
+	private volatile Instant finishedAt;
+	private volatile String error;
+	private volatile boolean cancelRequested;
+
+	public JobProgress(String id, String type, int maxDetails) {
+		this.id = id;
+		this.type = type;
+		this.maxDetails = maxDetails;
+	}
+
+	public void increment(String counter, long delta) {
+		counters.computeIfAbsent(counter, key -> new AtomicLong()).addAndGet(delta);
+	}
+
+	public void increment(String counter) {
+		increment(counter, 1);
+	}
+
+	/**
+	 * Records a detail entry (a mismatch, a skipped record, ...) unless the cap has been reached.
+	 */
+	public void addDetail(Object detail) {
+		synchronized (details) {
+			if (details.size() < maxDetails) {
+				details.add(detail);
+			} else {
+				increment("detailsDropped");
+			}
+		}
+	}
+
+	public void completeUnit() {
+		completedUnits.incrementAndGet();
+	}
+
+	public void setTotalUnits(long totalUnits) {
+		this.totalUnits = totalUnits;
+	}
+
+	public void requestCancel() {
+		this.cancelRequested = true;
+	}
+
+	public void finish(Status status, String error) {
+		this.status = status;
+		this.error = error;
+		this.finishedAt = Instant.now();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public Instant getStartedAt() {
+		return startedAt;
+	}
+
+	public Instant getFinishedAt() {
+		return finishedAt;
+	}
+
+	public long getTotalUnits() {
+		return totalUnits;
+	}
+
+	public long getCompletedUnits() {
+		return completedUnits.get();
+	}
+
+	public Map<String, Long> getCounters() {
+		Map<String, Long> snapshot = new TreeMap<>();
+		counters.forEach((key, value) -> snapshot.put(key, value.get()));
+		return snapshot;
+	}
+
+	public long getCounter(String counter) {
+		AtomicLong value = counters.get(counter);
+		return value == null ? 0 : value.get();
+	}
+
+	public List<Object> getDetails() {
+		synchronized (details) {
+			return new ArrayList<>(details);
+		}
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public boolean isCancelRequested() {
+		return cancelRequested;
+	}
+}
@@ -0,0 +1,26 @@
+package com.organization.dto;
+
+import com.organization.entity.Payment;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Closed projection of {@link Payment}; only these fields are read from Mongo.
+ */
+public interface PaymentLine {
+
+	String getId();
+
+	String getStudentFeeId();
+
+	Payment.Method getMethod();
+
+	BigDecimal getAmount();
+
+	Instant getPaidAt();
+
+	String getReferenceNo();
+
+	String getNotes();
+}
@@ -0,0 +1,75 @@
+package com.organization.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public class PaymentSummary {
+
+	private final LocalDate from;
+	private final LocalDate to;
+	private final List<String> groupBy;
+	private final long totalCount;
+	private final BigDecimal totalAmount;
+	private final List<Row> rows;
+
+	public PaymentSummary(LocalDate from, LocalDate to, List<String> groupBy, long totalCount,
+			BigDecimal totalAmount, List<Row> rows) {
+		this.from = from;
+		this.to = to;
+		this.groupBy = groupBy;
+		this.totalCount = totalCount;
+		this.totalAmount = totalAmount;
+		this.rows = rows;
+	}
+
+	public LocalDate getFrom() {
+		return from;
+	}
+
+	public LocalDate getTo() {
+		return to;
+	}
+
+	public List<String> getGroupBy() {
+		return groupBy;
+	}
+
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	public BigDecimal getTotalAmount() {
+		return totalAmount;
+	}
+
+	public List<Row> getRows() {
+		return rows;
+	}
+
+	public static class Row {
+
+		private final Map<String, Object> group;
+		private final long count;
+		private final BigDecimal amount;
+
+		public Row(Map<String, Object> group, long count, BigDecimal amount) {
+			this.group = group;
+			this.count = count;
+			this.amount = amount;
+		}
+
+		public Map<String, Object> getGroup() {
+			return group;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public BigDecimal getAmount() {
+			return amount;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.organization.dto;
+
+import java.math.BigDecimal;
+
+public class RepriceResult {
+
+	private final String feePlanId;
+	private final boolean dryRun;
+	private final long feesAffected;
+	private final long feesUpdated;
+	private final BigDecimal amountDelta;
+
+	public RepriceResult(String feePlanId, boolean dryRun, long feesAffected, long feesUpdated,
+			BigDecimal amountDelta) {
+		this.feePlanId = feePlanId;
+		this.dryRun = dryRun;
+		this.feesAffected = feesAffected;
+		this.feesUpdated = feesUpdated;
+		this.amountDelta = amountDelta;
+	}
+
+	public String getFeePlanId() {
+		return feePlanId;
+	}
+
+	public boolean isDryRun() {
+		return dryRun;
+	}
+
+	/**
+	 * Unpaid fees assigned from the plan.
+	 */
+	public long getFeesAffected() {
+		return feesAffected;
+	}
+
+	/**
+	 * Fees whose stored values actually changed; always zero for a dry run.
+	 */
+	public long getFeesUpdated() {
+		return feesUpdated;
+	}
+
+	/**
+	 * Change in the total amount assigned across the affected fees.
+	 */
+	public BigDecimal getAmountDelta() {
+		return amountDelta;
+	}
+}
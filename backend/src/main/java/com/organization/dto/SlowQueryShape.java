@@ -0,0 +1,91 @@
+package com.organization.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class SlowQueryShape {
+
+	private final String database;
+	private final String collection;
+	private final String command;
+	private final String shape;
+	private final long count;
+	private final double averageMillis;
+	private final double maxMillis;
+	private final Instant lastSeen;
+	private final List<String> planStages;
+	private final List<String> indexes;
+	private final List<String> flags;
+	private final Instant explainedAt;
+	private final String explainError;
+
+	public SlowQueryShape(String database, String collection, String command, String shape, long count,
+			double averageMillis, double maxMillis, Instant lastSeen, List<String> planStages, List<String> indexes,
+			List<String> flags, Instant explainedAt, String explainError) {
+		this.database = database;
+		this.collection = collection;
+		this.command = command;
+		this.shape = shape;
+		this.count = count;
+		this.averageMillis = averageMillis;
+		this.maxMillis = maxMillis;
+		this.lastSeen = lastSeen;
+		this.planStages = planStages;
+		this.indexes = indexes;
+		this.flags = flags;
+		this.explainedAt = explainedAt;
+		this.explainError = explainError;
+	}
+
+	public String getDatabase() {
+		return database;
+	}
+
+	public String getCollection() {
+		return collection;
+	}
+
+	public String getCommand() {
+		return command;
+	}
+
+	public String getShape() {
+		return shape;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getAverageMillis() {
+		return averageMillis;
+	}
+
+	public double getMaxMillis() {
+		return maxMillis;
+	}
+
+	public Instant getLastSeen() {
+		return lastSeen;
+	}
+
+	public List<String> getPlanStages() {
+		return planStages;
+	}
+
+	public List<String> getIndexes() {
+		return indexes;
+	}
+
+	public List<String> getFlags() {
+		return flags;
+	}
+
+	public Instant getExplainedAt() {
+		return explainedAt;
+	}
+
+	public String getExplainError() {
+		return explainError;
+	}
+}
@@ -0,0 +1,73 @@
+package com.organization.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class StudentDashboard {
+
+	private final String studentId;
+	private final BigDecimal totalAssigned;
+	private final BigDecimal totalPaid;
+	private final BigDecimal balance;
+	private final int pendingCount;
+	private final int partialCount;
+	private final List<StudentFeeLine> fees;
+	private final List<StudentFeeLine> nextDue;
+	private final List<PaymentLine> payments;
+
+	public StudentDashboard(String studentId, BigDecimal totalAssigned, BigDecimal totalPaid, BigDecimal balance,
+			int pendingCount, int partialCount, List<StudentFeeLine> fees, List<StudentFeeLine> nextDue,
+			List<PaymentLine> payments) {
+		this.studentId = studentId;
+		this.totalAssigned = totalAssigned;
+		this.totalPaid = totalPaid;
+		this.balance = balance;
+		this.pendingCount = pendingCount;
+		this.partialCount = partialCount;
+		this.fees = fees;
+		this.nextDue = nextDue;
+		this.payments = payments;
+	}
+
+	public String getStudentId() {
+		return studentId;
+	}
+
+	public BigDecimal getTotalAssigned() {
+		return totalAssigned;
+	}
+
+	public BigDecimal getTotalPaid() {
+		return totalPaid;
+	}
+
+	public BigDecimal getBalance() {
+		return balance;
+	}
+
+	public int getPendingCount() {
+		return pendingCount;
+	}
+
+	public int getPartialCount() {
+		return partialCount;
+	}
+
+	public List<StudentFeeLine> getFees() {
+		return fees;
+	}
+
+	/**
+	 * Unpaid fees with a due date, earliest first.
+	 */
+	public List<StudentFeeLine> getNextDue() {
+		return nextDue;
+	}
+
+	/**
+	 * Most recent first.
+	 */
+	public List<PaymentLine> getPayments() {
+		return payments;
+	}
+}
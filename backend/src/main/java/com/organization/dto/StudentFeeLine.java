@@ -0,0 +1,30 @@
+package com.organization.dto;
+
+import com.organization.entity.StudentFee;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Closed projection of {@link StudentFee}; only these fields are read from Mongo.
+ */
+public interface StudentFeeLine {
+
+	String getId();
+
+	String getFeePlanId();
+
+	String getCourse();
+
+	String getAcademicYear();
+
+	BigDecimal getAmountAssigned();
+
+	BigDecimal getAmountPaid();
+
+	StudentFee.Status getStatus();
+
+	Instant getAssignedAt();
+
+	Instant getDueDate();
+}
@@ -0,0 +1,57 @@
+package com.organization.dto;
+
+public class TokenVerificationStats {
+
+	private final int cacheSize;
+	private final int cacheCapacity;
+	private final long hits;
+	private final long misses;
+	private final double hitRate;
+	private final long verifications;
+	private final double averageVerifyMicros;
+	private final long maxVerifyMicros;
+
+	public TokenVerificationStats(int cacheSize, int cacheCapacity, long hits, long misses, double hitRate,
+			long verifications, double averageVerifyMicros, long maxVerifyMicros) {
+		this.cacheSize = cacheSize;
+		this.cacheCapacity = cacheCapacity;
+		this.hits = hits;
+		this.misses = misses;
+		this.hitRate = hitRate;
+		this.verifications = verifications;
+		this.averageVerifyMicros = averageVerifyMicros;
+		this.maxVerifyMicros = maxVerifyMicros;
+	}
+
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	public int getCacheCapacity() {
+		return cacheCapacity;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public double getHitRate() {
+		return hitRate;
+	}
+
+	public long getVerifications() {
+		return verifications;
+	}
+
+	public double getAverageVerifyMicros() {
+		return averageVerifyMicros;
+	}
+
+	public long getMaxVerifyMicros() {
+		return maxVerifyMicros;
+	}
+}
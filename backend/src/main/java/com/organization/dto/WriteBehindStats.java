@@ -0,0 +1,82 @@
+package com.organization.dto;
+
+public class WriteBehindStats {
+
+	private final boolean enabled;
+	private final int queueDepth;
+	private final int queueCapacity;
+	private final long accepted;
+	private final long rejectedByBackpressure;
+	private final long committed;
+	private final long failed;
+	private final long batches;
+	private final double averageBatchSize;
+	private final int lastBatchSize;
+	private final double averageCommitMillis;
+	private final long maxCommitMillis;
+
+	public WriteBehindStats(boolean enabled, int queueDepth, int queueCapacity, long accepted,
+			long rejectedByBackpressure, long committed, long failed, long batches, double averageBatchSize,
+			int lastBatchSize, double averageCommitMillis, long maxCommitMillis) {
+		this.enabled = enabled;
+		this.queueDepth = queueDepth;
+		this.queueCapacity = queueCapacity;
+		this.accepted = accepted;
+		this.rejectedByBackpressure = rejectedByBackpressure;
+		this.committed = committed;
+		this.failed = failed;
+		this.batches = batches;
+		this.averageBatchSize = averageBatchSize;
+		this.lastBatchSize = lastBatchSize;
+		this.averageCommitMillis = averageCommitMillis;
+		this.maxCommitMillis = maxCommitMillis;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public long getAccepted() {
+		return accepted;
+	}
+
+	public long getRejectedByBackpressure() {
+		return rejectedByBackpressure;
+	}
+
+	public long getCommitted() {
+		return committed;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public long getBatches() {
+		return batches;
+	}
+
+	public double getAverageBatchSize() {
+		return averageBatchSize;
+	}
+
+	public int getLastBatchSize() {
+		return lastBatchSize;
+	}
+
+	public double getAverageCommitMillis() {
+		return averageCommitMillis;
+	}
+
+	public long getMaxCommitMillis() {
+		return maxCommitMillis;
+	}
+}
@@ -0,0 +1,175 @@
+package com.organization.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Immutable snapshot of a fee plan's amounts. Fees reference the version they were assigned from, so editing a
+ * plan never changes what existing fees show; a new version is written whenever the amounts change.
+ */
+@Document(collection = "fee_plan_versions")
+@CompoundIndex(name = "plan_version_unique", def = "{'feePlanId':1,'version':1}", unique = true)
+public class FeePlanVersion {
+
+    @Id
+    private String id;
+
+    private String feePlanId;
+
+    private int version;
+
+    private String course;
+
+    private String academicYear;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal tuition = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal hostel = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal library = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal lab = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal sports = BigDecimal.ZERO;
+
+    private Instant createdAt;
+
+    public FeePlanVersion() {}
+
+    public FeePlanVersion(FeePlan plan, int version) {
+        this.feePlanId = plan.getId();
+        this.version = version;
+        this.course = plan.getCourse();
+        this.academicYear = plan.getAcademicYear();
+        this.tuition = plan.getTuition();
+        this.hostel = plan.getHostel();
+        this.library = plan.getLibrary();
+        this.lab = plan.getLab();
+        this.sports = plan.getSports();
+        this.createdAt = Instant.now();
+    }
+
+    /**
+     * Whether this version holds the same amounts as {@code plan}, ignoring scale.
+     */
+    public boolean sameAmounts(FeePlan plan) {
+        return same(tuition, plan.getTuition()) && same(hostel, plan.getHostel()) && same(library, plan.getLibrary())
+                && same(lab, plan.getLab()) && same(sports, plan.getSports());
+    }
+
+    private static boolean same(BigDecimal a, BigDecimal b) {
+        return a == null || b == null ? a == b : a.compareTo(b) == 0;
+    }
+
+    public BigDecimal getTotal() {
+        return tuition.add(hostel).add(library).add(lab).add(sports);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFeePlanId() {
+        return feePlanId;
+    }
+
+    public void setFeePlanId(String feePlanId) {
+        this.feePlanId = feePlanId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getCourse() {
+        return course;
+    }
+
+    public void setCourse(String course) {
+        this.course = course;
+    }
+
+    public String getAcademicYear() {
+        return academicYear;
+    }
+
+    public void setAcademicYear(String academicYear) {
+        this.academicYear = academicYear;
+    }
+
+    public BigDecimal getTuition() {
+        return tuition;
+    }
+
+    public void setTuition(BigDecimal tuition) {
+        this.tuition = tuition;
+    }
+
+    public BigDecimal getHostel() {
+        return hostel;
+    }
+
+    public void setHostel(BigDecimal hostel) {
+        this.hostel = hostel;
+    }
+
+    public BigDecimal getLibrary() {
+        return library;
+    }
+
+    public void setLibrary(BigDecimal library) {
+        this.library = library;
+    }
+
+    public BigDecimal getLab() {
+        return lab;
+    }
+
+    public void setLab(BigDecimal lab) {
+        this.lab = lab;
+    }
+
+    public BigDecimal getSports() {
+        return sports;
+    }
+
+    public void setSports(BigDecimal sports) {
+        this.sports = sports;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "FeePlanVersion{" +
+                "id='" + id + '\'' +
+                ", feePlanId='" + feePlanId + '\'' +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,119 @@
+package com.organization.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Remembers the response of a request sent with an {@code Idempotency-Key} header so retries can be replayed.
+ * The key itself is the document id, which gives the unique constraint for free. Records expire through the
+ * {@code created_at_ttl} index, which is created from {@code app.idempotency.retention} at startup.
+ * <p>
+ * {@code resourceId} is chosen when the key is claimed and used as the id of whatever the request creates, so if
+ * the request dies before it is marked completed the next claimant can still find what it produced.
+ */
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    private String key;
+
+    private String fingerprint;
+
+    private Status status = Status.IN_PROGRESS;
+
+    private String response;
+
+    private String resourceId;
+
+    private Instant leaseExpiresAt;
+
+    private Instant createdAt = Instant.now();
+
+    public enum Status { IN_PROGRESS, COMPLETED }
+
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String key, String fingerprint, Status status, String response, String resourceId,
+                             Instant leaseExpiresAt, Instant createdAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.response = response;
+        this.resourceId = resourceId;
+        this.leaseExpiresAt = leaseExpiresAt;
+        this.createdAt = createdAt;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getResponse() {
+        return response;
+    }
+
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    public String getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(String resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    /**
+     * While {@link Status#IN_PROGRESS}, the time after which the claim is presumed dead and may be taken over.
+     */
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Instant leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyRecord{" +
+                "key='" + key + '\'' +
+                ", fingerprint='" + fingerprint + '\'' +
+                ", status=" + status +
+                ", resourceId='" + resourceId + '\'' +
+                ", leaseExpiresAt=" + leaseExpiresAt +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,173 @@
+package com.organization.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Checkpoint of one {@code _id} range of a day's late-fee run. The bounds are fixed when the run is first
+ * started, so a resumed run continues each range after {@code lastId} instead of re-partitioning.
+ */
+@Document(collection = "late_fee_runs")
+public class LateFeeRunPartition {
+
+    /**
+     * {@code day|index}.
+     */
+    @Id
+    private String id;
+
+    @Indexed
+    private String day;
+
+    private int index;
+
+    private String lowerId;
+
+    private String upperId;
+
+    private String lastId;
+
+    private boolean done;
+
+    private long feesScanned;
+
+    private long feesCharged;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal amountCharged = BigDecimal.ZERO;
+
+    private long elapsedMillis;
+
+    private Instant updatedAt;
+
+    public LateFeeRunPartition() {}
+
+    public LateFeeRunPartition(String day, int index, String lowerId, String upperId) {
+        this.id = day + "|" + index;
+        this.day = day;
+        this.index = index;
+        this.lowerId = lowerId;
+        this.upperId = upperId;
+        this.updatedAt = Instant.now();
+    }
+
+    /**
+     * Fees scanned per second of processing time, across all attempts.
+     */
+    public double getFeesPerSecond() {
+        return elapsedMillis == 0 ? 0 : feesScanned * 1000.0 / elapsedMillis;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getLowerId() {
+        return lowerId;
+    }
+
+    public void setLowerId(String lowerId) {
+        this.lowerId = lowerId;
+    }
+
+    public String getUpperId() {
+        return upperId;
+    }
+
+    public void setUpperId(String upperId) {
+        this.upperId = upperId;
+    }
+
+    public String getLastId() {
+        return lastId;
+    }
+
+    public void setLastId(String lastId) {
+        this.lastId = lastId;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+    public long getFeesScanned() {
+        return feesScanned;
+    }
+
+    public void setFeesScanned(long feesScanned) {
+        this.feesScanned = feesScanned;
+    }
+
+    public long getFeesCharged() {
+        return feesCharged;
+    }
+
+    public void setFeesCharged(long feesCharged) {
+        this.feesCharged = feesCharged;
+    }
+
+    public BigDecimal getAmountCharged() {
+        return amountCharged;
+    }
+
+    public void setAmountCharged(BigDecimal amountCharged) {
+        this.amountCharged = amountCharged;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "LateFeeRunPartition{" +
+                "id='" + id + '\'' +
+                ", lastId='" + lastId + '\'' +
+                ", done=" + done +
+                ", feesScanned=" + feesScanned +
+                ", feesCharged=" + feesCharged +
+                '}';
+    }
+}
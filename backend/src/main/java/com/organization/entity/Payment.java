@@ -1,48 +1,76 @@
 package com.organization.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 
 @Document(collection = "payments")
+@CompoundIndexes({
+        @CompoundIndex(name = "student_paid_at", def = "{'sid':1,'pa':-1}"),
+        @CompoundIndex(name = "paid_at_id", def = "{'pa':1,'_id':1}"),
+        @CompoundIndex(name = "method_paid_at_id", def = "{'m':1,'pa':1,'_id':1}")
+})
 public class Payment {
 
+    /**
+     * Stored field names; raw filters and pipelines must use these rather than the property names.
+     */
+    public static final class Fields {
+        public static final String STUDENT_FEE_ID = "sf";
+        public static final String STUDENT_ID = "sid";
+        public static final String PAYER_USER_ID = "pu";
+        public static final String METHOD = "m";
+        public static final String AMOUNT = "a";
+        public static final String PAID_AT = "pa";
+        public static final String REFERENCE_NO = "ref";
+        public static final String NOTES = "n";
+
+        private Fields() {
+        }
+    }
+
     @Id
     private String id;
 
     @Indexed
+    @Field(Fields.STUDENT_FEE_ID)
     @NotBlank(message = "Student fee ID is required")
     private String studentFeeId;
 
-    @Indexed
+    @Field(Fields.STUDENT_ID)
     @NotBlank(message = "Student ID is required")
     private String studentId;
 
-    @Indexed
+    @Field(Fields.PAYER_USER_ID)
     @NotBlank(message = "Payer user ID is required")
     private String payerUserId;
 
-    @Indexed
+    @Field(Fields.METHOD)
     @NotNull(message = "Payment method is required")
     private Method method;
 
-    @Indexed
+    @Field(Fields.AMOUNT)
     @NotNull(message = "Payment amount is required")
     @DecimalMin(value = "0.01", message = "Payment amount must be greater than 0")
     @Digits(integer = 10, fraction = 2, message = "Payment amount must have at most 10 integer digits and 2 decimal places")
     private BigDecimal amount;
 
-    @Indexed
+    @Field(Fields.PAID_AT)
     @NotNull(message = "Payment date is required")
     private Instant paidAt = Instant.now();
 
+    @Field(Fields.REFERENCE_NO)
     @Size(max = 50, message = "Reference number must not exceed 50 characters")
     private String referenceNo;
     
+    @Field(Fields.NOTES)
     @Size(max = 500, message = "Notes must not exceed 500 characters")
     private String notes;
 
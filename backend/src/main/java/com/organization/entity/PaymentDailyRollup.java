@@ -0,0 +1,108 @@
+package com.organization.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+
+/**
+ * Pre-aggregated payment totals for one (day, method, course, academicYear) bucket, kept current by
+ * {@code $inc} upserts whenever a payment is posted or removed.
+ */
+@Document(collection = "payment_daily_rollups")
+public class PaymentDailyRollup {
+
+    /**
+     * Deterministic key built from the bucket fields so concurrent upserts always target the same document.
+     */
+    @Id
+    private String id;
+
+    @Indexed
+    private String day;
+
+    private Payment.Method method;
+
+    private String course;
+
+    private String academicYear;
+
+    private long count;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    public PaymentDailyRollup() {}
+
+    public static String key(String day, Payment.Method method, String course, String academicYear) {
+        return day + "|" + method + "|" + (course == null ? "" : course) + "|" + (academicYear == null ? "" : academicYear);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getDay() {
+        return day;
+    }
+
+    public void setDay(String day) {
+        this.day = day;
+    }
+
+    public Payment.Method getMethod() {
+        return method;
+    }
+
+    public void setMethod(Payment.Method method) {
+        this.method = method;
+    }
+
+    public String getCourse() {
+        return course;
+    }
+
+    public void setCourse(String course) {
+        this.course = course;
+    }
+
+    public String getAcademicYear() {
+        return academicYear;
+    }
+
+    public void setAcademicYear(String academicYear) {
+        this.academicYear = academicYear;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentDailyRollup{" +
+                "id='" + id + '\'' +
+                ", count=" + count +
+                ", amount=" + amount +
+                '}';
+    }
+}
@@ -0,0 +1,144 @@
+package com.organization.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A payment accepted by the write-behind pipeline. The document is journaled before the request is acknowledged
+ * and is committed into {@code payments} later under the same id.
+ */
+@Document(collection = "pending_payments")
+public class PendingPayment {
+
+    @Id
+    private String id;
+
+    private String studentFeeId;
+
+    private String payerUserId;
+
+    private Payment.Method method;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal amount;
+
+    @Indexed
+    private Status status = Status.QUEUED;
+
+    private String paymentId;
+
+    private String error;
+
+    private Instant createdAt = Instant.now();
+
+    private Instant committedAt;
+
+    public enum Status { QUEUED, COMMITTED, REJECTED }
+
+    public PendingPayment() {}
+
+    public PendingPayment(String id, String studentFeeId, String payerUserId, Payment.Method method, BigDecimal amount) {
+        this.id = id;
+        this.studentFeeId = studentFeeId;
+        this.payerUserId = payerUserId;
+        this.method = method;
+        this.amount = amount;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStudentFeeId() {
+        return studentFeeId;
+    }
+
+    public void setStudentFeeId(String studentFeeId) {
+        this.studentFeeId = studentFeeId;
+    }
+
+    public String getPayerUserId() {
+        return payerUserId;
+    }
+
+    public void setPayerUserId(String payerUserId) {
+        this.payerUserId = payerUserId;
+    }
+
+    public Payment.Method getMethod() {
+        return method;
+    }
+
+    public void setMethod(Payment.Method method) {
+        this.method = method;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(String paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getCommittedAt() {
+        return committedAt;
+    }
+
+    public void setCommittedAt(Instant committedAt) {
+        this.committedAt = committedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingPayment{" +
+                "id='" + id + '\'' +
+                ", studentFeeId='" + studentFeeId + '\'' +
+                ", method=" + method +
+                ", amount=" + amount +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package com.organization.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Position reached by an incremental background scan, so the next run only looks at what changed since.
+ */
+@Document(collection = "scan_checkpoints")
+public class ScanCheckpoint {
+
+    /**
+     * Name of the scan.
+     */
+    @Id
+    private String id;
+
+    private Instant scannedUpTo;
+
+    private long lastRunStudents;
+
+    private Instant updatedAt;
+
+    public ScanCheckpoint() {}
+
+    public ScanCheckpoint(String id, Instant scannedUpTo, long lastRunStudents, Instant updatedAt) {
+        this.id = id;
+        this.scannedUpTo = scannedUpTo;
+        this.lastRunStudents = lastRunStudents;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Instant getScannedUpTo() {
+        return scannedUpTo;
+    }
+
+    public void setScannedUpTo(Instant scannedUpTo) {
+        this.scannedUpTo = scannedUpTo;
+    }
+
+    public long getLastRunStudents() {
+        return lastRunStudents;
+    }
+
+    public void setLastRunStudents(long lastRunStudents) {
+        this.lastRunStudents = lastRunStudents;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanCheckpoint{" +
+                "id='" + id + '\'' +
+                ", scannedUpTo=" + scannedUpTo +
+                ", lastRunStudents=" + lastRunStudents +
+                '}';
+    }
+}
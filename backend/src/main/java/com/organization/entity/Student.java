@@ -8,6 +8,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -15,8 +16,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "students")
+@CompoundIndex(name = "course_enrollment",
+        def = "{'courses.courseName':1,'courses.startYear':1,'courses.endYear':1}",
+        collation = Student.COURSE_COLLATION)
 public class Student {
 
+    /**
+     * Case-insensitive collation of the enrollment index; queries must use the same collation to be served by it.
+     */
+    public static final String COURSE_COLLATION = "{'locale':'en','strength':2}";
+
     @Id
     private String id;
 
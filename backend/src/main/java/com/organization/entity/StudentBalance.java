@@ -0,0 +1,112 @@
+package com.organization.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Per-student fee totals, keyed by the student id and kept current by {@code $inc} updates whenever a fee is
+ * assigned or removed or a payment is posted or reversed.
+ */
+@Document(collection = "student_balances")
+@CompoundIndex(name = "balance_id", def = "{'balance':1,'_id':1}")
+public class StudentBalance {
+
+    @Id
+    private String studentId;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalAssigned = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalPaid = BigDecimal.ZERO;
+
+    /**
+     * {@code totalAssigned - totalPaid}, stored so it can be indexed for sorting and range filters.
+     */
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    /**
+     * Unpaid fees past their due date, as of the last change to this student's fees.
+     */
+    private int overdueCount;
+
+    private Instant lastPaymentAt;
+
+    private Instant updatedAt;
+
+    public StudentBalance() {}
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public BigDecimal getTotalAssigned() {
+        return totalAssigned;
+    }
+
+    public void setTotalAssigned(BigDecimal totalAssigned) {
+        this.totalAssigned = totalAssigned;
+    }
+
+    public BigDecimal getTotalPaid() {
+        return totalPaid;
+    }
+
+    public void setTotalPaid(BigDecimal totalPaid) {
+        this.totalPaid = totalPaid;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public int getOverdueCount() {
+        return overdueCount;
+    }
+
+    public void setOverdueCount(int overdueCount) {
+        this.overdueCount = overdueCount;
+    }
+
+    public Instant getLastPaymentAt() {
+        return lastPaymentAt;
+    }
+
+    public void setLastPaymentAt(Instant lastPaymentAt) {
+        this.lastPaymentAt = lastPaymentAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "StudentBalance{" +
+                "studentId='" + studentId + '\'' +
+                ", totalAssigned=" + totalAssigned +
+                ", totalPaid=" + totalPaid +
+                ", balance=" + balance +
+                ", overdueCount=" + overdueCount +
+                '}';
+    }
+}
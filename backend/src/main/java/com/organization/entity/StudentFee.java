@@ -1,53 +1,143 @@
 package com.organization.entity;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 @Document(collection = "student_fees")
-@CompoundIndex(name = "student_fee_unique", def = "{'studentId':1,'feePlanId':1}", unique = true)
+@CompoundIndexes({
+        @CompoundIndex(name = "student_fee_unique", def = "{'sid':1,'fp':1}", unique = true),
+        @CompoundIndex(name = "assigned_at_id", def = "{'at':1,'_id':1}"),
+        @CompoundIndex(name = "status_due_date", def = "{'s':1,'dd':1}")
+})
 public class StudentFee {
 
+    /**
+     * Stored field names. Fees are written millions of times, so each property is mapped to a short key;
+     * raw filters, updates and pipelines must use these rather than the property names.
+     */
+    public static final class Fields {
+        public static final String STUDENT_ID = "sid";
+        public static final String FEE_PLAN_ID = "fp";
+        public static final String PLAN_VERSION_ID = "pv";
+        public static final String COURSE = "c";
+        public static final String ACADEMIC_YEAR = "ay";
+        public static final String AMOUNT_ASSIGNED = "aa";
+        public static final String AMOUNT_PAID = "ap";
+        public static final String STATUS = "s";
+        public static final String ASSIGNED_AT = "at";
+        public static final String DUE_DATE = "dd";
+        public static final String OVERDUE = "od";
+        public static final String PENALTIES = "pn";
+        public static final String LAST_PENALTY_DAY = "lpd";
+        public static final String PENALTY_DAY = "d";
+        public static final String PENALTY_AMOUNT = "a";
+        public static final String PENALTY_RULE = "r";
+        /**
+         * Ids of payments applied by a replayable batch, recorded in the same update as their increment. Only
+         * written by raw updates and not mapped to a property.
+         */
+        public static final String APPLIED_PAYMENTS = "apl";
+
+        private Fields() {
+        }
+    }
+
     @Id
     private String id;
 
-    @Indexed
+    @Field(Fields.STUDENT_ID)
     private String studentId;
 
     @Indexed
+    @Field(Fields.FEE_PLAN_ID)
     private String feePlanId;
 
     @Indexed
+    @Field(Fields.COURSE)
     private String course;
 
     @Indexed
+    @Field(Fields.ACADEMIC_YEAR)
     private String academicYear;
 
+    /**
+     * Immutable {@link FeePlanVersion} the fee was assigned (or last repriced) from.
+     */
+    @Indexed
+    @Field(Fields.PLAN_VERSION_ID)
+    private String planVersionId;
+
+    /*
+     * The components live on the plan version and are filled in from it after a fee is read. They are never
+     * written; fees assigned before versioning still carry them until the migration job moves them to a version.
+     */
+    @ReadOnlyProperty
     private BigDecimal tuition = BigDecimal.ZERO;
+    @ReadOnlyProperty
     private BigDecimal hostel = BigDecimal.ZERO;
+    @ReadOnlyProperty
     private BigDecimal library = BigDecimal.ZERO;
+    @ReadOnlyProperty
     private BigDecimal lab = BigDecimal.ZERO;
+    @ReadOnlyProperty
     private BigDecimal sports = BigDecimal.ZERO;
 
-    @Indexed
+    /**
+     * Stored as Decimal128 so payment posting can {@code $inc} and compare it server-side.
+     */
+    @Field(name = Fields.AMOUNT_ASSIGNED, targetType = FieldType.DECIMAL128)
     private BigDecimal amountAssigned = BigDecimal.ZERO;
 
+    @Field(name = Fields.AMOUNT_PAID, targetType = FieldType.DECIMAL128)
     private BigDecimal amountPaid = BigDecimal.ZERO;
 
     @Indexed
+    @Field(Fields.STATUS)
     private Status status = Status.PENDING;
 
-    @Indexed
+    @Field(Fields.ASSIGNED_AT)
     private Instant assignedAt = Instant.now();
 
+    @Field(Fields.DUE_DATE)
     private Instant dueDate;
 
+    /**
+     * Unpaid and past its due date. Re-derived whenever a payment or due date change touches the fee, and set by
+     * the overdue scanner for fees whose due date passes without any change.
+     */
+    @Field(Fields.OVERDUE)
+    private boolean overdue;
+
+    /**
+     * Late fees charged on top of the plan total; each one is already included in {@code amountAssigned}.
+     */
+    @Field(Fields.PENALTIES)
+    private List<Penalty> penalties = new ArrayList<>();
+
+    /**
+     * Day (yyyy-MM-dd) of the most recent late fee, used to charge at most once per day.
+     */
+    @Field(Fields.LAST_PENALTY_DAY)
+    private String lastPenaltyDay;
+
     public enum Status { PENDING, PARTIAL, PAID }
 
+    /**
+     * Stored status values of fees that still have an amount outstanding.
+     */
+    public static final List<String> UNPAID_STATUSES = List.of(Status.PENDING.name(), Status.PARTIAL.name());
+
     public StudentFee() {}
 
     public StudentFee(String id, String studentId, String feePlanId, String course, String academicYear, BigDecimal tuition, BigDecimal hostel, BigDecimal library, BigDecimal lab, BigDecimal sports, BigDecimal amountAssigned, BigDecimal amountPaid, Status status, Instant assignedAt, Instant dueDate) {
@@ -108,6 +198,14 @@ public class StudentFee {
         this.academicYear = academicYear;
     }
 
+    public String getPlanVersionId() {
+        return planVersionId;
+    }
+
+    public void setPlanVersionId(String planVersionId) {
+        this.planVersionId = planVersionId;
+    }
+
     public BigDecimal getTuition() {
         return tuition;
     }
@@ -188,6 +286,30 @@ public class StudentFee {
         this.dueDate = dueDate;
     }
 
+    public List<Penalty> getPenalties() {
+        return penalties;
+    }
+
+    public void setPenalties(List<Penalty> penalties) {
+        this.penalties = penalties;
+    }
+
+    public String getLastPenaltyDay() {
+        return lastPenaltyDay;
+    }
+
+    public void setLastPenaltyDay(String lastPenaltyDay) {
+        this.lastPenaltyDay = lastPenaltyDay;
+    }
+
+    public boolean isOverdue() {
+        return overdue;
+    }
+
+    public void setOverdue(boolean overdue) {
+        this.overdue = overdue;
+    }
+
     public BigDecimal getBalance() {
         return amountAssigned.subtract(amountPaid);
     }
@@ -210,6 +332,51 @@ public class StudentFee {
                 ", status=" + status +
                 ", assignedAt=" + assignedAt +
                 ", dueDate=" + dueDate +
+                ", overdue=" + overdue +
                 '}';
     }
+
+    public static class Penalty {
+
+        @Field(Fields.PENALTY_DAY)
+        private String day;
+
+        @Field(name = Fields.PENALTY_AMOUNT, targetType = FieldType.DECIMAL128)
+        private BigDecimal amount;
+
+        @Field(Fields.PENALTY_RULE)
+        private String rule;
+
+        public Penalty() {}
+
+        public Penalty(String day, BigDecimal amount, String rule) {
+            this.day = day;
+            this.amount = amount;
+            this.rule = rule;
+        }
+
+        public String getDay() {
+            return day;
+        }
+
+        public void setDay(String day) {
+            this.day = day;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public String getRule() {
+            return rule;
+        }
+
+        public void setRule(String rule) {
+            this.rule = rule;
+        }
+    }
 }
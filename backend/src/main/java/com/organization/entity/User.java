@@ -25,6 +25,11 @@ public class User {
     @Indexed
     private Set<String> roles;
 
+    /**
+     * Copied into every token issued to the user; bumping it revokes all tokens issued before.
+     */
+    private long tokenVersion;
+
     public User() {}
 
     public User(String id, String name, String username, String email, String password, Set<String> roles) {
@@ -84,6 +89,14 @@ public class User {
         this.roles = roles;
     }
 
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public void setTokenVersion(long tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+
     @Override
     public String toString() {
         return "User{" +
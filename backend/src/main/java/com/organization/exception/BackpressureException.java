@@ -0,0 +1,28 @@
+package com.organization.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Thrown when a bounded resource (queue, worker pool, rate limit) is saturated; the client should back off
+ * for {@code retryAfterSeconds} and try again.
+ */
+public class BackpressureException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	private final HttpStatus status;
+	private final long retryAfterSeconds;
+
+	public BackpressureException(HttpStatus status, String message, long retryAfterSeconds) {
+		super(message);
+		this.status = status;
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public HttpStatus getStatus() {
+		return status;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
@@ -2,11 +2,19 @@ package com.organization.exception;
 
 import java.nio.file.AccessDeniedException;
 
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+/**
+ * Maps the application's own exceptions to their status codes. Consulted before {@link GlobalExceptionHandler},
+ * whose catch-all would otherwise answer 500 for them; anything not handled here falls through to it.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
 @ControllerAdvice
 public class StudentResponseExceptionHandler {
 
@@ -30,11 +38,24 @@ public class StudentResponseExceptionHandler {
 
 		// create a Student Error Message
 		StudentErrorResponse error = new StudentErrorResponse();
+		HttpStatus status = exc.getStatus() != null ? exc.getStatus() : HttpStatus.BAD_REQUEST;
 
-		error.setStatus(HttpStatus.BAD_REQUEST.value());
+		error.setStatus(status.value());
 		error.setMessage(exc.getMessage());
 		error.setTimeStamp(System.currentTimeMillis());
-		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+		return new ResponseEntity<>(error, status);
+	}
+	
+	@ExceptionHandler
+	public ResponseEntity<StudentErrorResponse> handleException(BackpressureException exc) {
+
+		StudentErrorResponse error = new StudentErrorResponse();
+		error.setStatus(exc.getStatus().value());
+		error.setMessage(exc.getMessage());
+		error.setTimeStamp(System.currentTimeMillis());
+		return ResponseEntity.status(exc.getStatus())
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(exc.getRetryAfterSeconds()))
+				.body(error);
 	}
 	
 	@ExceptionHandler(AccessDeniedException.class)
@@ -52,21 +73,16 @@ public class StudentResponseExceptionHandler {
 		return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
 	}
 	
-	@ExceptionHandler
-	public ResponseEntity<StudentErrorResponse> handleException(Exception exc) {
+	// Thrown by @PreAuthorize when the caller lacks the role; java.nio's AccessDeniedException above is a different class
+	@ExceptionHandler(org.springframework.security.access.AccessDeniedException.class)
+	public ResponseEntity<StudentErrorResponse> handleException(org.springframework.security.access.AccessDeniedException exc) {
 
-		// create a Student Error Message
 		StudentErrorResponse error = new StudentErrorResponse();
-		error.setStatus(HttpStatus.BAD_REQUEST.value());
-		error.setMessage(exc.getClass().getSimpleName());
+		error.setStatus(HttpStatus.FORBIDDEN.value());
+		error.setMessage("Access denied");
 		error.setTimeStamp(System.currentTimeMillis());
-
-		// return ResponseEntity
-
-		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+		return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
 	}
-	
-	
 
 	@ExceptionHandler
 	public ResponseEntity<StudentErrorResponse> handleException(NoStudentRecordFoundException exc) {
@@ -0,0 +1,74 @@
+package com.organization.monitoring;
+
+import com.organization.dto.TokenVerificationStats;
+import com.organization.dto.WriteBehindStats;
+import com.organization.security.JwtVerifier;
+import com.organization.service.WriteBehindPaymentService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the statistics the JWT verifier and the write-behind payment queue already keep. They are read when
+ * the registry is scraped, so nothing is recorded on the request path.
+ */
+@Component
+public class ComponentMetrics implements MeterBinder {
+
+    private final JwtVerifier jwtVerifier;
+    private final WriteBehindPaymentService writeBehindPaymentService;
+
+    public ComponentMetrics(JwtVerifier jwtVerifier, WriteBehindPaymentService writeBehindPaymentService) {
+        this.jwtVerifier = jwtVerifier;
+        this.writeBehindPaymentService = writeBehindPaymentService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.jwt.cache", jwtVerifier, verifier -> verifier.stats().getHits())
+                .description("Verified-token cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.jwt.cache", jwtVerifier, verifier -> verifier.stats().getMisses())
+                .description("Verified-token cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        jwtGauge(registry, "auth.jwt.cache.hit.ratio", "Share of token verifications served from the cache",
+                TokenVerificationStats::getHitRate);
+        jwtGauge(registry, "auth.jwt.cache.size", "Verified tokens currently cached",
+                TokenVerificationStats::getCacheSize);
+        jwtGauge(registry, "auth.jwt.verify.average", "Average signature verification time in microseconds",
+                TokenVerificationStats::getAverageVerifyMicros);
+
+        writeBehindGauge(registry, "payments.write.behind.queue.depth", "Payments accepted but not yet stored",
+                WriteBehindStats::getQueueDepth);
+        writeBehindGauge(registry, "payments.write.behind.queue.capacity", "Capacity of the write-behind queue",
+                WriteBehindStats::getQueueCapacity);
+        FunctionCounter.builder("payments.write.behind.rejected", writeBehindPaymentService,
+                        service -> service.stats().getRejectedByBackpressure())
+                .description("Payments turned away because the write-behind queue was full")
+                .register(registry);
+        FunctionCounter.builder("payments.write.behind.failed", writeBehindPaymentService,
+                        service -> service.stats().getFailed())
+                .description("Queued payments that could not be stored")
+                .register(registry);
+    }
+
+    private void jwtGauge(MeterRegistry registry, String name, String description,
+                          ToDoubleFunction<TokenVerificationStats> value) {
+        Gauge.builder(name, jwtVerifier, verifier -> value.applyAsDouble(verifier.stats()))
+                .description(description)
+                .register(registry);
+    }
+
+    private void writeBehindGauge(MeterRegistry registry, String name, String description,
+                                  ToDoubleFunction<WriteBehindStats> value) {
+        Gauge.builder(name, writeBehindPaymentService, service -> value.applyAsDouble(service.stats()))
+                .description(description)
+                .register(registry);
+    }
+}
@@ -0,0 +1,84 @@
+package com.organization.monitoring;
+
+import com.organization.entity.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Business counters recorded by the services as work completes. Rates (payments or assignments per minute) are
+ * taken from the counters by the scraper; each counter is created once so recording is a map lookup and an add.
+ */
+@Component
+public class DomainMetrics {
+
+    private final Map<Payment.Method, Counter> paymentsPosted = new EnumMap<>(Payment.Method.class);
+    private final Map<Payment.Method, Counter> amountCollected = new EnumMap<>(Payment.Method.class);
+    private final Counter feesAssigned;
+    private final Counter loginsSucceeded;
+    private final Counter loginsFailed;
+    private final Counter loginsLocked;
+
+    public DomainMetrics(MeterRegistry registry) {
+        for (Payment.Method method : Payment.Method.values()) {
+            paymentsPosted.put(method, Counter.builder("fees.payments.posted")
+                    .description("Payments stored, by method")
+                    .tag("method", method.name())
+                    .register(registry));
+            amountCollected.put(method, Counter.builder("fees.payments.amount")
+                    .description("Amount collected by stored payments, by method")
+                    .tag("method", method.name())
+                    .register(registry));
+        }
+        this.feesAssigned = Counter.builder("fees.assignments")
+                .description("Fees assigned to students")
+                .register(registry);
+        this.loginsSucceeded = login(registry, "success");
+        this.loginsFailed = login(registry, "failure");
+        this.loginsLocked = login(registry, "locked");
+    }
+
+    private static Counter login(MeterRegistry registry, String outcome) {
+        return Counter.builder("auth.logins")
+                .description("Sign-in attempts by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public void paymentPosted(Payment payment) {
+        Payment.Method method = payment.getMethod();
+        if (method == null) {
+            return;
+        }
+        paymentsPosted.get(method).increment();
+        BigDecimal amount = payment.getAmount();
+        if (amount != null) {
+            amountCollected.get(method).increment(amount.doubleValue());
+        }
+    }
+
+    public void paymentsPosted(Collection<Payment> payments) {
+        payments.forEach(this::paymentPosted);
+    }
+
+    public void feesAssigned(int count) {
+        feesAssigned.increment(count);
+    }
+
+    public void loginSucceeded() {
+        loginsSucceeded.increment();
+    }
+
+    public void loginFailed() {
+        loginsFailed.increment();
+    }
+
+    public void loginLocked() {
+        loginsLocked.increment();
+    }
+}
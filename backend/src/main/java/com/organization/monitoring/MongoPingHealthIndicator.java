@@ -0,0 +1,42 @@
+package com.organization.monitoring;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Round trip of a {@code ping} to the database. A ping slower than {@code app.health.mongo-ping-slow} reports
+ * {@code SLOW}, which keeps the service in rotation but shows up before requests start timing out.
+ */
+@Component
+public class MongoPingHealthIndicator extends AbstractHealthIndicator {
+
+    static final Status SLOW = new Status("SLOW", "Database round trips are slower than expected");
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration slowThreshold;
+
+    public MongoPingHealthIndicator(MongoTemplate mongoTemplate,
+                                    @Value("${app.health.mongo-ping-slow:250ms}") Duration slowThreshold) {
+        super("MongoDB ping failed");
+        this.mongoTemplate = mongoTemplate;
+        this.slowThreshold = slowThreshold;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        long start = System.nanoTime();
+        mongoTemplate.executeCommand(new Document("ping", 1));
+        Duration latency = Duration.ofNanos(System.nanoTime() - start);
+        builder.status(latency.compareTo(slowThreshold) > 0 ? SLOW : Status.UP)
+                .withDetail("database", mongoTemplate.getDb().getName())
+                .withDetail("latencyMillis", latency.toMillis())
+                .withDetail("slowThresholdMillis", slowThreshold.toMillis());
+    }
+}
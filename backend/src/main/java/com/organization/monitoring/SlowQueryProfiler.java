@@ -0,0 +1,443 @@
+package com.organization.monitoring;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.organization.dto.SlowQueryShape;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the query shapes behind slow reads and writes. Registered on the Mongo client next to the driver timers
+ * ({@code mongodb.driver.commands}, tagged by command and collection), which already give the latency histograms.
+ * <p>
+ * Only commands with a filter are watched. When one starts, only the parts that decide its plan are copied (the
+ * filter, sort and projection, the pipeline, or the first statement of a bulk write), because the driver reuses the
+ * buffer once the command is sent; the copy is bounded, so a large {@code $in} list or bulk payload costs no more
+ * than a small one. Nothing else happens unless the reply takes longer than {@code slow-threshold}. A slow command is reduced to its shape (field names and operators, with every literal
+ * replaced by {@code ?}) and counted under it. Each shape is explained with {@code queryPlanner} verbosity on a
+ * background thread, at most once per {@code explain-interval}, and flagged when the winning plan scans the
+ * collection, sorts in memory or filters documents the index did not cover.
+ */
+@Component
+public class SlowQueryProfiler implements CommandListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryProfiler.class);
+
+    // Fields that shape the plan, per command; session, routing and write concern fields are left behind
+    private static final Map<String, List<String>> CAPTURED = Map.of(
+            "find", List.of("filter", "sort", "projection", "hint", "collation"),
+            "aggregate", List.of("pipeline", "hint", "collation"),
+            "count", List.of("query", "hint", "collation"),
+            "distinct", List.of("key", "query", "hint", "collation"),
+            "findAndModify", List.of("query", "sort", "update", "remove", "upsert", "hint", "collation"),
+            "update", List.of(),
+            "delete", List.of());
+
+    // Bounds on the copy taken when a command starts
+    private static final int MAX_ARRAY_ITEMS = 50;
+    private static final int MAX_CAPTURED_VALUES = 500;
+
+    private static final BsonString LITERAL = new BsonString("?");
+
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final long explainIntervalMillis;
+    private final int maxShapes;
+    private final ThreadPoolExecutor explainer;
+
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+
+    public SlowQueryProfiler(ObjectProvider<MongoTemplate> mongoTemplate,
+                             @Value("${app.mongo-profiler.enabled:true}") boolean enabled,
+                             @Value("${app.mongo-profiler.slow-threshold:100ms}") Duration slowThreshold,
+                             @Value("${app.mongo-profiler.explain-interval:10m}") Duration explainInterval,
+                             @Value("${app.mongo-profiler.max-shapes:200}") int maxShapes) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.thresholdNanos = slowThreshold.toNanos();
+        this.explainIntervalMillis = explainInterval.toMillis();
+        this.maxShapes = maxShapes;
+        // One thread and a short queue: explains are advisory, so a backlog is dropped rather than queued
+        this.explainer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mongo-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    private record Started(String database, BsonDocument command) {
+    }
+
+    private static final class Shape {
+
+        final String database;
+        final String collection;
+        final String command;
+        final String shape;
+        final BsonDocument sample;
+        long count;
+        long totalNanos;
+        long maxNanos;
+        long lastSeenMillis;
+        long explainedAtMillis;
+        boolean explainPending;
+        List<String> planStages = List.of();
+        List<String> indexes = List.of();
+        List<String> flags = List.of();
+        String explainError;
+
+        Shape(String database, String collection, String command, String shape, BsonDocument sample) {
+            this.database = database;
+            this.collection = collection;
+            this.command = command;
+            this.shape = shape;
+            this.sample = sample;
+        }
+
+        synchronized void record(long nanos, long now) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            lastSeenMillis = now;
+        }
+
+        synchronized boolean claimExplain(long now, long intervalMillis) {
+            if (explainPending || (explainedAtMillis != 0 && now - explainedAtMillis < intervalMillis)) {
+                return false;
+            }
+            explainPending = true;
+            return true;
+        }
+
+        synchronized void explained(List<String> stages, List<String> indexNames, List<String> planFlags, String error) {
+            planStages = stages;
+            indexes = indexNames;
+            flags = planFlags;
+            explainError = error;
+            explainedAtMillis = System.currentTimeMillis();
+            explainPending = false;
+        }
+
+        synchronized SlowQueryShape snapshot() {
+            return new SlowQueryShape(database, collection, command, shape, count,
+                    count == 0 ? 0D : totalNanos / 1_000_000D / count, maxNanos / 1_000_000D,
+                    Instant.ofEpochMilli(lastSeenMillis), planStages, indexes, flags,
+                    explainedAtMillis == 0 ? null : Instant.ofEpochMilli(explainedAtMillis), explainError);
+        }
+
+        synchronized long lastSeen() {
+            return lastSeenMillis;
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (enabled && CAPTURED.containsKey(event.getCommandName())) {
+            inFlight.put(event.getRequestId(),
+                    new Started(event.getDatabaseName(), capture(event.getCommandName(), event.getCommand())));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (nanos >= thresholdNanos) {
+            try {
+                slow(event.getCommandName(), started, nanos);
+            } catch (RuntimeException ex) {
+                logger.debug("Could not record slow {} command", event.getCommandName(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        inFlight.remove(event.getRequestId());
+    }
+
+    /**
+     * Slowest shapes first, by their worst observed latency.
+     */
+    public List<SlowQueryShape> top(int limit) {
+        return shapes.values().stream()
+                .map(Shape::snapshot)
+                .sorted(Comparator.comparingDouble(SlowQueryShape::getMaxMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    private void slow(String commandName, Started started, long nanos) {
+        BsonDocument command = started.command();
+        BsonValue target = command.get(commandName);
+        String collection = target != null && target.isString() ? target.asString().getValue() : null;
+        String shapeText = shapeOf(commandName, command).toJson();
+        String key = started.database() + '.' + collection + ' ' + commandName + ' ' + shapeText;
+
+        long now = System.currentTimeMillis();
+        Shape shape = shapes.get(key);
+        if (shape == null) {
+            if (shapes.size() >= maxShapes) {
+                evictLeastRecent();
+            }
+            shape = shapes.computeIfAbsent(key, ignored ->
+                    new Shape(started.database(), collection, commandName, shapeText, command));
+        }
+        shape.record(nanos, now);
+        logger.debug("Slow {} on {}.{} took {} ms: {}", commandName, started.database(), collection,
+                TimeUnit.NANOSECONDS.toMillis(nanos), shapeText);
+
+        if (shape.claimExplain(now, explainIntervalMillis)) {
+            Shape explained = shape;
+            explainer.execute(() -> explain(explained));
+        }
+    }
+
+    private void evictLeastRecent() {
+        shapes.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().lastSeen()))
+                .ifPresent(entry -> shapes.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private void explain(Shape shape) {
+        try {
+            Document result = mongoTemplate.getObject().getMongoDatabaseFactory().getMongoDatabase(shape.database)
+                    .runCommand(new BsonDocument("explain", shape.sample).append("verbosity", new BsonString("queryPlanner")));
+
+            Set<String> stages = new LinkedHashSet<>();
+            Set<String> indexes = new LinkedHashSet<>();
+            Set<String> flags = new LinkedHashSet<>();
+            collectWinningPlans(result, stages, indexes, flags);
+            if (stages.isEmpty()) {
+                flags.add("NO_PLAN");
+            }
+            shape.explained(List.copyOf(stages), List.copyOf(indexes), List.copyOf(flags), null);
+            if (!flags.isEmpty()) {
+                logger.warn("Slow {} on {}.{} uses plan {} {}: {}", shape.command, shape.database, shape.collection,
+                        stages, flags, shape.shape);
+            }
+        } catch (RuntimeException ex) {
+            shape.explained(List.of(), List.of(), List.of(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Finds every {@code winningPlan} in an explain result; aggregations and sharded clusters nest them.
+     */
+    private static void collectWinningPlans(Object value, Set<String> stages, Set<String> indexes, Set<String> flags) {
+        if (value instanceof Document document) {
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                if ("winningPlan".equals(entry.getKey())) {
+                    walkPlan(entry.getValue(), stages, indexes, flags);
+                } else if (!"rejectedPlans".equals(entry.getKey())) {
+                    collectWinningPlans(entry.getValue(), stages, indexes, flags);
+                }
+            }
+        } else if (value instanceof List<?> list) {
+            list.forEach(item -> collectWinningPlans(item, stages, indexes, flags));
+        }
+    }
+
+    private static void walkPlan(Object value, Set<String> stages, Set<String> indexes, Set<String> flags) {
+        if (value instanceof Document node) {
+            if (node.get("stage") instanceof String stage) {
+                stages.add(stage);
+                switch (stage) {
+                    case "COLLSCAN" -> flags.add("COLLSCAN");
+                    case "SORT" -> flags.add("IN_MEMORY_SORT");
+                    // Documents fetched through an index and then filtered: the index does not cover the predicate
+                    case "FETCH" -> {
+                        if (node.containsKey("filter")) {
+                            flags.add("INDEX_NOT_COVERING_FILTER");
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+            if (node.get("indexName") instanceof String index) {
+                indexes.add(index);
+            }
+            node.forEach((name, child) -> {
+                if (!"filter".equals(name)) {
+                    walkPlan(child, stages, indexes, flags);
+                }
+            });
+        } else if (value instanceof List<?> list) {
+            list.forEach(item -> walkPlan(item, stages, indexes, flags));
+        }
+    }
+
+    /**
+     * Copies the collection and the plan-deciding fields of a command, plus the first statement of an update or
+     * delete (explain takes one, and it stands for the batch). Only these values are read from the driver's buffer.
+     */
+    static BsonDocument capture(String commandName, BsonDocument command) {
+        int[] budget = {MAX_CAPTURED_VALUES};
+        BsonDocument captured = new BsonDocument();
+        BsonValue target = command.get(commandName);
+        if (target != null) {
+            captured.put(commandName, boundedCopy(target, budget));
+        }
+        for (String field : CAPTURED.getOrDefault(commandName, List.of())) {
+            BsonValue value = command.get(field);
+            if (value != null) {
+                captured.put(field, boundedCopy(value, budget));
+            }
+        }
+        if ("update".equals(commandName) || "delete".equals(commandName)) {
+            BsonValue statements = command.get(commandName + "s");
+            if (statements != null && statements.isArray()) {
+                Iterator<BsonValue> first = statements.asArray().iterator();
+                if (first.hasNext()) {
+                    captured.put(commandName + "s", new BsonArray(List.of(boundedCopy(first.next(), budget))));
+                }
+            }
+        }
+        return captured;
+    }
+
+    /**
+     * Deep copy that keeps the first {@value #MAX_ARRAY_ITEMS} items of an array and stops once the budget of
+     * values is spent. A plain list shapes to a single {@code ?} however long it is, so cutting it does not change
+     * the shape.
+     */
+    private static BsonValue boundedCopy(BsonValue value, int[] budget) {
+        budget[0]--;
+        if (value.isDocument()) {
+            BsonDocument copy = new BsonDocument();
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (budget[0] <= 0) {
+                    break;
+                }
+                copy.put(entry.getKey(), boundedCopy(entry.getValue(), budget));
+            }
+            return copy;
+        }
+        if (value.isArray()) {
+            BsonArray copy = new BsonArray();
+            for (BsonValue item : value.asArray()) {
+                if (copy.size() >= MAX_ARRAY_ITEMS || budget[0] <= 0) {
+                    break;
+                }
+                copy.add(boundedCopy(item, budget));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    static BsonDocument shapeOf(String commandName, BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        switch (commandName) {
+            case "find" -> {
+                copyShape(command, "filter", shape);
+                copyAsIs(command, "sort", shape);
+                copyAsIs(command, "projection", shape);
+            }
+            case "aggregate" -> copyShape(command, "pipeline", shape);
+            case "count" -> copyShape(command, "query", shape);
+            case "distinct" -> {
+                copyAsIs(command, "key", shape);
+                copyShape(command, "query", shape);
+            }
+            case "findAndModify" -> {
+                copyShape(command, "query", shape);
+                copyAsIs(command, "sort", shape);
+            }
+            case "update", "delete" -> {
+                BsonValue statements = command.get(commandName + "s");
+                if (statements != null && statements.isArray() && !statements.asArray().isEmpty()
+                        && statements.asArray().get(0).isDocument()) {
+                    copyShape(statements.asArray().get(0).asDocument(), "q", shape);
+                }
+            }
+            default -> {
+            }
+        }
+        return shape;
+    }
+
+    private static void copyShape(BsonDocument from, String field, BsonDocument to) {
+        BsonValue value = from.get(field);
+        if (value != null) {
+            to.put(field, literalsRemoved(value));
+        }
+    }
+
+    private static void copyAsIs(BsonDocument from, String field, BsonDocument to) {
+        BsonValue value = from.get(field);
+        if (value != null) {
+            to.put(field, value);
+        }
+    }
+
+    /**
+     * Keeps field names, operators and {@code $field} references; every other value becomes {@code ?}, and a
+     * list of plain values (an {@code $in} list, say) becomes a single {@code ?}. A list holding a reference is kept
+     * item by item, so {@code $gt: ['$pa', 10]} and {@code $gt: ['$pa', '$aa']} stay apart.
+     */
+    private static BsonValue literalsRemoved(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument shape = new BsonDocument();
+            value.asDocument().forEach((name, child) -> shape.put(name, literalsRemoved(child)));
+            return shape;
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            boolean structured = array.stream().anyMatch(item -> item.isDocument() || item.isArray()
+                    || (item.isString() && item.asString().getValue().startsWith("$")));
+            if (!structured) {
+                return LITERAL;
+            }
+            BsonArray shape = new BsonArray(new ArrayList<>(array.size()));
+            array.forEach(item -> shape.add(literalsRemoved(item)));
+            return shape;
+        }
+        if (value.isString() && value.asString().getValue().startsWith("$")) {
+            return value;
+        }
+        return LITERAL;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        explainer.shutdownNow();
+    }
+}
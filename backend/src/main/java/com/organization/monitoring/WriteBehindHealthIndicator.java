@@ -0,0 +1,36 @@
+package com.organization.monitoring;
+
+import com.organization.dto.WriteBehindStats;
+import com.organization.service.WriteBehindPaymentService;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fill level of the write-behind payment queue. A queue at 90% or more reports {@code SLOW}: new asynchronous
+ * payments are about to be turned away.
+ */
+@Component
+public class WriteBehindHealthIndicator extends AbstractHealthIndicator {
+
+    private static final double SLOW_FILL = 0.9;
+
+    private final WriteBehindPaymentService writeBehindPaymentService;
+
+    public WriteBehindHealthIndicator(WriteBehindPaymentService writeBehindPaymentService) {
+        this.writeBehindPaymentService = writeBehindPaymentService;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        WriteBehindStats stats = writeBehindPaymentService.stats();
+        boolean filling = stats.isEnabled() && stats.getQueueCapacity() > 0
+                && stats.getQueueDepth() >= stats.getQueueCapacity() * SLOW_FILL;
+        builder.status(filling ? MongoPingHealthIndicator.SLOW : Status.UP)
+                .withDetail("enabled", stats.isEnabled())
+                .withDetail("queueDepth", stats.getQueueDepth())
+                .withDetail("queueCapacity", stats.getQueueCapacity())
+                .withDetail("failed", stats.getFailed());
+    }
+}
@@ -6,7 +6,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import java.util.List;
 import java.util.Optional;
 
-public interface FeePlanRepository extends MongoRepository<FeePlan, String> {
+public interface FeePlanRepository extends MongoRepository<FeePlan, String>, FeePlanRepositoryCustom {
     Optional<FeePlan> findByCourseAndAcademicYear(String course, String academicYear);
     boolean existsByCourseAndAcademicYear(String course, String academicYear);
     List<FeePlan> findByCourse(String course);
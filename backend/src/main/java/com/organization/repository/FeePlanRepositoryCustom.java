@@ -0,0 +1,12 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.FeePlan;
+
+public interface FeePlanRepositoryCustom {
+
+    /**
+     * One page of fee plans, optionally filtered by course and academic year, ordered by {@code _id}.
+     */
+    CursorPage<FeePlan> findPage(String course, String academicYear, String cursor, int size);
+}
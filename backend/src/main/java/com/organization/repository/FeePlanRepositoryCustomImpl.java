@@ -0,0 +1,28 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.FeePlan;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+public class FeePlanRepositoryCustomImpl implements FeePlanRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public FeePlanRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public CursorPage<FeePlan> findPage(String course, String academicYear, String cursor, int size) {
+        Query query = new Query();
+        if (course != null) {
+            query.addCriteria(Criteria.where("course").is(course));
+        }
+        if (academicYear != null) {
+            query.addCriteria(Criteria.where("academicYear").is(academicYear));
+        }
+        return KeysetPager.byId(mongoTemplate, query, FeePlan.class, FeePlan::getId, cursor, size);
+    }
+}
@@ -0,0 +1,10 @@
+package com.organization.repository;
+
+import com.organization.entity.FeePlanVersion;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface FeePlanVersionRepository extends MongoRepository<FeePlanVersion, String> {
+    List<FeePlanVersion> findByFeePlanIdOrderByVersionDesc(String feePlanId);
+}
@@ -0,0 +1,84 @@
+package com.organization.repository;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A half-open {@code [lower, upper)} slice of a collection's ObjectId key space; a null bound is open.
+ * Batch jobs split a collection into ranges so each worker scans a disjoint part of the {@code _id} index.
+ */
+public record IdRange(ObjectId lower, ObjectId upper) {
+
+    private static final String ZERO_SUFFIX = "0000000000000000";
+
+    /**
+     * Splits the collection into roughly equal time slices between its first and last {@code _id}.
+     */
+    public static List<IdRange> partition(MongoTemplate mongoTemplate, String collection, int partitions) {
+        ObjectId first = boundaryId(mongoTemplate, collection, 1);
+        ObjectId last = boundaryId(mongoTemplate, collection, -1);
+        List<IdRange> ranges = new ArrayList<>();
+        if (first == null || last == null) {
+            return ranges;
+        }
+
+        long start = Integer.toUnsignedLong(first.getTimestamp());
+        long end = Integer.toUnsignedLong(last.getTimestamp()) + 1;
+        int count = (int) Math.max(1, Math.min(partitions, end - start));
+        long step = (end - start + count - 1) / count;
+
+        ObjectId lower = null;
+        for (int i = 1; i < count; i++) {
+            ObjectId upper = new ObjectId(String.format("%08x", start + step * i) + ZERO_SUFFIX);
+            ranges.add(new IdRange(lower, upper));
+            lower = upper;
+        }
+        ranges.add(new IdRange(lower, null));
+        return ranges;
+    }
+
+    /**
+     * Bounds on the {@code _id} field itself.
+     */
+    public Document idFilter() {
+        return filterOn("_id", lower, upper);
+    }
+
+    /**
+     * Bounds on a field that stores the id as a hex string, such as {@code payments.studentFeeId}.
+     * Lowercase hex strings sort in the same order as the ObjectIds they encode.
+     */
+    public Document hexFilter(String field) {
+        return filterOn(field,
+                lower == null ? null : lower.toHexString(),
+                upper == null ? null : upper.toHexString());
+    }
+
+    private static Document filterOn(String field, Object lower, Object upper) {
+        Document bounds = new Document();
+        if (lower != null) {
+            bounds.append("$gte", lower);
+        }
+        if (upper != null) {
+            bounds.append("$lt", upper);
+        }
+        return bounds.isEmpty() ? new Document() : new Document(field, bounds);
+    }
+
+    private static ObjectId boundaryId(MongoTemplate mongoTemplate, String collection, int direction) {
+        Document doc = mongoTemplate.getCollection(collection)
+                .find()
+                .projection(new Document("_id", 1))
+                .sort(new Document("_id", direction))
+                .limit(1)
+                .first();
+        if (doc == null || !(doc.get("_id") instanceof ObjectId id)) {
+            return null;
+        }
+        return id;
+    }
+}
@@ -0,0 +1,7 @@
+package com.organization.repository;
+
+import com.organization.entity.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String> {
+}
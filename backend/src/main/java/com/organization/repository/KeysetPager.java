@@ -0,0 +1,120 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over {@code (sortField, _id)}. Each page seeks past the last key of the previous one,
+ * so with a matching compound index the cost of a page does not depend on how deep it is.
+ */
+final class KeysetPager {
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetPager() {
+    }
+
+    /**
+     * Pages ordered by an {@link Instant} field with {@code _id} as tie-breaker.
+     */
+    static <T> CursorPage<T> byInstant(MongoTemplate mongoTemplate, Query base, Class<T> type, String sortField,
+                                       Function<T, Instant> sortValue, Function<T, String> idOf,
+                                       String cursor, int size) {
+        if (cursor != null) {
+            String[] key = decode(cursor, 2);
+            Instant after = Instant.ofEpochMilli(parseMillis(key[0]));
+            base.addCriteria(new Criteria().orOperator(
+                    Criteria.where(sortField).gt(after),
+                    new Criteria().andOperator(Criteria.where(sortField).is(after), Criteria.where("_id").gt(key[1]))));
+        }
+        base.with(Sort.by(Sort.Direction.ASC, sortField, "_id")).limit(size + 1);
+        List<T> items = mongoTemplate.find(base, type);
+        return toPage(items, size, last -> encode(sortValue.apply(last).toEpochMilli() + SEPARATOR + idOf.apply(last)));
+    }
+
+    /**
+     * Pages ordered by a Decimal128 field in either direction. The {@code _id} tie-breaker follows the same
+     * direction so one ascending {@code (sortField, _id)} index serves both orders.
+     */
+    static <T> CursorPage<T> byDecimal(MongoTemplate mongoTemplate, Query base, Class<T> type, String sortField,
+                                       Sort.Direction direction, Function<T, BigDecimal> sortValue,
+                                       Function<T, String> idOf, String cursor, int size) {
+        if (cursor != null) {
+            String[] key = decode(cursor, 2);
+            Decimal128 after = new Decimal128(parseDecimal(key[0]));
+            boolean ascending = direction.isAscending();
+            base.addCriteria(new Criteria().orOperator(
+                    ascending ? Criteria.where(sortField).gt(after) : Criteria.where(sortField).lt(after),
+                    new Criteria().andOperator(Criteria.where(sortField).is(after),
+                            ascending ? Criteria.where("_id").gt(key[1]) : Criteria.where("_id").lt(key[1]))));
+        }
+        base.with(Sort.by(direction, sortField, "_id")).limit(size + 1);
+        List<T> items = mongoTemplate.find(base, type);
+        return toPage(items, size, last -> encode(sortValue.apply(last).toPlainString() + SEPARATOR + idOf.apply(last)));
+    }
+
+    /**
+     * Pages ordered by {@code _id} alone.
+     */
+    static <T> CursorPage<T> byId(MongoTemplate mongoTemplate, Query base, Class<T> type, Function<T, String> idOf,
+                                  String cursor, int size) {
+        if (cursor != null) {
+            base.addCriteria(Criteria.where("_id").gt(decode(cursor, 1)[0]));
+        }
+        base.with(Sort.by(Sort.Direction.ASC, "_id")).limit(size + 1);
+        List<T> items = mongoTemplate.find(base, type);
+        return toPage(items, size, last -> encode(idOf.apply(last)));
+    }
+
+    private static <T> CursorPage<T> toPage(List<T> items, int size, Function<T, String> cursorOf) {
+        if (items.size() <= size) {
+            return new CursorPage<>(items, null);
+        }
+        List<T> page = items.subList(0, size);
+        return new CursorPage<>(page, cursorOf.apply(page.get(size - 1)));
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor, int parts) {
+        String[] key;
+        try {
+            key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (key.length != parts) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return key;
+    }
+
+    private static BigDecimal parseDecimal(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static long parseMillis(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.organization.repository;
+
+import com.organization.entity.LateFeeRunPartition;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface LateFeeRunPartitionRepository extends MongoRepository<LateFeeRunPartition, String> {
+    List<LateFeeRunPartition> findByDayOrderByIndexAsc(String day);
+}
@@ -6,9 +6,10 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import java.time.Instant;
 import java.util.List;
 
-public interface PaymentRepository extends MongoRepository<Payment, String> {
+public interface PaymentRepository extends MongoRepository<Payment, String>, PaymentRepositoryCustom {
     List<Payment> findByStudentFeeId(String studentFeeId);
     List<Payment> findByStudentId(String studentId);
+    <T> List<T> findByStudentIdOrderByPaidAtDesc(String studentId, Class<T> type);
     List<Payment> findByPaidAtBetween(Instant from, Instant to);
     List<Payment> findByMethod(Payment.Method method);
     List<Payment> findByMethodAndPaidAtBetween(Payment.Method method, Instant from, Instant to);
@@ -0,0 +1,30 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.Payment;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Streams payments matching the same method/date filters as the list endpoint, fetching
+     * documents from the server cursor in batches. The caller must close the stream.
+     */
+    Stream<Payment> streamByFilter(Payment.Method method, Instant from, Instant to);
+
+    /**
+     * One page of filtered payments ordered by {@code paidAt, _id}.
+     */
+    CursorPage<Payment> findPage(Payment.Method method, Instant from, Instant to, String cursor, int size);
+
+    /**
+     * Deletes a payment in a single findAndRemove. Of several concurrent calls for the same id only one gets the
+     * payment back, so only that caller may reverse it.
+     *
+     * @return the deleted payment, or empty if it was already gone
+     */
+    Optional<Payment> removeById(String id);
+}
@@ -0,0 +1,58 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.Payment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final int cursorBatchSize;
+
+    public PaymentRepositoryCustomImpl(MongoTemplate mongoTemplate,
+                                       @Value("${app.export.cursor-batch-size:500}") int cursorBatchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.cursorBatchSize = cursorBatchSize;
+    }
+
+    @Override
+    public Stream<Payment> streamByFilter(Payment.Method method, Instant from, Instant to) {
+        Query query = filterQuery(method, from, to)
+                .with(Sort.by(Sort.Direction.ASC, "paidAt"))
+                .cursorBatchSize(cursorBatchSize);
+        return mongoTemplate.stream(query, Payment.class);
+    }
+
+    @Override
+    public CursorPage<Payment> findPage(Payment.Method method, Instant from, Instant to, String cursor, int size) {
+        return KeysetPager.byInstant(mongoTemplate, filterQuery(method, from, to), Payment.class,
+                "paidAt", Payment::getPaidAt, Payment::getId, cursor, size);
+    }
+
+    @Override
+    public Optional<Payment> removeById(String id) {
+        return Optional.ofNullable(mongoTemplate.findAndRemove(new Query(Criteria.where("_id").is(id)), Payment.class));
+    }
+
+    /**
+     * Mirrors the filter rules of {@code PaymentServiceImpl.list}: the date range only applies when both ends are given.
+     */
+    static Query filterQuery(Payment.Method method, Instant from, Instant to) {
+        Query query = new Query();
+        if (method != null) {
+            query.addCriteria(Criteria.where("method").is(method));
+        }
+        if (from != null && to != null) {
+            query.addCriteria(Criteria.where("paidAt").gt(from).lt(to));
+        }
+        return query;
+    }
+}
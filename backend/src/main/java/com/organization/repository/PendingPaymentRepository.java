@@ -0,0 +1,11 @@
+package com.organization.repository;
+
+import com.organization.entity.PendingPayment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.List;
+
+public interface PendingPaymentRepository extends MongoRepository<PendingPayment, String> {
+    List<PendingPayment> findByStatusOrderByIdAsc(PendingPayment.Status status, Pageable pageable);
+}
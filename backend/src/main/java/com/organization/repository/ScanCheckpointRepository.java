@@ -0,0 +1,7 @@
+package com.organization.repository;
+
+import com.organization.entity.ScanCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ScanCheckpointRepository extends MongoRepository<ScanCheckpoint, String> {
+}
@@ -0,0 +1,7 @@
+package com.organization.repository;
+
+import com.organization.entity.StudentBalance;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface StudentBalanceRepository extends MongoRepository<StudentBalance, String>, StudentBalanceRepositoryCustom {
+}
@@ -0,0 +1,19 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.StudentBalance;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface StudentBalanceRepositoryCustom {
+
+    /**
+     * Balances within {@code [minBalance, maxBalance]} (either bound may be {@code null}) ordered by balance.
+     */
+    List<StudentBalance> findByBalance(BigDecimal minBalance, BigDecimal maxBalance, Sort.Direction direction);
+
+    CursorPage<StudentBalance> findPage(BigDecimal minBalance, BigDecimal maxBalance, Sort.Direction direction,
+                                        String cursor, int size);
+}
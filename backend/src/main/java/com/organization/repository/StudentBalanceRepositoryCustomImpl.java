@@ -0,0 +1,49 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.StudentBalance;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class StudentBalanceRepositoryCustomImpl implements StudentBalanceRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public StudentBalanceRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<StudentBalance> findByBalance(BigDecimal minBalance, BigDecimal maxBalance, Sort.Direction direction) {
+        Query query = rangeQuery(minBalance, maxBalance).with(Sort.by(direction, "balance", "_id"));
+        return mongoTemplate.find(query, StudentBalance.class);
+    }
+
+    @Override
+    public CursorPage<StudentBalance> findPage(BigDecimal minBalance, BigDecimal maxBalance, Sort.Direction direction,
+                                               String cursor, int size) {
+        return KeysetPager.byDecimal(mongoTemplate, rangeQuery(minBalance, maxBalance), StudentBalance.class,
+                "balance", direction, StudentBalance::getBalance, StudentBalance::getStudentId, cursor, size);
+    }
+
+    private static Query rangeQuery(BigDecimal minBalance, BigDecimal maxBalance) {
+        Query query = new Query();
+        if (minBalance != null || maxBalance != null) {
+            Criteria balance = Criteria.where("balance");
+            if (minBalance != null) {
+                balance.gte(new Decimal128(minBalance));
+            }
+            if (maxBalance != null) {
+                balance.lte(new Decimal128(maxBalance));
+            }
+            query.addCriteria(balance);
+        }
+        return query;
+    }
+}
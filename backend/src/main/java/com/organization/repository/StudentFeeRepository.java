@@ -5,7 +5,8 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
-public interface StudentFeeRepository extends MongoRepository<StudentFee, String> {
+public interface StudentFeeRepository extends MongoRepository<StudentFee, String>, StudentFeeRepositoryCustom {
     List<StudentFee> findByStudentId(String studentId);
+    <T> List<T> findByStudentId(String studentId, Class<T> type);
     boolean existsByStudentIdAndFeePlanIdAndAcademicYear(String studentId, String feePlanId, String academicYear);
 }
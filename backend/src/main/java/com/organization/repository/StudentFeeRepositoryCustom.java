@@ -0,0 +1,131 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.FeePlan;
+import com.organization.entity.StudentFee;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface StudentFeeRepositoryCustom {
+
+    /**
+     * Atomically adds {@code delta} to {@code amountPaid} and re-derives {@code status} in a single
+     * findAndModify. A negative delta reverses a payment.
+     *
+     * @return the fee as it looks after the update, or empty if no fee has the given id
+     */
+    Optional<StudentFee> applyPayment(String studentFeeId, BigDecimal delta);
+
+    /**
+     * Sets the due date and re-derives the overdue flag in one findAndModify.
+     *
+     * @return the updated fee, or empty if no fee has the given id
+     */
+    Optional<StudentFee> updateDueDate(String studentFeeId, Instant dueDate);
+
+    /**
+     * Applies one aggregated increment per fee in a single unordered bulk write.
+     *
+     * @param deltas amount to add to {@code amountPaid}, keyed by student fee id
+     * @return ids of the fees whose update failed; the other increments were applied
+     */
+    Set<String> applyPayments(Map<String, BigDecimal> deltas);
+
+    /**
+     * Like {@link #applyPayments(Map)}, but records each payment id on its fee in the same update, and a payment
+     * whose id is already recorded adds nothing. A batch replayed after its payments were stored, whether or not
+     * their increments were applied, therefore applies each increment exactly once.
+     *
+     * @param payments payments to apply, keyed by student fee id
+     */
+    void applyPaymentsOnce(Map<String, List<PaymentIncrement>> payments);
+
+    /**
+     * @return those of {@code paymentIds} already recorded as applied on the given fees
+     */
+    Set<String> findAppliedPayments(Collection<String> studentFeeIds, Collection<String> paymentIds);
+
+    /**
+     * Drops recorded payment ids once the caller has durably recorded that the payments were applied.
+     *
+     * @param paymentIds payment ids keyed by student fee id
+     */
+    void forgetAppliedPayments(Map<String, List<String>> paymentIds);
+
+    /**
+     * Applies corrections computed by reconciliation. Each one only matches while {@code amountPaid} still holds
+     * the value that was read, so a payment posted in the meantime is never overwritten.
+     *
+     * @return number of fees actually corrected
+     */
+    long correctAmountPaid(List<AmountPaidCorrection> corrections);
+
+    /**
+     * One page of fees ordered by {@code assignedAt, _id}.
+     */
+    CursorPage<StudentFee> findPage(String cursor, int size);
+
+    /**
+     * One page of unpaid fees due before {@code asOf}, ordered by {@code dueDate, _id}.
+     */
+    CursorPage<StudentFee> findOverduePage(Instant asOf, String cursor, int size);
+
+    /**
+     * Flags unpaid fees whose due date falls in {@code (after, upTo]} as overdue; {@code after} may be
+     * {@code null} for the first scan.
+     *
+     * @return ids of the students owning those fees
+     */
+    Set<String> markOverdue(Instant after, Instant upTo);
+
+    /**
+     * Change in {@code amountAssigned} that repricing would make to the unpaid fees of {@code plan}, keyed by
+     * student id. Computed on the server; nothing is written.
+     */
+    Map<String, RepriceDelta> repriceDeltas(FeePlan plan);
+
+    /**
+     * Points every unpaid fee assigned from {@code plan} at {@code planVersionId}, which must hold the plan's
+     * current amounts, with one pipeline {@code updateMany} recomputing {@code amountAssigned} (plan total plus
+     * late fees already charged), {@code status} and {@code overdue}.
+     *
+     * @return number of fees whose stored values changed
+     */
+    long reprice(FeePlan plan, String planVersionId);
+
+    /**
+     * Adds each late fee to {@code amountAssigned} and records it as a penalty line in one unordered bulk write.
+     * A fee already charged on the charge's day or a later one is left alone, so replaying a batch charges nothing
+     * twice and a fee's penalty day only moves forward.
+     *
+     * @return number of fees actually charged
+     */
+    long applyLateFees(List<LateFeeCharge> charges);
+
+    /**
+     * @param id          raw {@code _id} value as read from the collection
+     * @param recorded    raw stored {@code amountPaid} value, Decimal128 or legacy string
+     * @param delta       amount to add to reach the total of the fee's payments
+     */
+    record AmountPaidCorrection(Object id, Object recorded, BigDecimal delta) {
+    }
+
+    /**
+     * @param id     raw {@code _id} value as read from the collection
+     * @param day    day being charged, {@code yyyy-MM-dd}
+     */
+    record LateFeeCharge(Object id, String day, BigDecimal amount, String rule) {
+    }
+
+    record RepriceDelta(long fees, BigDecimal amount) {
+    }
+
+    record PaymentIncrement(String paymentId, BigDecimal amount) {
+    }
+}
@@ -0,0 +1,340 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.FeePlan;
+import com.organization.entity.StudentFee;
+import com.organization.entity.StudentFee.Fields;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class StudentFeeRepositoryCustomImpl implements StudentFeeRepositoryCustom {
+
+    // Ids left behind when forgetting fails are harmless; the oldest are dropped past this many
+    private static final int APPLIED_PAYMENTS_KEPT = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public StudentFeeRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<StudentFee> applyPayment(String studentFeeId, BigDecimal delta) {
+        Query query = new Query(Criteria.where("_id").is(studentFeeId));
+        StudentFee updated = mongoTemplate.findAndModify(query, settleUpdate(delta),
+                FindAndModifyOptions.options().returnNew(true), StudentFee.class);
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public Optional<StudentFee> updateDueDate(String studentFeeId, Instant dueDate) {
+        Query query = new Query(Criteria.where("_id").is(studentFeeId));
+        AggregationUpdate update = AggregationUpdate.from(List.of(
+                context -> new Document("$set", new Document(Fields.DUE_DATE, Date.from(dueDate))),
+                context -> new Document("$set", new Document(Fields.OVERDUE, overdueExpression()))));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), StudentFee.class));
+    }
+
+    @Override
+    public Set<String> applyPayments(Map<String, BigDecimal> deltas) {
+        if (deltas.isEmpty()) {
+            return Set.of();
+        }
+        List<String> studentFeeIds = new ArrayList<>(deltas.size());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StudentFee.class);
+        deltas.forEach((studentFeeId, delta) -> {
+            studentFeeIds.add(studentFeeId);
+            bulk.updateOne(new Query(Criteria.where("_id").is(studentFeeId)), settleUpdate(delta));
+        });
+        try {
+            bulk.execute();
+            return Set.of();
+        } catch (BulkOperationException ex) {
+            Set<String> failed = new HashSet<>();
+            ex.getErrors().forEach(error -> failed.add(studentFeeIds.get(error.getIndex())));
+            return failed;
+        }
+    }
+
+    @Override
+    public void applyPaymentsOnce(Map<String, List<PaymentIncrement>> payments) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> models = new ArrayList<>(payments.size());
+        payments.forEach((studentFeeId, increments) ->
+                models.add(new UpdateOneModel<>(Filters.eq("_id", objectId(studentFeeId)), settleOncePipeline(increments))));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .bulkWrite(models, new BulkWriteOptions().ordered(false));
+    }
+
+    @Override
+    public Set<String> findAppliedPayments(Collection<String> studentFeeIds, Collection<String> paymentIds) {
+        Set<String> applied = new HashSet<>();
+        if (studentFeeIds.isEmpty() || paymentIds.isEmpty()) {
+            return applied;
+        }
+        Document filter = new Document("_id", new Document("$in", studentFeeIds.stream().map(StudentFeeRepositoryCustomImpl::objectId).toList()))
+                .append(Fields.APPLIED_PAYMENTS, new Document("$in", List.copyOf(paymentIds)));
+        for (Document fee : mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .find(filter)
+                .projection(new Document(Fields.APPLIED_PAYMENTS, 1))) {
+            for (Object id : fee.getList(Fields.APPLIED_PAYMENTS, Object.class, List.of())) {
+                if (paymentIds.contains(String.valueOf(id))) {
+                    applied.add(String.valueOf(id));
+                }
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public void forgetAppliedPayments(Map<String, List<String>> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return;
+        }
+        List<WriteModel<Document>> models = new ArrayList<>(paymentIds.size());
+        paymentIds.forEach((studentFeeId, ids) -> models.add(new UpdateOneModel<>(Filters.eq("_id", objectId(studentFeeId)),
+                new Document("$pullAll", new Document(Fields.APPLIED_PAYMENTS, ids)))));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .bulkWrite(models, new BulkWriteOptions().ordered(false));
+    }
+
+    @Override
+    public long correctAmountPaid(List<AmountPaidCorrection> corrections) {
+        if (corrections.isEmpty()) {
+            return 0;
+        }
+        List<WriteModel<Document>> models = new ArrayList<>(corrections.size());
+        for (AmountPaidCorrection correction : corrections) {
+            models.add(new UpdateOneModel<>(
+                    Filters.and(Filters.eq("_id", correction.id()), Filters.eq(Fields.AMOUNT_PAID, correction.recorded())),
+                    settlePipeline(correction.delta())));
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .bulkWrite(models, new BulkWriteOptions().ordered(false))
+                .getModifiedCount();
+    }
+
+    @Override
+    public Map<String, RepriceDelta> repriceDeltas(FeePlan plan) {
+        List<Document> pipeline = List.of(
+                new Document("$match", repriceFilter(plan)),
+                new Document("$group", new Document("_id", "$" + Fields.STUDENT_ID)
+                        .append("fees", new Document("$sum", 1))
+                        .append("amount", new Document("$sum", new Document("$subtract", List.of(
+                                repricedAmount(plan), decimal(Fields.AMOUNT_ASSIGNED)))))));
+        Map<String, RepriceDelta> deltas = new HashMap<>();
+        for (Document row : mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)) {
+            // The plan total is a Decimal128, so every delta sums to one as well
+            deltas.put(String.valueOf(row.get("_id")), new RepriceDelta(
+                    row.get("fees", Number.class).longValue(), row.get("amount", Decimal128.class).bigDecimalValue()));
+        }
+        return deltas;
+    }
+
+    @Override
+    public long reprice(FeePlan plan, String planVersionId) {
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$set", new Document(Fields.PLAN_VERSION_ID, planVersionId)
+                .append(Fields.AMOUNT_ASSIGNED, repricedAmount(plan))
+                .append(Fields.AMOUNT_PAID, decimal(Fields.AMOUNT_PAID))));
+        // The version holds the amounts now; drop the copies left on fees assigned before versioning
+        pipeline.add(new Document("$unset", List.of("tuition", "hostel", "library", "lab", "sports")));
+        pipeline.addAll(derivedStatusStages());
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .updateMany(repriceFilter(plan), pipeline)
+                .getModifiedCount();
+    }
+
+    private static Document repriceFilter(FeePlan plan) {
+        return new Document(Fields.FEE_PLAN_ID, plan.getId())
+                .append(Fields.STATUS, new Document("$ne", StudentFee.Status.PAID.name()));
+    }
+
+    /**
+     * The plan total plus the late fees already charged on the fee.
+     */
+    private static Document repricedAmount(FeePlan plan) {
+        return new Document("$add", List.of(new Decimal128(plan.getTotal()),
+                new Document("$sum", "$" + Fields.PENALTIES + "." + Fields.PENALTY_AMOUNT)));
+    }
+
+    @Override
+    public long applyLateFees(List<LateFeeCharge> charges) {
+        if (charges.isEmpty()) {
+            return 0;
+        }
+        List<WriteModel<Document>> models = new ArrayList<>(charges.size());
+        for (LateFeeCharge charge : charges) {
+            Decimal128 amount = new Decimal128(charge.amount());
+            Document penalty = new Document(Fields.PENALTY_DAY, charge.day())
+                    .append(Fields.PENALTY_AMOUNT, amount)
+                    .append(Fields.PENALTY_RULE, charge.rule());
+            // A pipeline rather than $inc so legacy string amounts are converted instead of rejected
+            List<Document> update = List.of(new Document("$set", new Document()
+                    .append(Fields.AMOUNT_ASSIGNED, new Document("$add", List.of(decimal(Fields.AMOUNT_ASSIGNED), amount)))
+                    .append(Fields.PENALTIES, new Document("$concatArrays", List.of(
+                            new Document("$ifNull", List.of("$" + Fields.PENALTIES, List.of())), List.of(penalty))))
+                    .append(Fields.LAST_PENALTY_DAY, charge.day())));
+            models.add(new UpdateOneModel<>(
+                    // Only an earlier (or no) penalty day matches: a day is never charged twice and never behind a later one
+                    Filters.and(Filters.eq("_id", charge.id()), Filters.not(Filters.gte(Fields.LAST_PENALTY_DAY, charge.day()))),
+                    update));
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .bulkWrite(models, new BulkWriteOptions().ordered(false))
+                .getModifiedCount();
+    }
+
+    @Override
+    public CursorPage<StudentFee> findPage(String cursor, int size) {
+        return KeysetPager.byInstant(mongoTemplate, new Query(), StudentFee.class,
+                "assignedAt", StudentFee::getAssignedAt, StudentFee::getId, cursor, size);
+    }
+
+    @Override
+    public CursorPage<StudentFee> findOverduePage(Instant asOf, String cursor, int size) {
+        Query query = new Query(unpaidDue(Criteria.where("dueDate").lt(asOf)));
+        return KeysetPager.byInstant(mongoTemplate, query, StudentFee.class,
+                "dueDate", StudentFee::getDueDate, StudentFee::getId, cursor, size);
+    }
+
+    @Override
+    public Set<String> markOverdue(Instant after, Instant upTo) {
+        Criteria dueDate = Criteria.where("dueDate").lte(upTo);
+        if (after != null) {
+            dueDate.gt(after);
+        }
+        Query query = new Query(unpaidDue(dueDate));
+        Set<String> studentIds = new HashSet<>(mongoTemplate.findDistinct(query, "studentId", StudentFee.class, String.class));
+        if (!studentIds.isEmpty()) {
+            mongoTemplate.updateMulti(query, new Update().set("overdue", true), StudentFee.class);
+        }
+        return studentIds;
+    }
+
+    /**
+     * Unpaid fees matching the due date condition. The status condition matches the partial filter of the
+     * {@code overdue_due_date} index so the planner can use it.
+     */
+    private static Criteria unpaidDue(Criteria dueDate) {
+        return new Criteria().andOperator(
+                Criteria.where("status").in(StudentFee.UNPAID_STATUSES),
+                dueDate);
+    }
+
+    /**
+     * Update pipeline that increments amountPaid and derives status and the overdue flag from the incremented value.
+     * Legacy documents that still hold string amounts are converted with {@code $toDecimal}.
+     */
+    static AggregationUpdate settleUpdate(BigDecimal delta) {
+        List<AggregationOperation> stages = settlePipeline(delta).stream()
+                .<AggregationOperation>map(stage -> context -> stage)
+                .toList();
+        return AggregationUpdate.from(stages);
+    }
+
+    static List<Document> settlePipeline(BigDecimal delta) {
+        Document amounts = new Document(Fields.AMOUNT_PAID, new Document("$add", List.of(
+                        decimal(Fields.AMOUNT_PAID), new Decimal128(delta))))
+                .append(Fields.AMOUNT_ASSIGNED, decimal(Fields.AMOUNT_ASSIGNED));
+
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$set", amounts));
+        pipeline.addAll(derivedStatusStages());
+        return pipeline;
+    }
+
+    /**
+     * Adds only the increments whose payment id is not yet recorded on the fee and records those ids, in one
+     * update pipeline, then re-derives status and the overdue flag.
+     */
+    static List<Document> settleOncePipeline(List<PaymentIncrement> increments) {
+        String fresh = "_newPayments";
+        List<Document> entries = new ArrayList<>(increments.size());
+        for (PaymentIncrement increment : increments) {
+            entries.add(new Document("i", increment.paymentId()).append("a", new Decimal128(increment.amount())));
+        }
+        Document recorded = new Document("$ifNull", List.of("$" + Fields.APPLIED_PAYMENTS, List.of()));
+
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$set", new Document(fresh, new Document("$filter", new Document("input", new Document("$literal", entries))
+                .append("as", "p")
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of("$$p.i", recorded)))))))));
+        pipeline.add(new Document("$set", new Document(Fields.AMOUNT_PAID, new Document("$add", List.of(
+                        decimal(Fields.AMOUNT_PAID), new Document("$sum", "$" + fresh + ".a"))))
+                .append(Fields.AMOUNT_ASSIGNED, decimal(Fields.AMOUNT_ASSIGNED))
+                .append(Fields.APPLIED_PAYMENTS, new Document("$slice", List.of(
+                        new Document("$concatArrays", List.of(recorded, "$" + fresh + ".i")), -APPLIED_PAYMENTS_KEPT)))));
+        pipeline.addAll(derivedStatusStages());
+        pipeline.add(new Document("$unset", fresh));
+        return pipeline;
+    }
+
+    /**
+     * Stages that derive status and the overdue flag from decimal {@code amountPaid} and {@code amountAssigned}.
+     */
+    static List<Document> derivedStatusStages() {
+        String paid = "$" + Fields.AMOUNT_PAID;
+        Document status = new Document("$switch", new Document("branches", List.of(
+                new Document("case", new Document("$and", List.of(
+                        new Document("$gt", List.of(paid, 0)),
+                        new Document("$gte", List.of(paid, "$" + Fields.AMOUNT_ASSIGNED)))))
+                        .append("then", StudentFee.Status.PAID.name()),
+                new Document("case", new Document("$gt", List.of(paid, 0)))
+                        .append("then", StudentFee.Status.PARTIAL.name())))
+                .append("default", StudentFee.Status.PENDING.name()));
+
+        return List.of(
+                new Document("$set", new Document(Fields.STATUS, status)),
+                new Document("$set", new Document(Fields.OVERDUE, overdueExpression())));
+    }
+
+    /**
+     * Unpaid with a due date before the server's current time; a missing due date is never overdue.
+     */
+    static Document overdueExpression() {
+        return new Document("$and", List.of(
+                new Document("$ne", List.of("$" + Fields.STATUS, StudentFee.Status.PAID.name())),
+                new Document("$lt", List.of(new Document("$ifNull", List.of("$" + Fields.DUE_DATE, "$$NOW")), "$$NOW"))));
+    }
+
+    // Fee ids are stored as ObjectIds; raw driver filters do not get Spring Data's id conversion
+    private static Object objectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static Document decimal(String field) {
+        return new Document("$toDecimal", new Document("$ifNull", List.of("$" + field, 0)));
+    }
+}
@@ -5,6 +5,6 @@ import org.springframework.stereotype.Repository;
 
 import com.organization.entity.Student;
 @Repository
-public interface StudentRepository extends MongoRepository<Student, String> {
+public interface StudentRepository extends MongoRepository<Student, String>, StudentRepositoryCustom {
     boolean existsByEmail(String email);
 }
\ No newline at end of file
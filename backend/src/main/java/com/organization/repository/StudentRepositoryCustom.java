@@ -0,0 +1,28 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.Student;
+
+import java.util.stream.Stream;
+
+public interface StudentRepositoryCustom {
+
+    /**
+     * One page of students ordered by {@code _id}.
+     */
+    CursorPage<Student> findPage(String cursor, int size);
+
+    /**
+     * Streams students enrolled in {@code course} (case-insensitive), including legacy single-course records.
+     * The caller must close the stream.
+     */
+    Stream<Student> streamByCourse(String course);
+
+    long countByCourse(String course);
+
+    /**
+     * One page, ordered by {@code _id}, of students with an enrollment in {@code course} whose years overlap
+     * {@code [startYear, endYear]}. Only the identifying fields and enrollments are read.
+     */
+    CursorPage<Student> findEnrolledPage(String course, int startYear, int endYear, String cursor, int size);
+}
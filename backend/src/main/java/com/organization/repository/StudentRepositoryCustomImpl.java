@@ -0,0 +1,59 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.Student;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.stream.Stream;
+
+public class StudentRepositoryCustomImpl implements StudentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public StudentRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public CursorPage<Student> findPage(String cursor, int size) {
+        return KeysetPager.byId(mongoTemplate, new Query(), Student.class, Student::getId, cursor, size);
+    }
+
+    @Override
+    public CursorPage<Student> findEnrolledPage(String course, int startYear, int endYear, String cursor, int size) {
+        Query query = enrolledQuery(course, startYear, endYear);
+        query.fields().include("firstName", "lastName", "email", "degreeType", "courses");
+        return KeysetPager.byId(mongoTemplate, query, Student.class, Student::getId, cursor, size);
+    }
+
+    static Query enrolledQuery(String course, int startYear, int endYear) {
+        // $elemMatch keeps all three bounds on the same enrollment so the multikey index can combine them
+        return new Query(Criteria.where("courses").elemMatch(Criteria.where("courseName").is(course)
+                .and("startYear").lt(endYear)
+                .and("endYear").gt(startYear)))
+                .collation(Collation.parse(Student.COURSE_COLLATION));
+    }
+
+    @Override
+    public Stream<Student> streamByCourse(String course) {
+        return mongoTemplate.stream(courseQuery(course), Student.class);
+    }
+
+    @Override
+    public long countByCourse(String course) {
+        return mongoTemplate.count(courseQuery(course), Student.class);
+    }
+
+    /**
+     * Case-insensitive equality through the collation of the enrollment index, which an anchored
+     * case-insensitive regex cannot use. The legacy {@code course} field is always copied from the primary
+     * enrollment, so matching {@code courses} alone finds the same students.
+     */
+    static Query courseQuery(String course) {
+        return new Query(Criteria.where("courses.courseName").is(course))
+                .collation(Collation.parse(Student.COURSE_COLLATION));
+    }
+}
@@ -0,0 +1,33 @@
+package com.organization.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal that also carries the user id and token version, so a token can be issued from it and rebuilt
+ * from the token's claims without loading the user again.
+ */
+public class AuthenticatedUser extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final long tokenVersion;
+
+    public AuthenticatedUser(String id, String username, String password, long tokenVersion,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+}
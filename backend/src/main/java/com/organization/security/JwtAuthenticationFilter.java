@@ -1,5 +1,6 @@
 package com.organization.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,9 +23,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private UserDetailsService userDetailsService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService) {
+    private TokenRevocationCache tokenRevocationCache;
+
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsService userDetailsService,
+                                   TokenRevocationCache tokenRevocationCache) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationCache = tokenRevocationCache;
     }
 
     @Override
@@ -36,13 +41,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = getTokenFromRequest(request);
 
         // validate token
-        if(StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)){
-
-            // get username from token
-            String username = jwtTokenProvider.getUsername(token);
-
-            // load the user associated with token
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if(StringUtils.hasText(token)){
+
+            Claims claims = jwtTokenProvider.getClaims(token);
+
+            // the signed claims carry the user; only tokens issued before they existed need a lookup
+            AuthenticatedUser principal = jwtTokenProvider.toPrincipal(claims);
+            UserDetails userDetails;
+            if (principal == null) {
+                userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            } else if (tokenRevocationCache.isCurrent(principal.getId(), principal.getTokenVersion())) {
+                userDetails = principal;
+            } else {
+                // revoked: continue unauthenticated so protected endpoints answer 401
+                filterChain.doFilter(request, response);
+                return;
+            }
 
             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -1,27 +1,32 @@
 package com.organization.security;
 
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import com.organization.exception.StudentApiException;
-
 import java.security.Key;
 import java.util.Date;
+import java.util.List;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${app.jwt-secret}")
-    private String jwtSecret;
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    static final String TOKEN_VERSION_CLAIM = "ver";
 
     @Value("${app-jwt-expiration-milliseconds}")
     private long jwtExpirationDate;
 
+    private final JwtVerifier jwtVerifier;
+
+    public JwtTokenProvider(JwtVerifier jwtVerifier) {
+        this.jwtVerifier = jwtVerifier;
+    }
+
     // generate JWT token
     public String generateToken(Authentication authentication){
         String username = authentication.getName();
@@ -30,48 +35,57 @@ public class JwtTokenProvider {
 
         Date expireDate = new Date(currentDate.getTime() + jwtExpirationDate);
 
-        String token = Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(expireDate)
+                .setExpiration(expireDate);
+
+        // Signed claims let the filter authenticate requests without loading the user
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            builder.claim(USER_ID_CLAIM, user.getId())
+                    .claim(ROLES_CLAIM, user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                    .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        }
+
+        String token = builder
                 .signWith(key())
                 .compact();
         return token;
     }
 
     private Key key(){
-        return Keys.hmacShaKeyFor(
-                Decoders.BASE64.decode(jwtSecret)
-        );
+        return jwtVerifier.signingKey();
     }
 
     // get username from Jwt token
     public String getUsername(String token){
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        String username = claims.getSubject();
-        return username;
+        return getClaims(token).getSubject();
     }
 
     // validate Jwt token
     public boolean validateToken(String token){
-        try{
-            Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parse(token);
-            return true;
-        } catch (MalformedJwtException ex) {
-            throw new StudentApiException(HttpStatus.BAD_REQUEST, "Invalid JWT token");
-        } catch (ExpiredJwtException ex) {
-            throw new StudentApiException(HttpStatus.BAD_REQUEST, "Expired JWT token");
-        } catch (UnsupportedJwtException ex) {
-            throw new StudentApiException(HttpStatus.BAD_REQUEST, "Unsupported JWT token");
-        } catch (IllegalArgumentException ex) {
-            throw new StudentApiException(HttpStatus.BAD_REQUEST, "JWT claims string is empty.");
+        getClaims(token);
+        return true;
+    }
+
+    /**
+     * Verifies the token once and returns its claims.
+     */
+    public Claims getClaims(String token){
+        return jwtVerifier.verify(token);
+    }
+
+    /**
+     * Rebuilds the principal from the signed claims, or returns null for a token issued before they existed.
+     */
+    public AuthenticatedUser toPrincipal(Claims claims){
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        Number version = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+        if (userId == null || roles == null || version == null) {
+            return null;
         }
+        return new AuthenticatedUser(userId, claims.getSubject(), "", version.longValue(),
+                roles.stream().map(role -> new SimpleGrantedAuthority(role.toString())).toList());
     }
 }
@@ -0,0 +1,149 @@
+package com.organization.security;
+
+import com.organization.dto.TokenVerificationStats;
+import com.organization.exception.StudentApiException;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies bearer tokens against a signing key and parser built once at startup; the parser is immutable and
+ * shared by all request threads.
+ * <p>
+ * A client sends the same token on every request until it expires, so verified claims are kept in a bounded LRU
+ * keyed by the SHA-256 of the token. An entry is only served until the token's own expiry; after that the token
+ * is parsed again and rejected as expired.
+ */
+@Component
+public class JwtVerifier {
+
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final int cacheSize;
+    private final Map<String, Verified> verified;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verifyNanos = new LongAdder();
+    private final LongAccumulator maxVerifyNanos = new LongAccumulator(Math::max, 0);
+
+    public JwtVerifier(@Value("${app.jwt-secret}") String jwtSecret,
+                       @Value("${app.jwt.verified-cache-size:10000}") int cacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.cacheSize = cacheSize;
+        this.verified = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Verified> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    private record Verified(Claims claims, long expiresAtMillis) {
+    }
+
+    Key signingKey() {
+        return signingKey;
+    }
+
+    /**
+     * Returns the claims of a valid token, from the cache when the same token was verified before.
+     */
+    public Claims verify(String token) {
+        if (token == null || token.isBlank()) {
+            return parse(token);
+        }
+        String hash = hash(token);
+        long now = System.currentTimeMillis();
+        Verified cached;
+        synchronized (verified) {
+            cached = verified.get(hash);
+            if (cached != null && cached.expiresAtMillis() <= now) {
+                verified.remove(hash);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached.claims();
+        }
+        misses.increment();
+
+        Claims claims = parse(token);
+        Date expiration = claims.getExpiration();
+        // Tokens without an expiry are verified every time rather than trusted for as long as they stay cached
+        if (expiration != null && cacheSize > 0) {
+            synchronized (verified) {
+                verified.put(hash, new Verified(claims, expiration.getTime()));
+            }
+        }
+        return claims;
+    }
+
+    private Claims parse(String token) {
+        long start = System.nanoTime();
+        try {
+            return parser.parseClaimsJws(token).getBody();
+        } catch (MalformedJwtException ex) {
+            throw new StudentApiException(HttpStatus.BAD_REQUEST, "Invalid JWT token");
+        } catch (ExpiredJwtException ex) {
+            throw new StudentApiException(HttpStatus.BAD_REQUEST, "Expired JWT token");
+        } catch (UnsupportedJwtException ex) {
+            throw new StudentApiException(HttpStatus.BAD_REQUEST, "Unsupported JWT token");
+        } catch (IllegalArgumentException ex) {
+            throw new StudentApiException(HttpStatus.BAD_REQUEST, "JWT claims string is empty.");
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            verifications.increment();
+            verifyNanos.add(elapsed);
+            maxVerifyNanos.accumulate(elapsed);
+        }
+    }
+
+    public TokenVerificationStats stats() {
+        int size;
+        synchronized (verified) {
+            size = verified.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        long verifyCount = verifications.sum();
+        return new TokenVerificationStats(size, cacheSize, hitCount, missCount,
+                lookups == 0 ? 0D : (double) hitCount / lookups,
+                verifyCount,
+                verifyCount == 0 ? 0D : verifyNanos.sum() / 1000D / verifyCount,
+                TimeUnit.NANOSECONDS.toMicros(maxVerifyNanos.get()));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.organization.security;
+
+import com.organization.exception.BackpressureException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Failed sign-ins per account, checked before any password is hashed. After {@code max-failures} failures within
+ * {@code failure-window} the account is locked for {@code lockout} and further attempts are rejected with 429
+ * without touching BCrypt.
+ * <p>
+ * An attempt is reserved before its password is checked and settled afterwards, so attempts still being hashed
+ * count against the limit: a burst of parallel guesses gets at most {@code max-failures} of them through.
+ * <p>
+ * Accounts are spread over lock stripes so concurrent logins for different accounts rarely contend. Each stripe
+ * is bounded: when it is full the least recently used entry that is neither locked nor mid-attempt is dropped,
+ * so a sweep over random usernames cannot grow the map without limit, nor push a locked account out early.
+ * Locked entries leave once their lockout has expired.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final int maxFailures;
+    private final long windowMillis;
+    private final long lockoutMillis;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public LoginAttemptLimiter(@Value("${app.security.login.max-failures:5}") int maxFailures,
+                               @Value("${app.security.login.failure-window:15m}") Duration failureWindow,
+                               @Value("${app.security.login.lockout:15m}") Duration lockout,
+                               @Value("${app.security.login.max-tracked-accounts:100000}") int maxTracked) {
+        this.maxFailures = maxFailures;
+        this.windowMillis = failureWindow.toMillis();
+        this.lockoutMillis = lockout.toMillis();
+        int perStripe = Math.max(1, maxTracked / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    private static final class Attempts {
+        int failures;
+        int inFlight;
+        long windowStart;
+        long lockedUntil;
+
+        boolean evictable(long now) {
+            return inFlight == 0 && lockedUntil <= now;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Attempts> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Attempts> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            Iterator<Attempts> entries = values().iterator();
+            while (entries.hasNext() && size() > capacity) {
+                if (entries.next().evictable(now)) {
+                    entries.remove();
+                }
+            }
+            // Entries were removed above, if any could be; the map may stay over capacity while all are locked
+            return false;
+        }
+    }
+
+    /**
+     * Reserves a sign-in attempt, to be settled with {@link #failed}, {@link #succeeded} or {@link #released}.
+     * Rejects it while the account is locked, or while the attempts already in progress could lock it.
+     */
+    public void reserve(String account) {
+        String key = key(account);
+        Stripe stripe = stripe(key);
+        long now = System.currentTimeMillis();
+        long retryAfterMillis;
+        synchronized (stripe) {
+            Attempts attempts = stripe.computeIfAbsent(key, ignored -> new Attempts());
+            if (now - attempts.windowStart > windowMillis) {
+                attempts.windowStart = now;
+                attempts.failures = 0;
+            }
+            if (attempts.lockedUntil > now) {
+                retryAfterMillis = attempts.lockedUntil - now;
+            } else if (attempts.failures + attempts.inFlight >= maxFailures) {
+                // The attempts being checked may still lock the account; this one waits for their outcome
+                retryAfterMillis = 1000;
+            } else {
+                attempts.inFlight++;
+                return;
+            }
+        }
+        throw new BackpressureException(HttpStatus.TOO_MANY_REQUESTS, "Too many failed sign-in attempts",
+                Math.max(1, (retryAfterMillis + 999) / 1000));
+    }
+
+    public void failed(String account) {
+        String key = key(account);
+        Stripe stripe = stripe(key);
+        long now = System.currentTimeMillis();
+        synchronized (stripe) {
+            Attempts attempts = stripe.computeIfAbsent(key, ignored -> new Attempts());
+            attempts.inFlight = Math.max(0, attempts.inFlight - 1);
+            if (now - attempts.windowStart > windowMillis) {
+                attempts.windowStart = now;
+                attempts.failures = 0;
+            }
+            if (++attempts.failures >= maxFailures) {
+                attempts.lockedUntil = now + lockoutMillis;
+                attempts.failures = 0;
+                attempts.windowStart = now;
+            }
+        }
+    }
+
+    public void succeeded(String account) {
+        String key = key(account);
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    /**
+     * Settles an attempt that ended before the password was judged, such as one turned away by a full hashing pool.
+     */
+    public void released(String account) {
+        String key = key(account);
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Attempts attempts = stripe.get(key);
+            if (attempts != null) {
+                attempts.inFlight = Math.max(0, attempts.inFlight - 1);
+            }
+        }
+    }
+
+    /**
+     * Entries currently tracked, locked ones included.
+     */
+    int tracked() {
+        int tracked = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                tracked += stripe.size();
+            }
+        }
+        return tracked;
+    }
+
+    private Stripe stripe(String key) {
+        return stripes[Math.floorMod(key.hashCode(), STRIPES)];
+    }
+
+    private static String key(String account) {
+        return account == null ? "" : account.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,204 @@
+package com.organization.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.organization.exception.StudentErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket throttling per endpoint group. Requests from a signed-in user draw from that user's bucket wherever
+ * they come from; anonymous requests and sign-in itself draw from the client IP's bucket.
+ * <p>
+ * The client IP is {@link HttpServletRequest#getRemoteAddr()}. With {@code server.forward-headers-strategy=native}
+ * Tomcat sets it from {@code X-Forwarded-For} when, and only when, the connection comes from one of the load
+ * balancers listed in {@code server.tomcat.remoteip.internal-proxies}, so clients behind them get their own buckets
+ * and any other client cannot pick its bucket by sending the header.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} updated by compare-and-set (the GCRA form of a token bucket: the
+ * stored value is the time at which the bucket will be full again), so a request costs one map lookup and one
+ * CAS and allocates nothing once its bucket exists. Buckets that have refilled and sat idle for
+ * {@code idle-eviction} are swept out periodically.
+ * <p>
+ * Responses carry {@code RateLimit-Limit}, {@code RateLimit-Remaining}, {@code RateLimit-Reset} and
+ * {@code RateLimit-Policy}; a rejected request gets 429 with {@code Retry-After}.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum Group { AUTH, DB, PAYMENT_WRITES, WRITES, READS }
+
+    private final boolean enabled;
+    private final long idleNanos;
+    private final ObjectMapper objectMapper;
+    private final Map<Group, Limiter> limiters = new EnumMap<>(Group.class);
+
+    public RateLimitFilter(@Value("${app.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.rate-limit.auth:20/1m}") String auth,
+                           @Value("${app.rate-limit.db:30/1m}") String db,
+                           @Value("${app.rate-limit.payment-writes:60/1m}") String paymentWrites,
+                           @Value("${app.rate-limit.writes:120/1m}") String writes,
+                           @Value("${app.rate-limit.reads:300/1m}") String reads,
+                           @Value("${app.rate-limit.idle-eviction:10m}") Duration idleEviction,
+                           ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.idleNanos = idleEviction.toNanos();
+        this.objectMapper = objectMapper;
+        limiters.put(Group.AUTH, Limiter.parse(auth));
+        limiters.put(Group.DB, Limiter.parse(db));
+        limiters.put(Group.PAYMENT_WRITES, Limiter.parse(paymentWrites));
+        limiters.put(Group.WRITES, Limiter.parse(writes));
+        limiters.put(Group.READS, Limiter.parse(reads));
+    }
+
+    /**
+     * A bucket policy of {@code limit} requests per {@code period}, which is also the burst size.
+     */
+    private static final class Limiter {
+
+        private final int limit;
+        private final long periodSeconds;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final String policy;
+        private final ConcurrentHashMap<String, AtomicLong> users = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, AtomicLong> clients = new ConcurrentHashMap<>();
+
+        private Limiter(int limit, Duration period) {
+            this.limit = limit;
+            this.periodSeconds = Math.max(1, period.toSeconds());
+            this.intervalNanos = Math.max(1, period.toNanos() / limit);
+            this.burstNanos = intervalNanos * limit;
+            this.policy = limit + ";w=" + periodSeconds;
+        }
+
+        // "<limit>/<period>", e.g. "300/1m"
+        static Limiter parse(String spec) {
+            int slash = spec.indexOf('/');
+            if (slash < 1) {
+                throw new IllegalArgumentException("Rate limit must look like 300/1m: " + spec);
+            }
+            int limit = Integer.parseInt(spec.substring(0, slash).trim());
+            if (limit < 1) {
+                throw new IllegalArgumentException("Rate limit must allow at least one request: " + spec);
+            }
+            return new Limiter(limit, DurationStyle.detectAndParse(spec.substring(slash + 1).trim()));
+        }
+
+        /**
+         * Takes a token; returns the tokens left, or {@code -1 - nanosUntilNextToken} when the bucket is empty.
+         */
+        long acquire(AtomicLong bucket, long now) {
+            while (true) {
+                long fullAt = bucket.get();
+                long next = Math.max(fullAt, now) + intervalNanos;
+                long allowAt = next - burstNanos;
+                if (now < allowAt) {
+                    return -1 - (allowAt - now);
+                }
+                if (bucket.compareAndSet(fullAt, next)) {
+                    return (now - allowAt) / intervalNanos;
+                }
+            }
+        }
+
+        long secondsUntilFull(AtomicLong bucket, long now) {
+            return toSeconds(Math.max(0, bucket.get() - now));
+        }
+
+        void evictIdle(long before) {
+            users.values().removeIf(bucket -> bucket.get() < before);
+            clients.values().removeIf(bucket -> bucket.get() < before);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Group group = group(request);
+        Limiter limiter = limiters.get(group);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        long now = System.nanoTime();
+        AtomicLong bucket = group != Group.AUTH && authentication != null && authentication.isAuthenticated()
+                ? bucket(limiter.users, authentication.getName(), now)
+                : bucket(limiter.clients, request.getRemoteAddr(), now);
+
+        long remaining = limiter.acquire(bucket, now);
+        response.setHeader("RateLimit-Policy", limiter.policy);
+        response.setIntHeader("RateLimit-Limit", limiter.limit);
+        if (remaining < 0) {
+            long retryAfter = Math.max(1, toSeconds(-1 - remaining));
+            response.setIntHeader("RateLimit-Remaining", 0);
+            response.setHeader("RateLimit-Reset", Long.toString(retryAfter));
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+            reject(response);
+            return;
+        }
+        response.setHeader("RateLimit-Remaining", Long.toString(remaining));
+        response.setHeader("RateLimit-Reset", Long.toString(limiter.secondsUntilFull(bucket, now)));
+        filterChain.doFilter(request, response);
+    }
+
+    // Plain get first: the capturing lambda is only allocated for a key seen for the first time
+    private static AtomicLong bucket(ConcurrentHashMap<String, AtomicLong> buckets, String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        return bucket != null ? bucket : buckets.computeIfAbsent(key, ignored -> new AtomicLong(now));
+    }
+
+    private static Group group(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/auth/")) {
+            return Group.AUTH;
+        }
+        if (path.startsWith("/api/db/")) {
+            return Group.DB;
+        }
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return Group.READS;
+        }
+        return path.startsWith("/api/payments") ? Group.PAYMENT_WRITES : Group.WRITES;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new StudentErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests", System.currentTimeMillis()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval:1m}")
+    public void evictIdle() {
+        long before = System.nanoTime() - idleNanos;
+        limiters.values().forEach(limiter -> limiter.evictIdle(before));
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.organization.security;
+
+import com.organization.entity.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Current token version of every user whose tokens have been revoked at least once. Only those users are held,
+ * so the map stays small; it is replaced wholesale on each refresh and read without locking. A revocation made
+ * on another instance takes effect here at the next refresh.
+ */
+@Component
+public class TokenRevocationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationCache.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile Map<String, Long> versions = Map.of();
+
+    public TokenRevocationCache(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Whether a token carrying {@code tokenVersion} is still current for the user.
+     */
+    public boolean isCurrent(String userId, long tokenVersion) {
+        return tokenVersion >= versions.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Applies a revocation made by this instance immediately instead of waiting for the next refresh.
+     */
+    public synchronized void revoked(String userId, long tokenVersion) {
+        Map<String, Long> next = new HashMap<>(versions);
+        next.merge(userId, tokenVersion, Math::max);
+        versions = Map.copyOf(next);
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-refresh:30s}", initialDelay = 0)
+    public void refresh() {
+        try {
+            Map<String, Long> next = new HashMap<>();
+            for (Document user : mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                    .find(new Document("tokenVersion", new Document("$gt", 0)))
+                    .projection(new Document("tokenVersion", 1))) {
+                next.put(user.get("_id").toString(), ((Number) user.get("tokenVersion")).longValue());
+            }
+            synchronized (this) {
+                // Versions only grow; keep a revocation applied locally after this read started
+                versions.forEach((userId, version) -> next.merge(userId, version, Math::max));
+                versions = Map.copyOf(next);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Could not refresh revoked token versions; keeping the previous set", ex);
+        }
+    }
+}
@@ -7,4 +7,9 @@ public interface AuthService {
     String login(LoginDto loginDto);
 
     String register(RegisterDto registerDto);
+
+    /**
+     * Bumps the user's token version so every token issued so far is rejected.
+     */
+    void revokeTokens(String userId);
 }
@@ -1,12 +1,23 @@
 package com.organization.service;
 
 import com.organization.entity.User;
+import com.organization.exception.BackpressureException;
 import com.organization.dto.LoginDto;
 import com.organization.dto.RegisterDto;
+import com.organization.monitoring.DomainMetrics;
 import com.organization.repository.UserRepository;
 import com.organization.security.JwtTokenProvider;
+import com.organization.security.LoginAttemptLimiter;
+import com.organization.security.PasswordHashingExecutor;
+import com.organization.security.TokenRevocationCache;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -23,15 +34,30 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final MongoTemplate mongoTemplate;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final LoginAttemptLimiter loginAttemptLimiter;
+    private final DomainMetrics domainMetrics;
 
     public AuthServiceImpl(AuthenticationManager authenticationManager,
                            UserRepository userRepository,
                            PasswordEncoder passwordEncoder,
-                           JwtTokenProvider tokenProvider) {
+                           JwtTokenProvider tokenProvider,
+                           TokenRevocationCache tokenRevocationCache,
+                           MongoTemplate mongoTemplate,
+                           PasswordHashingExecutor passwordHashingExecutor,
+                           LoginAttemptLimiter loginAttemptLimiter,
+                           DomainMetrics domainMetrics) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.tokenProvider = tokenProvider;
+        this.tokenRevocationCache = tokenRevocationCache;
+        this.mongoTemplate = mongoTemplate;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.loginAttemptLimiter = loginAttemptLimiter;
+        this.domainMetrics = domainMetrics;
     }
 
     @Override
@@ -47,7 +73,7 @@ public class AuthServiceImpl implements AuthService {
         user.setName(registerDto.getName());
         user.setUsername(registerDto.getUsername());
         user.setEmail(registerDto.getEmail());
-        user.setPassword(passwordEncoder.encode(registerDto.getPassword()));
+        user.setPassword(passwordHashingExecutor.run(() -> passwordEncoder.encode(registerDto.getPassword())));
         user.setRoles(Set.of("ROLE_STUDENT"));
 
         userRepository.save(user);
@@ -56,13 +82,45 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public String login(LoginDto loginDto) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginDto.getUsernameOrEmail(),
-                        loginDto.getPassword()
-                )
-        );
+        String account = loginDto.getUsernameOrEmail();
+        // A locked account is turned away before its password is hashed
+        try {
+            loginAttemptLimiter.reserve(account);
+        } catch (BackpressureException ex) {
+            domainMetrics.loginLocked();
+            throw ex;
+        }
+
+        Authentication authentication;
+        try {
+            authentication = passwordHashingExecutor.run(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            account,
+                            loginDto.getPassword()
+                    )
+            ));
+        } catch (BadCredentialsException ex) {
+            loginAttemptLimiter.failed(account);
+            domainMetrics.loginFailed();
+            throw ex;
+        } catch (RuntimeException ex) {
+            // The password was never judged (a full hashing pool, a failed lookup): neither a failure nor a success
+            loginAttemptLimiter.released(account);
+            throw ex;
+        }
+        loginAttemptLimiter.succeeded(account);
+        domainMetrics.loginSucceeded();
         SecurityContextHolder.getContext().setAuthentication(authentication);
         return tokenProvider.generateToken(authentication);
     }
+
+    @Override
+    public void revokeTokens(String userId) {
+        User user = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(userId)),
+                new Update().inc("tokenVersion", 1), FindAndModifyOptions.options().returnNew(true), User.class);
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        tokenRevocationCache.revoked(user.getId(), user.getTokenVersion());
+    }
 }
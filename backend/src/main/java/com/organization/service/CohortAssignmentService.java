@@ -0,0 +1,15 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+
+import java.time.Instant;
+
+public interface CohortAssignmentService {
+
+    /**
+     * Assigns the fee plan to every student enrolled in its course whose course duration covers the plan's
+     * academic year. The plan is validated before the background job starts; students that cannot be
+     * assigned are counted and listed in the job details with the reason.
+     */
+    JobProgress start(String feePlanId, Instant dueDate);
+}
@@ -0,0 +1,164 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+import com.organization.entity.FeePlan;
+import com.organization.entity.FeePlanVersion;
+import com.organization.entity.Student;
+import com.organization.entity.StudentFee;
+import com.organization.exception.StudentApiException;
+import com.organization.monitoring.DomainMetrics;
+import com.organization.repository.FeePlanRepository;
+import com.organization.repository.StudentRepository;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Assigns a fee plan to a whole cohort with a fixed number of round trips per batch. Existing assignments of
+ * the plan are read once into a set, students are streamed and validated in memory with the same rules as a
+ * single assignment, and new fees are written with unordered bulk inserts.
+ */
+@Service
+public class CohortAssignmentServiceImpl implements CohortAssignmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CohortAssignmentServiceImpl.class);
+
+    static final String JOB_TYPE = "cohort-fee-assignment";
+
+    private static final int DUPLICATE_KEY = 11000;
+    private static final String ALREADY_ASSIGNED = "Fee plan already assigned to this student";
+
+    private final MongoTemplate mongoTemplate;
+    private final FeePlanRepository feePlanRepository;
+    private final StudentRepository studentRepository;
+    private final StudentBalanceService studentBalanceService;
+    private final FeePlanVersionService feePlanVersionService;
+    private final DomainMetrics domainMetrics;
+    private final JobService jobService;
+    private final int batchSize;
+
+    public CohortAssignmentServiceImpl(MongoTemplate mongoTemplate,
+                                       FeePlanRepository feePlanRepository,
+                                       StudentRepository studentRepository,
+                                       StudentBalanceService studentBalanceService,
+                                       FeePlanVersionService feePlanVersionService,
+                                       DomainMetrics domainMetrics,
+                                       JobService jobService,
+                                       @Value("${app.student-fees.cohort.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.feePlanRepository = feePlanRepository;
+        this.studentRepository = studentRepository;
+        this.studentBalanceService = studentBalanceService;
+        this.feePlanVersionService = feePlanVersionService;
+        this.domainMetrics = domainMetrics;
+        this.jobService = jobService;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public JobProgress start(String feePlanId, Instant dueDate) {
+        FeePlan plan = feePlanRepository.findById(feePlanId)
+                .orElseThrow(() -> new StudentApiException(HttpStatus.NOT_FOUND, "Fee plan not found: " + feePlanId));
+        FeeAssignments.PlanYears years = FeeAssignments.planYears(plan);
+        return jobService.start(JOB_TYPE, progress -> assign(plan, years, dueDate, progress));
+    }
+
+    private void assign(FeePlan plan, FeeAssignments.PlanYears years, Instant dueDate, JobProgress progress) {
+        FeePlanVersion version = feePlanVersionService.snapshot(plan);
+        Set<String> assigned = assignedStudents(plan);
+        progress.setTotalUnits(studentRepository.countByCourse(plan.getCourse()));
+
+        List<StudentFee> batch = new ArrayList<>(batchSize);
+        try (Stream<Student> students = studentRepository.streamByCourse(plan.getCourse())) {
+            for (Student student : (Iterable<Student>) students::iterator) {
+                if (progress.isCancelRequested()) {
+                    break;
+                }
+                progress.increment("studentsScanned");
+                progress.completeUnit();
+                if (!assigned.add(student.getId())) {
+                    skip(progress, student.getId(), ALREADY_ASSIGNED);
+                    continue;
+                }
+                try {
+                    Student.CourseEnrollment course = FeeAssignments.matchingEnrollment(student, plan, years);
+                    batch.add(FeeAssignments.newStudentFee(student.getId(), version, course, dueDate));
+                } catch (IllegalStateException ex) {
+                    skip(progress, student.getId(), ex.getMessage());
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    flush(batch, progress);
+                }
+            }
+        }
+        flush(batch, progress);
+        logger.info("Cohort assignment of fee plan {} finished: {}", plan.getId(), progress.getCounters());
+    }
+
+    /**
+     * Students that already have this plan, read in one query. The unique index is on (studentId, feePlanId),
+     * so any existing fee for the plan blocks a new one regardless of its academic year.
+     */
+    private Set<String> assignedStudents(FeePlan plan) {
+        Set<String> studentIds = new HashSet<>();
+        for (Document fee : mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .find(new Document(StudentFee.Fields.FEE_PLAN_ID, plan.getId()))
+                .projection(new Document(StudentFee.Fields.STUDENT_ID, 1).append("_id", 0))) {
+            studentIds.add(fee.getString(StudentFee.Fields.STUDENT_ID));
+        }
+        return studentIds;
+    }
+
+    private void flush(List<StudentFee> batch, JobProgress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<StudentFee> inserted = new ArrayList<>(batch);
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StudentFee.class)
+                    .insert(batch)
+                    .execute();
+        } catch (BulkOperationException ex) {
+            // Remove failures from the highest index down so earlier positions stay valid
+            ex.getErrors().stream()
+                    .sorted((a, b) -> Integer.compare(b.getIndex(), a.getIndex()))
+                    .forEach(error -> {
+                        StudentFee fee = inserted.remove(error.getIndex());
+                        if (error.getCode() == DUPLICATE_KEY) {
+                            skip(progress, fee.getStudentId(), ALREADY_ASSIGNED);
+                        } else {
+                            progress.increment("failed");
+                            progress.addDetail(Map.of("studentId", fee.getStudentId(), "error", error.getMessage()));
+                        }
+                    });
+        }
+        progress.increment("assigned", inserted.size());
+        domainMetrics.feesAssigned(inserted.size());
+        try {
+            studentBalanceService.feesAssigned(inserted);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not update student balances for {} cohort assignments", inserted.size(), ex);
+        }
+        batch.clear();
+    }
+
+    private static void skip(JobProgress progress, String studentId, String reason) {
+        progress.increment("skipped");
+        progress.addDetail(Map.of("studentId", studentId, "reason", reason));
+    }
+}
@@ -2,9 +2,15 @@ package com.organization.service;
 
 import com.organization.entity.User;
 import com.organization.repository.UserRepository;
+import com.organization.security.AuthenticatedUser;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,12 +19,14 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, MongoTemplate mongoTemplate) {
         this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Override
@@ -31,10 +39,27 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toSet());
 
-        return new org.springframework.security.core.userdetails.User(
+        return new AuthenticatedUser(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
+                user.getTokenVersion(),
                 authorities
         );
     }
+
+    /**
+     * Stores a rehashed password after a successful sign-in whose stored hash used a different BCrypt cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails details, String newPassword) {
+        // Only the password is written, so a concurrent token revocation on the same user is not overwritten
+        mongoTemplate.updateFirst(new Query(Criteria.where("username").is(details.getUsername())),
+                new Update().set("password", newPassword), User.class);
+        if (details instanceof AuthenticatedUser user) {
+            return new AuthenticatedUser(user.getId(), user.getUsername(), newPassword, user.getTokenVersion(),
+                    user.getAuthorities());
+        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(details).password(newPassword).build();
+    }
 }
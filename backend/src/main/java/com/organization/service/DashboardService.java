@@ -0,0 +1,14 @@
+package com.organization.service;
+
+import com.organization.dto.AdminDashboardStats;
+import com.organization.dto.StudentDashboard;
+
+public interface DashboardService {
+
+    AdminDashboardStats adminStats();
+
+    /**
+     * One student's fees, payments, totals and upcoming dues, read with two concurrent indexed queries.
+     */
+    StudentDashboard studentDashboard(String studentId);
+}
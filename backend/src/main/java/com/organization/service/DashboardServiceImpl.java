@@ -0,0 +1,317 @@
+package com.organization.service;
+
+import com.organization.dto.AdminDashboardStats;
+import com.organization.dto.PaymentLine;
+import com.organization.dto.StudentDashboard;
+import com.organization.dto.StudentFeeLine;
+import com.organization.entity.FeePlan;
+import com.organization.entity.Payment;
+import com.organization.entity.Student;
+import com.organization.entity.StudentFee;
+import com.organization.exception.BackpressureException;
+import com.organization.repository.PaymentRepository;
+import com.organization.repository.StudentFeeRepository;
+import com.mongodb.client.model.CountOptions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves each dashboard from one round of concurrent queries. The admin figures come from queries run in
+ * parallel, each led by an indexed filter: two metadata counts, one count per status on {@code status_due_date},
+ * the outstanding total over unpaid fees on the same index, the oldest overdue fees from the partial overdue
+ * index and a month-to-date {@code $group} over {@code payments}. A student's dashboard comes from two projected
+ * lookups by {@code studentId}.
+ * <p>
+ * Admin results are cached for {@code cache-ttl}. Concurrent callers that miss the cache share the computation
+ * already in flight instead of starting their own, so a burst of refreshes costs one set of queries.
+ * <p>
+ * Admin and student queries run on separate pools with bounded queues, so a slow admin refresh cannot hold up
+ * student dashboards. A full queue, or queries not finished within {@code timeout}, answer 503 with a Retry-After;
+ * the same timeout is passed to the server as {@code maxTimeMS}.
+ */
+@Service
+public class DashboardServiceImpl implements DashboardService, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardServiceImpl.class);
+
+    private static final int NEXT_DUE_LIMIT = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final StudentFeeRepository studentFeeRepository;
+    private final PaymentRepository paymentRepository;
+    private final Duration cacheTtl;
+    private final int overdueLimit;
+    private final ZoneId zone;
+    private final Duration timeout;
+    private final ThreadPoolExecutor adminExecutor;
+    private final ThreadPoolExecutor studentExecutor;
+
+    private final AtomicReference<Cached> cached = new AtomicReference<>();
+
+    public DashboardServiceImpl(MongoTemplate mongoTemplate,
+                                StudentFeeRepository studentFeeRepository,
+                                PaymentRepository paymentRepository,
+                                @Value("${app.dashboard.cache-ttl:5s}") Duration cacheTtl,
+                                @Value("${app.dashboard.overdue-limit:10}") int overdueLimit,
+                                @Value("${app.payments.rollup-zone:UTC}") ZoneId zone,
+                                @Value("${app.dashboard.timeout:5s}") Duration timeout,
+                                @Value("${app.dashboard.admin-threads:3}") int adminThreads,
+                                @Value("${app.dashboard.admin-queue-capacity:16}") int adminQueueCapacity,
+                                @Value("${app.dashboard.student-threads:8}") int studentThreads,
+                                @Value("${app.dashboard.student-queue-capacity:64}") int studentQueueCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.studentFeeRepository = studentFeeRepository;
+        this.paymentRepository = paymentRepository;
+        this.cacheTtl = cacheTtl;
+        this.overdueLimit = overdueLimit;
+        this.zone = zone;
+        this.timeout = timeout;
+        this.adminExecutor = pool("dashboard-admin-", adminThreads, adminQueueCapacity);
+        this.studentExecutor = pool("dashboard-student-", studentThreads, studentQueueCapacity);
+    }
+
+    private static ThreadPoolExecutor pool(String prefix, int threads, int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    private record Cached(CompletableFuture<AdminDashboardStats> stats, long expiresAtNanos) {
+
+        boolean usable(long now) {
+            // A computation still running is always shared; a finished one only until it expires or if it failed
+            return !stats.isDone() || (!stats.isCompletedExceptionally() && now - expiresAtNanos < 0);
+        }
+    }
+
+    @Override
+    public AdminDashboardStats adminStats() {
+        while (true) {
+            long now = System.nanoTime();
+            Cached current = cached.get();
+            if (current != null && current.usable(now)) {
+                return join(current.stats());
+            }
+            CompletableFuture<AdminDashboardStats> mine = new CompletableFuture<>();
+            if (cached.compareAndSet(current, new Cached(mine, now + cacheTtl.toNanos()))) {
+                try {
+                    compute().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((stats, error) -> {
+                        if (error != null) {
+                            mine.completeExceptionally(error);
+                        } else {
+                            mine.complete(stats);
+                        }
+                    });
+                } catch (RuntimeException ex) {
+                    // Completed here so callers sharing this computation fail too instead of waiting forever
+                    mine.completeExceptionally(ex);
+                }
+                return join(mine);
+            }
+        }
+    }
+
+    @Override
+    public StudentDashboard studentDashboard(String studentId) {
+        CompletableFuture<List<StudentFeeLine>> fees = submit(studentExecutor, () ->
+                studentFeeRepository.findByStudentId(studentId, StudentFeeLine.class));
+        CompletableFuture<List<PaymentLine>> payments = submit(studentExecutor, () ->
+                paymentRepository.findByStudentIdOrderByPaidAtDesc(studentId, PaymentLine.class));
+
+        List<StudentFeeLine> feeLines = join(fees);
+        BigDecimal assigned = BigDecimal.ZERO;
+        BigDecimal paid = BigDecimal.ZERO;
+        int pending = 0;
+        int partial = 0;
+        for (StudentFeeLine fee : feeLines) {
+            assigned = assigned.add(fee.getAmountAssigned() == null ? BigDecimal.ZERO : fee.getAmountAssigned());
+            paid = paid.add(fee.getAmountPaid() == null ? BigDecimal.ZERO : fee.getAmountPaid());
+            if (fee.getStatus() == StudentFee.Status.PENDING) {
+                pending++;
+            } else if (fee.getStatus() == StudentFee.Status.PARTIAL) {
+                partial++;
+            }
+        }
+        List<StudentFeeLine> nextDue = feeLines.stream()
+                .filter(fee -> fee.getDueDate() != null && fee.getStatus() != StudentFee.Status.PAID)
+                .sorted(Comparator.comparing(StudentFeeLine::getDueDate))
+                .limit(NEXT_DUE_LIMIT)
+                .toList();
+
+        return new StudentDashboard(studentId, assigned, paid, assigned.subtract(paid), pending, partial,
+                feeLines, nextDue, join(payments));
+    }
+
+    private CompletableFuture<AdminDashboardStats> compute() {
+        CompletableFuture<Long> students = submit(adminExecutor, () ->
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(Student.class)).estimatedDocumentCount());
+        CompletableFuture<Long> feePlans = submit(adminExecutor, () ->
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(FeePlan.class)).estimatedDocumentCount());
+        CompletableFuture<Map<String, Long>> byStatus = submit(adminExecutor, this::countByStatus);
+        CompletableFuture<BigDecimal> outstanding = submit(adminExecutor, this::outstanding);
+        CompletableFuture<List<StudentFee>> overdue = submit(adminExecutor, this::oldestOverdue);
+        CompletableFuture<Document> month = submit(adminExecutor, this::monthToDate);
+
+        return CompletableFuture.allOf(students, feePlans, byStatus, outstanding, overdue, month).thenApply(ignored -> {
+            Map<String, Long> counts = byStatus.join();
+            long totalAssignments = counts.values().stream().mapToLong(Long::longValue).sum();
+            Document payments = month.join();
+
+            return new AdminDashboardStats(students.join(), feePlans.join(), totalAssignments, counts,
+                    outstanding.join(),
+                    MongoValues.longValue(payments.get("count")),
+                    MongoValues.decimal(payments.get("amount")),
+                    overdue.join(), Instant.now());
+        });
+    }
+
+    // One COUNT_SCAN per status on status_due_date rather than a $group over every fee
+    private Map<String, Long> countByStatus() {
+        CountOptions options = new CountOptions().maxTime(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (StudentFee.Status status : StudentFee.Status.values()) {
+            byStatus.put(status.name(), mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                    .countDocuments(new Document(StudentFee.Fields.STATUS, status.name()), options));
+        }
+        return byStatus;
+    }
+
+    private BigDecimal outstanding() {
+        Document balance = new Document("$subtract", List.of(
+                new Document("$toDecimal", new Document("$ifNull", List.of("$" + StudentFee.Fields.AMOUNT_ASSIGNED, 0))),
+                new Document("$toDecimal", new Document("$ifNull", List.of("$" + StudentFee.Fields.AMOUNT_PAID, 0)))));
+        List<Document> pipeline = List.of(
+                new Document("$match", unpaid()),
+                new Document("$group", new Document("_id", null).append("amount", new Document("$sum", balance))));
+        Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .aggregate(pipeline).maxTime(timeout.toMillis(), TimeUnit.MILLISECONDS).first();
+        return result == null ? BigDecimal.ZERO : MongoValues.decimal(result.get("amount"));
+    }
+
+    private List<StudentFee> oldestOverdue() {
+        List<Document> pipeline = List.of(
+                new Document("$match", unpaid().append(StudentFee.Fields.DUE_DATE, new Document("$lt", new Date()))),
+                new Document("$sort", new Document(StudentFee.Fields.DUE_DATE, 1).append("_id", 1)),
+                new Document("$limit", overdueLimit),
+                new Document("$project", new Document(StudentFee.Fields.STUDENT_ID, 1)
+                        .append(StudentFee.Fields.FEE_PLAN_ID, 1)
+                        .append(StudentFee.Fields.PLAN_VERSION_ID, 1)
+                        .append(StudentFee.Fields.COURSE, 1)
+                        .append(StudentFee.Fields.ACADEMIC_YEAR, 1)
+                        .append(StudentFee.Fields.AMOUNT_ASSIGNED, 1)
+                        .append(StudentFee.Fields.AMOUNT_PAID, 1)
+                        .append(StudentFee.Fields.STATUS, 1)
+                        .append(StudentFee.Fields.ASSIGNED_AT, 1)
+                        .append(StudentFee.Fields.DUE_DATE, 1)));
+        List<StudentFee> overdue = new ArrayList<>();
+        for (Document fee : mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .aggregate(pipeline).maxTime(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            overdue.add(mongoTemplate.getConverter().read(StudentFee.class, fee));
+        }
+        return overdue;
+    }
+
+    private static Document unpaid() {
+        return new Document(StudentFee.Fields.STATUS, new Document("$in", StudentFee.UNPAID_STATUSES));
+    }
+
+    private Document monthToDate() {
+        Instant monthStart = LocalDate.now(zone).withDayOfMonth(1).atStartOfDay(zone).toInstant();
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document(Payment.Fields.PAID_AT, new Document("$gte", Date.from(monthStart)))),
+                new Document("$group", new Document("_id", null)
+                        .append("count", new Document("$sum", 1))
+                        .append("amount", new Document("$sum", new Document("$toDecimal", "$" + Payment.Fields.AMOUNT)))));
+        Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Payment.class))
+                .aggregate(pipeline).maxTime(timeout.toMillis(), TimeUnit.MILLISECONDS).first();
+        return result != null ? result : new Document();
+    }
+
+    private static <T> CompletableFuture<T> submit(ThreadPoolExecutor executor, Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, executor);
+        } catch (RejectedExecutionException ex) {
+            logger.warn("Dashboard queue is full ({} waiting)", executor.getQueue().size());
+            throw busy();
+        }
+    }
+
+    /**
+     * Waits up to the timeout without cancelling: an admin refresh is shared by every caller waiting on it, and
+     * its own {@code orTimeout} completes it for all of them.
+     */
+    private <T> T join(CompletableFuture<T> result) {
+        try {
+            return result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | CancellationException ex) {
+            throw busy();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException | CompletionException ex) {
+            Throwable cause = ex.getCause() instanceof CompletionException wrapped ? wrapped.getCause() : ex.getCause();
+            if (cause instanceof TimeoutException) {
+                throw busy();
+            }
+            logger.warn("Dashboard data could not be computed", cause);
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Dashboard data could not be computed", cause);
+        }
+    }
+
+    private static BackpressureException busy() {
+        return new BackpressureException(HttpStatus.SERVICE_UNAVAILABLE, "Dashboard is busy, try again shortly", 1);
+    }
+
+    // Pool size, active threads and queue depth of both pools
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(adminExecutor, "dashboard-admin", List.of()).bindTo(registry);
+        new ExecutorServiceMetrics(studentExecutor, "dashboard-student", List.of()).bindTo(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        adminExecutor.shutdownNow();
+        studentExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,18 @@
+package com.organization.service;
+
+import com.organization.entity.Payment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+
+public interface ExportService {
+
+    enum Format { NDJSON, CSV }
+
+    void exportPayments(Payment.Method method, Instant from, Instant to, Format format, OutputStream out) throws IOException;
+
+    void exportStudentFees(Format format, OutputStream out) throws IOException;
+
+    void exportStudents(Format format, OutputStream out) throws IOException;
+}
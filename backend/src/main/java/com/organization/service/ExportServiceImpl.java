@@ -0,0 +1,196 @@
+package com.organization.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.organization.entity.Payment;
+import com.organization.entity.Student;
+import com.organization.entity.StudentFee;
+import com.organization.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes collections straight from a Mongo cursor to the response stream, one document at a time,
+ * so memory use stays flat regardless of collection size.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private static final List<Column<Payment>> PAYMENT_COLUMNS = List.of(
+            new Column<>("id", Payment::getId),
+            new Column<>("studentFeeId", Payment::getStudentFeeId),
+            new Column<>("studentId", Payment::getStudentId),
+            new Column<>("payerUserId", Payment::getPayerUserId),
+            new Column<>("method", Payment::getMethod),
+            new Column<>("amount", Payment::getAmount),
+            new Column<>("paidAt", Payment::getPaidAt),
+            new Column<>("referenceNo", Payment::getReferenceNo),
+            new Column<>("notes", Payment::getNotes));
+
+    private static final List<Column<StudentFee>> STUDENT_FEE_COLUMNS = List.of(
+            new Column<>("id", StudentFee::getId),
+            new Column<>("studentId", StudentFee::getStudentId),
+            new Column<>("feePlanId", StudentFee::getFeePlanId),
+            new Column<>("course", StudentFee::getCourse),
+            new Column<>("academicYear", StudentFee::getAcademicYear),
+            new Column<>("amountAssigned", StudentFee::getAmountAssigned),
+            new Column<>("amountPaid", StudentFee::getAmountPaid),
+            new Column<>("status", StudentFee::getStatus),
+            new Column<>("assignedAt", StudentFee::getAssignedAt),
+            new Column<>("dueDate", StudentFee::getDueDate));
+
+    private static final List<Column<Student>> STUDENT_COLUMNS = List.of(
+            new Column<>("id", Student::getId),
+            new Column<>("firstName", Student::getFirstName),
+            new Column<>("lastName", Student::getLastName),
+            new Column<>("email", Student::getEmail),
+            new Column<>("course", Student::getCourse),
+            new Column<>("academicYear", Student::getAcademicYear),
+            new Column<>("degreeType", Student::getDegreeType),
+            new Column<>("degreeDurationYears", Student::getDegreeDurationYears));
+
+    private final MongoTemplate mongoTemplate;
+    private final PaymentRepository paymentRepository;
+    private final ObjectWriter ndjsonWriter;
+    private final int cursorBatchSize;
+
+    public ExportServiceImpl(MongoTemplate mongoTemplate,
+                             PaymentRepository paymentRepository,
+                             ObjectMapper objectMapper,
+                             @Value("${app.export.cursor-batch-size:500}") int cursorBatchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.paymentRepository = paymentRepository;
+        this.ndjsonWriter = objectMapper.writer().withRootValueSeparator("\n");
+        this.cursorBatchSize = cursorBatchSize;
+    }
+
+    @Override
+    public void exportPayments(Payment.Method method, Instant from, Instant to, Format format, OutputStream out) throws IOException {
+        try (Stream<Payment> payments = paymentRepository.streamByFilter(method, from, to)) {
+            write(payments, PAYMENT_COLUMNS, format, out, "payments");
+        }
+    }
+
+    @Override
+    public void exportStudentFees(Format format, OutputStream out) throws IOException {
+        try (Stream<StudentFee> fees = streamAll(StudentFee.class)) {
+            write(fees, STUDENT_FEE_COLUMNS, format, out, "student fees");
+        }
+    }
+
+    @Override
+    public void exportStudents(Format format, OutputStream out) throws IOException {
+        try (Stream<Student> students = streamAll(Student.class)) {
+            write(students, STUDENT_COLUMNS, format, out, "students");
+        }
+    }
+
+    private <T> Stream<T> streamAll(Class<T> type) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(cursorBatchSize);
+        return mongoTemplate.stream(query, type);
+    }
+
+    private <T> void write(Stream<T> items, List<Column<T>> columns, Format format, OutputStream out, String label) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        long count = format == Format.CSV
+                ? writeCsv(items.iterator(), columns, writer)
+                : writeNdjson(items.iterator(), writer);
+        writer.flush();
+        logger.info("Exported {} {} as {}", count, label, format);
+    }
+
+    private <T> long writeNdjson(Iterator<T> items, Writer writer) throws IOException {
+        long count = 0;
+        // The sequence writer must not close the underlying response stream
+        SequenceWriter sequence = ndjsonWriter.writeValues(new NonClosingWriter(writer));
+        while (items.hasNext()) {
+            sequence.write(items.next());
+            count++;
+        }
+        sequence.close();
+        if (count > 0) {
+            writer.write('\n');
+        }
+        return count;
+    }
+
+    private <T> long writeCsv(Iterator<T> items, List<Column<T>> columns, Writer writer) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i).header());
+        }
+        writer.write("\r\n");
+
+        long count = 0;
+        while (items.hasNext()) {
+            T item = items.next();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(writer, columns.get(i).extractor().apply(item));
+            }
+            writer.write("\r\n");
+            count++;
+        }
+        return count;
+    }
+
+    private static void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean needsQuoting = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (!needsQuoting) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private record Column<T>(String header, Function<T, Object> extractor) {
+    }
+
+    private static final class NonClosingWriter extends FilterWriter {
+
+        private NonClosingWriter(Writer delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
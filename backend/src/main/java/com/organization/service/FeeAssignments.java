@@ -0,0 +1,95 @@
+package com.organization.service;
+
+import com.organization.entity.FeePlan;
+import com.organization.entity.FeePlanVersion;
+import com.organization.entity.Student;
+import com.organization.entity.StudentFee;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Eligibility rules and document construction shared by single and cohort fee assignment. Rule violations
+ * are reported as {@link IllegalStateException} with a message suitable for the client.
+ */
+final class FeeAssignments {
+
+    private FeeAssignments() {
+    }
+
+    record PlanYears(int start, int end) {
+    }
+
+    static PlanYears planYears(FeePlan plan) {
+        String[] planYears = plan.getAcademicYear().split("-");
+        if (planYears.length != 2) {
+            throw new IllegalStateException("Fee plan academic year is invalid");
+        }
+        try {
+            return new PlanYears(Integer.parseInt(planYears[0].trim()), Integer.parseInt(planYears[1].trim()));
+        } catch (NumberFormatException ex) {
+            throw new IllegalStateException("Fee plan academic year is invalid");
+        }
+    }
+
+    /**
+     * The student's enrollment in the plan's course whose duration covers the plan's academic year.
+     */
+    static Student.CourseEnrollment matchingEnrollment(Student student, FeePlan plan, PlanYears years) {
+        List<Student.CourseEnrollment> courses = student.getEffectiveCourses();
+
+        boolean courseMatches = courses.stream()
+                .map(Student.CourseEnrollment::getCourseName)
+                .filter(Objects::nonNull)
+                .anyMatch(name -> name.equalsIgnoreCase(plan.getCourse()));
+
+        if (!courseMatches) {
+            String studentCourses = courses.stream()
+                    .map(Student.CourseEnrollment::getCourseName)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .collect(Collectors.joining(", "));
+            throw new IllegalStateException(
+                    "Fee plan course must match one of the student's enrolled courses. Student courses: "
+                            + (studentCourses.isEmpty() ? "None" : studentCourses));
+        }
+
+        return courses.stream()
+                .filter(courseEnrollment ->
+                        courseEnrollment.getStartYear() != null &&
+                                courseEnrollment.getEndYear() != null &&
+                                years.start() >= courseEnrollment.getStartYear() &&
+                                years.end() <= courseEnrollment.getEndYear())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Fee plan academic year must fall within the student's course duration"));
+    }
+
+    /**
+     * The amounts come from {@code version}; they are set on the returned fee for the response but only the
+     * version id is stored.
+     */
+    static StudentFee newStudentFee(String studentId, FeePlanVersion version, Student.CourseEnrollment course,
+                                    Instant dueDate) {
+        StudentFee sf = new StudentFee();
+        sf.setStudentId(studentId);
+        sf.setFeePlanId(version.getFeePlanId());
+        sf.setPlanVersionId(version.getId());
+        sf.setCourse(course.getCourseName());
+        sf.setAcademicYear(version.getAcademicYear());
+        sf.setTuition(version.getTuition());
+        sf.setHostel(version.getHostel());
+        sf.setLibrary(version.getLibrary());
+        sf.setLab(version.getLab());
+        sf.setSports(version.getSports());
+        sf.setAmountAssigned(version.getTotal());
+        sf.setAmountPaid(BigDecimal.ZERO);
+        sf.setStatus(StudentFee.Status.PENDING);
+        sf.setAssignedAt(Instant.now());
+        sf.setDueDate(dueDate);
+        sf.setOverdue(dueDate != null && dueDate.isBefore(Instant.now()));
+        return sf;
+    }
+}
@@ -1,6 +1,9 @@
 package com.organization.service;
 
+import com.organization.dto.CursorPage;
+import com.organization.dto.RepriceResult;
 import com.organization.entity.FeePlan;
+import com.organization.entity.FeePlanVersion;
 
 import java.util.List;
 
@@ -8,7 +11,14 @@ public interface FeePlanService {
     FeePlan create(FeePlan feePlan);
     List<FeePlan> list();
     List<FeePlan> list(String course, String academicYear);
+    CursorPage<FeePlan> page(String course, String academicYear, String cursor, int size);
     FeePlan get(String id);
     FeePlan update(String id, FeePlan feePlan);
+    /**
+     * Pushes the plan's current component amounts to every fee assigned from it that is not yet paid.
+     * With {@code dryRun} nothing is written and only the affected count and amount delta are returned.
+     */
+    RepriceResult reprice(String id, boolean dryRun);
+    List<FeePlanVersion> versions(String id);
     void delete(String id);
 }
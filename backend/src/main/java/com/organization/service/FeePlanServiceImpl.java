@@ -1,23 +1,46 @@
 package com.organization.service;
 
+import com.organization.dto.CursorPage;
+import com.organization.dto.RepriceResult;
 import com.organization.entity.FeePlan;
+import com.organization.entity.FeePlanVersion;
 import com.organization.repository.FeePlanRepository;
+import com.organization.repository.StudentFeeRepository;
+import com.organization.repository.StudentFeeRepositoryCustom.RepriceDelta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class FeePlanServiceImpl implements FeePlanService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FeePlanServiceImpl.class);
+
     private final FeePlanRepository repo;
+    private final StudentFeeRepository studentFeeRepository;
+    private final StudentBalanceService studentBalanceService;
+    private final FeePlanVersionService feePlanVersionService;
 
-    public FeePlanServiceImpl(FeePlanRepository repo) {
+    public FeePlanServiceImpl(FeePlanRepository repo,
+                              StudentFeeRepository studentFeeRepository,
+                              StudentBalanceService studentBalanceService,
+                              FeePlanVersionService feePlanVersionService) {
         this.repo = repo;
+        this.studentFeeRepository = studentFeeRepository;
+        this.studentBalanceService = studentBalanceService;
+        this.feePlanVersionService = feePlanVersionService;
     }
 
     @Override
     public FeePlan create(FeePlan feePlan) {
-        return repo.save(feePlan);
+        FeePlan saved = repo.save(feePlan);
+        feePlanVersionService.snapshot(saved);
+        return saved;
     }
 
     @Override
@@ -38,6 +61,11 @@ public class FeePlanServiceImpl implements FeePlanService {
         }
     }
 
+    @Override
+    public CursorPage<FeePlan> page(String course, String academicYear, String cursor, int size) {
+        return repo.findPage(course, academicYear, cursor, size);
+    }
+
     @Override
     public FeePlan get(String id) {
         return repo.findById(id).orElseThrow();
@@ -46,7 +74,46 @@ public class FeePlanServiceImpl implements FeePlanService {
     @Override
     public FeePlan update(String id, FeePlan feePlan) {
         feePlan.setId(id);
-        return repo.save(feePlan);
+        FeePlan saved = repo.save(feePlan);
+        feePlanVersionService.snapshot(saved);
+        return saved;
+    }
+
+    /**
+     * The per-student deltas are aggregated before the update so the stored balances can follow it; a fee paid
+     * off in between is counted but not repriced, which the balance rebuild corrects.
+     */
+    @Override
+    public RepriceResult reprice(String id, boolean dryRun) {
+        FeePlan plan = repo.findById(id).orElseThrow();
+        Map<String, RepriceDelta> deltas = studentFeeRepository.repriceDeltas(plan);
+        long affected = 0;
+        BigDecimal total = BigDecimal.ZERO;
+        Map<String, BigDecimal> byStudent = new HashMap<>();
+        for (Map.Entry<String, RepriceDelta> entry : deltas.entrySet()) {
+            affected += entry.getValue().fees();
+            total = total.add(entry.getValue().amount());
+            if (entry.getValue().amount().signum() != 0) {
+                byStudent.put(entry.getKey(), entry.getValue().amount());
+            }
+        }
+        if (dryRun || affected == 0) {
+            return new RepriceResult(id, dryRun, affected, 0, total);
+        }
+
+        long updated = studentFeeRepository.reprice(plan, feePlanVersionService.snapshot(plan).getId());
+        try {
+            studentBalanceService.assignedIncreased(byStudent);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not update balances after repricing fee plan {}", id, ex);
+        }
+        logger.info("Repriced {} of {} unpaid fees of plan {} by {}", updated, affected, id, total);
+        return new RepriceResult(id, false, affected, updated, total);
+    }
+
+    @Override
+    public List<FeePlanVersion> versions(String id) {
+        return feePlanVersionService.history(id);
     }
 
     @Override
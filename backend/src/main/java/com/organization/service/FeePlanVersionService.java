@@ -0,0 +1,27 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+import com.organization.entity.FeePlan;
+import com.organization.entity.FeePlanVersion;
+
+import java.util.List;
+
+public interface FeePlanVersionService {
+
+    /**
+     * The version holding the plan's current amounts, written first if no version of the plan has them.
+     */
+    FeePlanVersion snapshot(FeePlan plan);
+
+    /**
+     * Resolves a version from the in-process cache, loading it on a miss; null if it does not exist.
+     */
+    FeePlanVersion get(String id);
+
+    List<FeePlanVersion> history(String feePlanId);
+
+    /**
+     * Starts a job that moves the copied plan amounts of every unversioned fee onto a plan version.
+     */
+    JobProgress migrate();
+}
@@ -0,0 +1,155 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+import com.organization.entity.FeePlan;
+import com.organization.entity.FeePlanVersion;
+import com.organization.entity.StudentFee;
+import com.organization.repository.FeePlanRepository;
+import com.organization.repository.FeePlanVersionRepository;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versions are immutable, so they are cached by id for the life of the process without invalidation; a few
+ * hundred plans with a handful of versions each keeps the cache small. The latest version of each plan is
+ * cached separately and only trusted while its amounts still match the plan being assigned.
+ */
+@Service
+public class FeePlanVersionServiceImpl implements FeePlanVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeePlanVersionServiceImpl.class);
+
+    static final String JOB_TYPE = "fee-plan-version-migration";
+
+    /**
+     * Names of the amounts copied onto fees assigned before versioning; they are never written again.
+     */
+    static final List<String> COMPONENTS = List.of("tuition", "hostel", "library", "lab", "sports");
+
+    private final MongoTemplate mongoTemplate;
+    private final FeePlanVersionRepository versionRepository;
+    private final FeePlanRepository feePlanRepository;
+    private final JobService jobService;
+
+    private final Map<String, FeePlanVersion> byId = new ConcurrentHashMap<>();
+    private final Map<String, FeePlanVersion> latestByPlan = new ConcurrentHashMap<>();
+
+    public FeePlanVersionServiceImpl(MongoTemplate mongoTemplate,
+                                     FeePlanVersionRepository versionRepository,
+                                     FeePlanRepository feePlanRepository,
+                                     JobService jobService) {
+        this.mongoTemplate = mongoTemplate;
+        this.versionRepository = versionRepository;
+        this.feePlanRepository = feePlanRepository;
+        this.jobService = jobService;
+    }
+
+    @Override
+    public FeePlanVersion snapshot(FeePlan plan) {
+        FeePlanVersion latest = latestByPlan.get(plan.getId());
+        if (latest != null && latest.sameAmounts(plan)) {
+            return latest;
+        }
+        while (true) {
+            List<FeePlanVersion> versions = versionRepository.findByFeePlanIdOrderByVersionDesc(plan.getId());
+            for (FeePlanVersion version : versions) {
+                if (version.sameAmounts(plan)) {
+                    return remember(version);
+                }
+            }
+            int next = versions.isEmpty() ? 1 : versions.get(0).getVersion() + 1;
+            try {
+                FeePlanVersion created = versionRepository.insert(new FeePlanVersion(plan, next));
+                logger.info("Created version {} of fee plan {}", next, plan.getId());
+                return remember(created);
+            } catch (DuplicateKeyException ex) {
+                // Another request wrote this version number first; it may hold the same amounts
+            }
+        }
+    }
+
+    private FeePlanVersion remember(FeePlanVersion version) {
+        byId.put(version.getId(), version);
+        latestByPlan.merge(version.getFeePlanId(), version,
+                (current, candidate) -> candidate.getVersion() >= current.getVersion() ? candidate : current);
+        return version;
+    }
+
+    @Override
+    public FeePlanVersion get(String id) {
+        FeePlanVersion cached = byId.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        return versionRepository.findById(id).map(this::remember).orElse(null);
+    }
+
+    @Override
+    public List<FeePlanVersion> history(String feePlanId) {
+        return versionRepository.findByFeePlanIdOrderByVersionDesc(feePlanId);
+    }
+
+    @Override
+    public JobProgress migrate() {
+        return jobService.start(JOB_TYPE, this::migrate);
+    }
+
+    /**
+     * Groups unversioned fees by plan and copied amounts on the server, writes (or finds) one version per group
+     * and then points the whole group at it with a single {@code updateMany} that also drops the copies.
+     * Fees copied before a plan was edited keep their own amounts as an older version.
+     */
+    private void migrate(JobProgress progress) {
+        Document unversioned = new Document(StudentFee.Fields.PLAN_VERSION_ID, new Document("$exists", false));
+        Document key = new Document("feePlanId", "$" + StudentFee.Fields.FEE_PLAN_ID);
+        COMPONENTS.forEach(component -> key.append(component, "$" + component));
+        List<Document> groups = new ArrayList<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class)).aggregate(List.of(
+                        new Document("$match", unversioned),
+                        new Document("$group", new Document("_id", key)
+                                .append("academicYear", new Document("$first", "$" + StudentFee.Fields.ACADEMIC_YEAR))
+                                .append("course", new Document("$first", "$" + StudentFee.Fields.COURSE)))))
+                .allowDiskUse(true)
+                .into(groups);
+        progress.setTotalUnits(groups.size());
+
+        for (Document group : groups) {
+            if (progress.isCancelRequested()) {
+                return;
+            }
+            Document amounts = group.get("_id", Document.class);
+            String feePlanId = amounts.getString("feePlanId");
+            FeePlan current = feePlanId == null ? null : feePlanRepository.findById(feePlanId).orElse(null);
+            FeePlan copied = new FeePlan(feePlanId,
+                    current != null ? current.getCourse() : group.getString("course"),
+                    current != null ? current.getAcademicYear() : group.getString("academicYear"),
+                    MongoValues.decimal(amounts.get("tuition")), MongoValues.decimal(amounts.get("hostel")),
+                    MongoValues.decimal(amounts.get("library")), MongoValues.decimal(amounts.get("lab")),
+                    MongoValues.decimal(amounts.get("sports")));
+            FeePlanVersion version = snapshot(copied);
+
+            // Match the stored values exactly as grouped, whatever their BSON type
+            Document filter = new Document(unversioned).append(StudentFee.Fields.FEE_PLAN_ID, feePlanId);
+            COMPONENTS.forEach(component -> filter.append(component, amounts.get(component)));
+            Document unset = new Document();
+            COMPONENTS.forEach(component -> unset.append(component, ""));
+            long migrated = mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                    .updateMany(filter, new Document("$set", new Document(StudentFee.Fields.PLAN_VERSION_ID, version.getId()))
+                            .append("$unset", unset))
+                    .getModifiedCount();
+            progress.increment("feesMigrated", migrated);
+            progress.completeUnit();
+        }
+        progress.increment("versions", versionRepository.count());
+        logger.info("Fee plan version migration finished: {}", progress.getCounters());
+    }
+}
@@ -0,0 +1,28 @@
+package com.organization.service;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+public interface IdempotencyService {
+
+    /**
+     * Runs {@code action} once per key and returns its JSON response; later calls with the same key get the
+     * stored bytes back without running the action again.
+     * <p>
+     * The action is given the id to use for what it creates. If an earlier attempt claimed the key and died before
+     * storing its response, the claim lapses after the lease; the next attempt calls {@code recover} with the same
+     * id and stores what it finds, or runs the action again if the earlier attempt created nothing.
+     *
+     * @param fingerprint summary of the request parameters, used to reject a key reused for a different request
+     */
+    Result execute(String key, String fingerprint, Function<String, ?> action, Function<String, Optional<?>> recover);
+
+    /**
+     * Creates the TTL index that expires records after the configured retention, or changes the expiry of an
+     * existing one.
+     */
+    void ensureIndex();
+
+    record Result(String body, boolean replayed) {
+    }
+}
@@ -0,0 +1,321 @@
+package com.organization.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.organization.entity.IdempotencyRecord;
+import com.organization.exception.StudentApiException;
+import com.organization.repository.IdempotencyRecordRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+
+    static final String TTL_INDEX = "created_at_ttl";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long STORE_POLL_MILLIS = 50;
+
+    private final IdempotencyRecordRepository repository;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+    private final Duration retention;
+    private final Duration lease;
+
+    // Completed responses served without touching Mongo; access-ordered so the least recently used entry is evicted
+    private final Map<String, StoredResponse> recent;
+
+    // Requests currently executing in this instance; concurrent duplicates wait on the same future
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository repository,
+                                  MongoTemplate mongoTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.idempotency.cache-size:10000}") int cacheSize,
+                                  @Value("${app.idempotency.wait-timeout:5s}") Duration waitTimeout,
+                                  @Value("${app.idempotency.retention:24h}") Duration retention,
+                                  @Value("${app.idempotency.lease:1m}") Duration lease) {
+        this.repository = repository;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+        this.retention = retention;
+        this.lease = lease;
+        this.recent = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public Result execute(String key, String fingerprint, Function<String, ?> action, Function<String, Optional<?>> recover) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new StudentApiException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        StoredResponse cached = cached(key);
+        if (cached != null) {
+            return replay(cached, fingerprint);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            logger.debug("Waiting on in-flight request for Idempotency-Key {}", key);
+            return replay(await(running), fingerprint);
+        }
+
+        try {
+            Claim claim = claim(key, fingerprint);
+            if (claim.stored() != null) {
+                // Claimed earlier or by another instance; serve the response that request stored
+                mine.complete(claim.stored());
+                return replay(claim.stored(), fingerprint);
+            }
+            if (claim.takenOver()) {
+                StoredResponse recovered = recover(key, fingerprint, claim.resourceId(), recover);
+                if (recovered != null) {
+                    mine.complete(recovered);
+                    return replay(recovered, fingerprint);
+                }
+            }
+            StoredResponse response = run(key, fingerprint, claim.resourceId(), action);
+            mine.complete(response);
+            return new Result(response.body(), false);
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Override
+    public void ensureIndex() {
+        Index ttl = new Index().on("createdAt", Sort.Direction.ASC).named(TTL_INDEX).expire(retention);
+        try {
+            mongoTemplate.indexOps(IdempotencyRecord.class).ensureIndex(ttl);
+        } catch (RuntimeException ex) {
+            // The index exists with the expiry of an earlier retention setting; change it in place
+            try {
+                mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(IdempotencyRecord.class))
+                        .append("index", new Document("name", TTL_INDEX)
+                                .append("expireAfterSeconds", retention.toSeconds())));
+                logger.info("Changed the expiry of {} to {}", TTL_INDEX, retention);
+            } catch (RuntimeException collModEx) {
+                logger.warn("Could not create the {} index; idempotency keys will not expire", TTL_INDEX, ex);
+            }
+        }
+    }
+
+    /**
+     * Inserts the in-progress marker, or takes over a marker whose lease ran out. Otherwise waits for the response
+     * stored under the key.
+     */
+    private Claim claim(String key, String fingerprint) {
+        String resourceId = new ObjectId().toHexString();
+        Instant now = Instant.now();
+        try {
+            repository.insert(new IdempotencyRecord(key, fingerprint, IdempotencyRecord.Status.IN_PROGRESS, null,
+                    resourceId, now.plus(lease), now));
+            return new Claim(resourceId, false, null);
+        } catch (DuplicateKeyException ex) {
+            return awaitStored(key);
+        }
+    }
+
+    /**
+     * The earlier attempt may have created its resource and died before storing the response. Store what it
+     * created as the response; if it created nothing, the action runs again under the same resource id.
+     */
+    private StoredResponse recover(String key, String fingerprint, String resourceId, Function<String, Optional<?>> recover) {
+        Optional<?> created = recover.apply(resourceId);
+        if (created.isEmpty()) {
+            logger.info("Idempotency-Key {} was abandoned before anything was created; running it again", key);
+            return null;
+        }
+        logger.info("Idempotency-Key {} was abandoned after creating {}; storing it as the response", key, resourceId);
+        return complete(key, fingerprint, resourceId, serialize(key, created.get()));
+    }
+
+    private StoredResponse run(String key, String fingerprint, String resourceId, Function<String, ?> action) {
+        String body;
+        try {
+            body = serialize(key, action.apply(resourceId));
+        } catch (RuntimeException ex) {
+            // Release the key so the client can retry a request that did not go through
+            repository.deleteById(key);
+            throw ex;
+        }
+        return complete(key, fingerprint, resourceId, body);
+    }
+
+    private String serialize(String key, Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize the response for Idempotency-Key " + key, ex);
+        }
+    }
+
+    /**
+     * The action already took effect, so a failure to store its response must not fail the request; the record
+     * stays in progress and the next attempt after the lease recovers the response from the created resource.
+     */
+    private StoredResponse complete(String key, String fingerprint, String resourceId, String body) {
+        Instant now = Instant.now();
+        try {
+            repository.save(new IdempotencyRecord(key, fingerprint, IdempotencyRecord.Status.COMPLETED, body,
+                    resourceId, null, now));
+        } catch (RuntimeException ex) {
+            logger.warn("Could not store the response for Idempotency-Key {}; it will be recovered after the lease", key, ex);
+        }
+        StoredResponse response = new StoredResponse(fingerprint, body, now);
+        remember(key, response);
+        return response;
+    }
+
+    private Claim awaitStored(String key) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            IdempotencyRecord record = repository.findById(key).orElse(null);
+            if (record == null) {
+                throw new StudentApiException(HttpStatus.CONFLICT,
+                        "The original request for this Idempotency-Key failed; retry the request");
+            }
+            if (record.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                StoredResponse response = new StoredResponse(record.getFingerprint(), record.getResponse(), record.getCreatedAt());
+                remember(key, response);
+                return new Claim(record.getResourceId(), false, response);
+            }
+            Claim takenOver = takeOverExpired(record);
+            if (takenOver != null) {
+                return takenOver;
+            }
+            if (System.nanoTime() > deadline) {
+                throw inProgress();
+            }
+            try {
+                Thread.sleep(STORE_POLL_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw inProgress();
+            }
+        }
+    }
+
+    /**
+     * Renews the lease of an in-progress record whose lease ran out. Only one of several waiting instances wins;
+     * the others keep waiting for the winner's response.
+     */
+    private Claim takeOverExpired(IdempotencyRecord record) {
+        Instant now = Instant.now();
+        // Records from before leases were stored never got one; they are taken over once past the wait timeout
+        Instant expiresAt = record.getLeaseExpiresAt() != null ? record.getLeaseExpiresAt() : record.getCreatedAt().plus(lease);
+        if (expiresAt.isAfter(now)) {
+            return null;
+        }
+        Criteria leaseCriteria = record.getLeaseExpiresAt() != null
+                ? Criteria.where("leaseExpiresAt").is(record.getLeaseExpiresAt())
+                : Criteria.where("leaseExpiresAt").exists(false);
+        Query query = new Query(Criteria.where("_id").is(record.getKey())
+                .and("status").is(IdempotencyRecord.Status.IN_PROGRESS)
+                .andOperator(leaseCriteria));
+        String resourceId = record.getResourceId() != null ? record.getResourceId() : new ObjectId().toHexString();
+        Update update = new Update().set("leaseExpiresAt", now.plus(lease)).set("resourceId", resourceId);
+        IdempotencyRecord renewed = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), IdempotencyRecord.class);
+        if (renewed == null) {
+            return null;
+        }
+        logger.warn("Taking over Idempotency-Key {}; its lease expired at {}", record.getKey(), expiresAt);
+        return new Claim(renewed.getResourceId(), true, null);
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw inProgress();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private Result replay(StoredResponse response, String fingerprint) {
+        if (!response.fingerprint().equals(fingerprint)) {
+            throw new StudentApiException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        return new Result(response.body(), true);
+    }
+
+    private StoredResponse cached(String key) {
+        synchronized (recent) {
+            StoredResponse response = recent.get(key);
+            if (response != null && response.createdAt().plus(retention).isBefore(Instant.now())) {
+                recent.remove(key);
+                return null;
+            }
+            return response;
+        }
+    }
+
+    private void remember(String key, StoredResponse response) {
+        synchronized (recent) {
+            recent.put(key, response);
+        }
+    }
+
+    private static StudentApiException inProgress() {
+        return new StudentApiException(HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still in progress");
+    }
+
+    /**
+     * Outcome of claiming a key: either a stored response to replay, or the resource id to create under, taken
+     * over from an abandoned attempt when {@code takenOver}.
+     */
+    private record Claim(String resourceId, boolean takenOver, StoredResponse stored) {
+    }
+
+    private record StoredResponse(String fingerprint, String body, Instant createdAt) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.organization.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface IndexService {
+
+    /**
+     * Creates every index the mapped entities declare, plus the partial overdue index and the
+     * idempotency TTL index, where it is missing.
+     */
+    void ensureIndexes();
+
+    /**
+     * Per collection: the indexes that exist, their size and usage since the server started, the query shapes
+     * each one serves, and declared indexes that are missing.
+     */
+    List<Map<String, Object>> report();
+}
@@ -0,0 +1,229 @@
+package com.organization.service;
+
+import com.organization.entity.FeePlan;
+import com.organization.entity.FeePlanVersion;
+import com.organization.entity.IdempotencyRecord;
+import com.organization.entity.Payment;
+import com.organization.entity.Student;
+import com.organization.entity.StudentBalance;
+import com.organization.entity.StudentFee;
+import com.organization.entity.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation-driven index creation is off, so this creates the indexes the mapped entities declare once the
+ * application is ready, skipping those that already exist by name. Each query shape the repositories and services
+ * run is listed below with the index that serves it; the report joins that list with {@code $indexStats} so
+ * indexes that are never used, or that nothing declares, stand out next to their size.
+ */
+@Service
+public class IndexServiceImpl implements IndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexServiceImpl.class);
+
+    private static final String ID_INDEX = "_id_";
+
+    private record QueryShape(Class<?> entity, String index, String query) {
+    }
+
+    private static final List<QueryShape> QUERY_SHAPES = List.of(
+            new QueryShape(Payment.class, "sf", "findByStudentFeeId"),
+            new QueryShape(Payment.class, "student_paid_at", "findByStudentId, findByStudentIdOrderByPaidAtDesc"),
+            new QueryShape(Payment.class, "paid_at_id", "findByPaidAtBetween, keyset page by paidAt"),
+            new QueryShape(Payment.class, "method_paid_at_id", "findByMethod, findByMethodAndPaidAtBetween, keyset page by method"),
+            // The unique pair already pins at most one fee, so academicYear is checked on that single document
+            new QueryShape(StudentFee.class, "student_fee_unique",
+                    "findByStudentId, existsByStudentIdAndFeePlanIdAndAcademicYear, overdue count per student"),
+            new QueryShape(StudentFee.class, "fp", "fee plan reprice and version migration"),
+            new QueryShape(StudentFee.class, "assigned_at_id", "keyset page by assignedAt"),
+            new QueryShape(StudentFee.class, "status_due_date", "admin dashboard status counts and outstanding total"),
+            new QueryShape(StudentFee.class, OverdueScanServiceImpl.INDEX_NAME,
+                    "overdue scan, overdue page and admin dashboard overdue list"),
+            new QueryShape(Student.class, "email", "existsByEmail"),
+            new QueryShape(Student.class, "course_enrollment", "cohort and enrollment search"),
+            new QueryShape(User.class, "username", "findByUsername, existsByUsername, findByUsernameOrEmail"),
+            new QueryShape(User.class, "email", "findByEmail, existsByEmail, findByUsernameOrEmail"),
+            new QueryShape(FeePlan.class, "course_year_unique", "fee plan lookup by course and academic year"),
+            new QueryShape(FeePlanVersion.class, "plan_version_unique", "version history of a plan"),
+            new QueryShape(StudentBalance.class, "balance_id", "balance range page"),
+            new QueryShape(IdempotencyRecord.class, IdempotencyServiceImpl.TTL_INDEX, "expiry of idempotency keys"));
+
+    private final MongoTemplate mongoTemplate;
+    private final OverdueScanService overdueScanService;
+    private final IdempotencyService idempotencyService;
+    private final boolean enabled;
+
+    public IndexServiceImpl(MongoTemplate mongoTemplate,
+                            OverdueScanService overdueScanService,
+                            IdempotencyService idempotencyService,
+                            @Value("${app.indexes.ensure-on-startup:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.overdueScanService = overdueScanService;
+        this.idempotencyService = idempotencyService;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void ensureOnStartup() {
+        if (enabled) {
+            ensureIndexes();
+        }
+    }
+
+    @Override
+    public void ensureIndexes() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        for (MongoPersistentEntity<?> entity : documentEntities()) {
+            Set<String> existing = existingIndexNames(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getTypeInformation())) {
+                String name = index.getIndexOptions().getString("name");
+                if (existing.contains(name)) {
+                    continue;
+                }
+                try {
+                    mongoTemplate.indexOps(entity.getType()).ensureIndex(index);
+                    logger.info("Created index {} on {}", name, entity.getCollection());
+                } catch (RuntimeException ex) {
+                    // Usually an index with the same keys under another name or options; the report shows both
+                    logger.warn("Could not create index {} on {}", name, entity.getCollection(), ex);
+                }
+            }
+        }
+        overdueScanService.ensureIndex();
+        idempotencyService.ensureIndex();
+    }
+
+    @Override
+    public List<Map<String, Object>> report() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        List<Map<String, Object>> collections = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : documentEntities()) {
+            String collection = entity.getCollection();
+            Set<String> declared = new LinkedHashSet<>();
+            resolver.resolveIndexFor(entity.getTypeInformation())
+                    .forEach(index -> declared.add(index.getIndexOptions().getString("name")));
+            if (entity.getType() == StudentFee.class) {
+                declared.add(OverdueScanServiceImpl.INDEX_NAME);
+            }
+            if (entity.getType() == IdempotencyRecord.class) {
+                declared.add(IdempotencyServiceImpl.TTL_INDEX);
+            }
+            Map<String, List<String>> queries = new LinkedHashMap<>();
+            for (QueryShape shape : QUERY_SHAPES) {
+                if (shape.entity() == entity.getType()) {
+                    queries.computeIfAbsent(shape.index(), ignored -> new ArrayList<>()).add(shape.query());
+                }
+            }
+
+            Document stats = collectionStats(collection);
+            Document sizes = stats.get("indexSizes", Document.class);
+            List<Map<String, Object>> indexes = new ArrayList<>();
+            Set<String> present = new LinkedHashSet<>();
+            for (Document usage : mongoTemplate.getCollection(collection)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))) {
+                String name = usage.getString("name");
+                present.add(name);
+                Document accesses = usage.get("accesses", Document.class);
+                Document spec = usage.get("spec", Document.class);
+                long ops = accesses == null ? 0 : MongoValues.longValue(accesses.get("ops"));
+                boolean unique = spec != null && Boolean.TRUE.equals(spec.getBoolean("unique"));
+                // The TTL monitor's deletes are not counted as accesses
+                boolean ttl = spec != null && spec.containsKey("expireAfterSeconds");
+
+                List<String> flags = new ArrayList<>();
+                if (!ID_INDEX.equals(name)) {
+                    if (ops == 0 && !ttl) {
+                        // A unique index still enforces its constraint on every write even if no query uses it
+                        flags.add(unique ? "UNUSED_BY_QUERIES" : "UNUSED");
+                    }
+                    if (!declared.contains(name)) {
+                        flags.add("UNDECLARED");
+                    }
+                }
+                Map<String, Object> index = new LinkedHashMap<>();
+                index.put("name", name);
+                index.put("key", usage.get("key"));
+                index.put("unique", unique);
+                index.put("sizeBytes", sizes == null ? 0 : MongoValues.longValue(sizes.get(name)));
+                index.put("ops", ops);
+                index.put("since", accesses == null ? null : accesses.get("since"));
+                index.put("queries", queries.getOrDefault(name, List.of()));
+                index.put("flags", flags);
+                indexes.add(index);
+            }
+
+            List<String> missing = new ArrayList<>();
+            for (String name : declared) {
+                if (!present.contains(name)) {
+                    missing.add(name);
+                }
+            }
+            long dataSize = MongoValues.longValue(stats.get("size"));
+            long indexSize = MongoValues.longValue(stats.get("totalIndexSize"));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("collection", collection);
+            report.put("documents", stats.get("count"));
+            report.put("dataSizeBytes", dataSize);
+            report.put("totalIndexSizeBytes", indexSize);
+            report.put("indexToDataRatio", dataSize == 0 ? 0D : (double) indexSize / dataSize);
+            // Every insert and every update of an indexed field writes one entry per index
+            report.put("indexWritesPerInsert", present.size());
+            report.put("indexes", indexes);
+            report.put("missing", missing);
+            collections.add(report);
+        }
+        return collections;
+    }
+
+    private List<MongoPersistentEntity<?>> documentEntities() {
+        List<MongoPersistentEntity<?>> entities = new ArrayList<>();
+        for (MongoPersistentEntity<?> entity : mongoTemplate.getConverter().getMappingContext().getPersistentEntities()) {
+            if (entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                entities.add(entity);
+            }
+        }
+        entities.sort((a, b) -> a.getCollection().compareTo(b.getCollection()));
+        return entities;
+    }
+
+    private Document collectionStats(String collection) {
+        try {
+            return mongoTemplate.executeCommand(new Document("collStats", collection));
+        } catch (RuntimeException ex) {
+            // Older servers reject collStats for a collection that has not been created yet
+            return new Document();
+        }
+    }
+
+    private Set<String> existingIndexNames(Class<?> type) {
+        Set<String> names = new LinkedHashSet<>();
+        try {
+            for (IndexInfo info : mongoTemplate.indexOps(type).getIndexInfo()) {
+                names.add(info.getName());
+            }
+        } catch (RuntimeException ex) {
+            // The collection does not exist yet; every index is created with it
+            logger.debug("Could not list indexes of {}", type.getSimpleName(), ex);
+        }
+        return names;
+    }
+}
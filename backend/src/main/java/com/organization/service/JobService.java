@@ -0,0 +1,27 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+
+import java.util.List;
+
+public interface JobService {
+
+    /**
+     * Starts {@code work} on a background thread and returns its progress handle immediately.
+     */
+    JobProgress start(String type, JobWork work);
+
+    JobProgress get(String id);
+
+    List<JobProgress> list();
+
+    /**
+     * Asks a running job to stop; the job checks the flag between units of work.
+     */
+    JobProgress cancel(String id);
+
+    @FunctionalInterface
+    interface JobWork {
+        void run(JobProgress progress) throws Exception;
+    }
+}
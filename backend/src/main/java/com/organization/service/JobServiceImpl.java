@@ -0,0 +1,106 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+import com.organization.exception.StudentApiException;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class JobServiceImpl implements JobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobServiceImpl.class);
+
+    private final Map<String, JobProgress> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final int maxDetails;
+    private final int retainedJobs;
+
+    public JobServiceImpl(@Value("${app.jobs.max-details:500}") int maxDetails,
+                          @Value("${app.jobs.retained:100}") int retainedJobs) {
+        this.maxDetails = maxDetails;
+        this.retainedJobs = retainedJobs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public JobProgress start(String type, JobWork work) {
+        JobProgress progress = new JobProgress(new ObjectId().toHexString(), type, maxDetails);
+        evictFinished();
+        jobs.put(progress.getId(), progress);
+        logger.info("Starting {} job {}", type, progress.getId());
+
+        executor.execute(() -> {
+            try {
+                work.run(progress);
+                progress.finish(progress.isCancelRequested() ? JobProgress.Status.CANCELLED : JobProgress.Status.COMPLETED, null);
+                logger.info("{} job {} finished with status {} - counters: {}", type, progress.getId(),
+                        progress.getStatus(), progress.getCounters());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                progress.finish(JobProgress.Status.CANCELLED, "Interrupted");
+            } catch (Exception ex) {
+                logger.error("{} job {} failed", type, progress.getId(), ex);
+                progress.finish(JobProgress.Status.FAILED, ex.getMessage());
+            }
+        });
+        return progress;
+    }
+
+    @Override
+    public JobProgress get(String id) {
+        JobProgress progress = jobs.get(id);
+        if (progress == null) {
+            throw new StudentApiException(HttpStatus.NOT_FOUND, "Job not found: " + id);
+        }
+        return progress;
+    }
+
+    @Override
+    public List<JobProgress> list() {
+        List<JobProgress> all = new ArrayList<>(jobs.values());
+        all.sort(Comparator.comparing(JobProgress::getStartedAt).reversed());
+        return all;
+    }
+
+    @Override
+    public JobProgress cancel(String id) {
+        JobProgress progress = get(id);
+        progress.requestCancel();
+        return progress;
+    }
+
+    private void evictFinished() {
+        if (jobs.size() < retainedJobs) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.getStatus() != JobProgress.Status.RUNNING)
+                .min(Comparator.comparing(JobProgress::getStartedAt))
+                .ifPresent(oldest -> jobs.remove(oldest.getId()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobs.values().forEach(JobProgress::requestCancel);
+        executor.shutdownNow();
+    }
+}
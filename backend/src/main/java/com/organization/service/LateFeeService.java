@@ -0,0 +1,21 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+import com.organization.entity.LateFeeRunPartition;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface LateFeeService {
+
+    /**
+     * Starts, or resumes from its checkpoints, the late-fee run for {@code day}; null means today, and a day
+     * after today is rejected. Returns the job already running for that day instead of starting a second one.
+     */
+    JobProgress start(LocalDate day);
+
+    /**
+     * Checkpoint and throughput of each partition of the run for {@code day}.
+     */
+    List<LateFeeRunPartition> partitions(LocalDate day);
+}
@@ -0,0 +1,325 @@
+package com.organization.service;
+
+import com.mongodb.client.MongoCursor;
+import com.organization.dto.JobProgress;
+import com.organization.entity.LateFeeRunPartition;
+import com.organization.entity.StudentFee;
+import com.organization.exception.StudentApiException;
+import com.organization.repository.IdRange;
+import com.organization.repository.LateFeeRunPartitionRepository;
+import com.organization.repository.StudentFeeRepository;
+import com.organization.repository.StudentFeeRepositoryCustom.LateFeeCharge;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Charges one late fee per day on every unpaid fee whose due date (plus the grace period) has passed.
+ * <p>
+ * The {@code _id} space of {@code student_fees} is split into ranges that are processed in parallel, and each
+ * range records its progress in {@code late_fee_runs} after every batch, so a run that crashed resumes after
+ * the last checkpointed id. A fee carries the day of its latest late fee and the bulk update only matches fees
+ * last charged before that day, which makes rerunning or resuming a day safe and keeps a run for an earlier day
+ * from charging fees a later run already reached. Days after today are rejected.
+ */
+@Service
+public class LateFeeServiceImpl implements LateFeeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LateFeeServiceImpl.class);
+
+    static final String JOB_TYPE = "late-fee-accrual";
+
+    private final MongoTemplate mongoTemplate;
+    private final StudentFeeRepository studentFeeRepository;
+    private final LateFeeRunPartitionRepository partitionRepository;
+    private final StudentBalanceService studentBalanceService;
+    private final JobService jobService;
+    private final boolean enabled;
+    private final int workers;
+    private final int partitionsPerWorker;
+    private final int batchSize;
+    private final BigDecimal dailyFlat;
+    private final BigDecimal dailyRate;
+    private final int graceDays;
+    private final ZoneId zone;
+
+    private final Map<String, JobProgress> running = new ConcurrentHashMap<>();
+
+    public LateFeeServiceImpl(MongoTemplate mongoTemplate,
+                              StudentFeeRepository studentFeeRepository,
+                              LateFeeRunPartitionRepository partitionRepository,
+                              StudentBalanceService studentBalanceService,
+                              JobService jobService,
+                              @Value("${app.late-fees.enabled:false}") boolean enabled,
+                              @Value("${app.late-fees.workers:4}") int workers,
+                              @Value("${app.late-fees.partitions-per-worker:8}") int partitionsPerWorker,
+                              @Value("${app.late-fees.batch-size:1000}") int batchSize,
+                              @Value("${app.late-fees.daily-flat:0}") BigDecimal dailyFlat,
+                              @Value("${app.late-fees.daily-rate:0}") BigDecimal dailyRate,
+                              @Value("${app.late-fees.grace-days:0}") int graceDays,
+                              @Value("${app.payments.rollup-zone:UTC}") ZoneId zone) {
+        this.mongoTemplate = mongoTemplate;
+        this.studentFeeRepository = studentFeeRepository;
+        this.partitionRepository = partitionRepository;
+        this.studentBalanceService = studentBalanceService;
+        this.jobService = jobService;
+        this.enabled = enabled;
+        this.workers = workers;
+        this.partitionsPerWorker = partitionsPerWorker;
+        this.batchSize = batchSize;
+        this.dailyFlat = dailyFlat;
+        this.dailyRate = dailyRate;
+        this.graceDays = graceDays;
+        this.zone = zone;
+    }
+
+    @Scheduled(cron = "${app.late-fees.cron:0 30 0 * * *}", zone = "${app.payments.rollup-zone:UTC}")
+    void scheduledRun() {
+        if (enabled) {
+            start(null);
+        }
+    }
+
+    @Override
+    public synchronized JobProgress start(LocalDate day) {
+        LocalDate today = LocalDate.now(zone);
+        if (day != null && day.isAfter(today)) {
+            throw new StudentApiException(HttpStatus.BAD_REQUEST,
+                    "Late fees cannot be charged for a day after today (" + today + "): " + day);
+        }
+        String key = (day != null ? day : today).toString();
+        JobProgress active = running.get(key);
+        if (active != null && active.getStatus() == JobProgress.Status.RUNNING) {
+            return active;
+        }
+        JobProgress progress = jobService.start(JOB_TYPE, job -> {
+            try {
+                run(job, key);
+            } finally {
+                running.remove(key, job);
+            }
+        });
+        if (progress.getStatus() == JobProgress.Status.RUNNING) {
+            running.put(key, progress);
+        }
+        return progress;
+    }
+
+    @Override
+    public List<LateFeeRunPartition> partitions(LocalDate day) {
+        return partitionRepository.findByDayOrderByIndexAsc((day != null ? day : LocalDate.now(zone)).toString());
+    }
+
+    private void run(JobProgress progress, String day) throws Exception {
+        Instant cutoff = LocalDate.parse(day).minusDays(graceDays).atStartOfDay(zone).toInstant();
+        List<LateFeeRunPartition> partitions = new ArrayList<>(partitionRepository.findByDayOrderByIndexAsc(day));
+        if (partitions.isEmpty()) {
+            List<IdRange> ranges = IdRange.partition(mongoTemplate,
+                    mongoTemplate.getCollectionName(StudentFee.class), workers * partitionsPerWorker);
+            for (int i = 0; i < ranges.size(); i++) {
+                IdRange range = ranges.get(i);
+                partitions.add(new LateFeeRunPartition(day, i,
+                        range.lower() == null ? null : range.lower().toHexString(),
+                        range.upper() == null ? null : range.upper().toHexString()));
+            }
+            partitions = partitionRepository.saveAll(partitions);
+        } else {
+            progress.increment("partitionsResumed", partitions.stream().filter(p -> !p.isDone()).count());
+        }
+        progress.setTotalUnits(partitions.size());
+        logger.info("Charging late fees for {} (due before {}) in {} partitions on {} workers",
+                day, cutoff, partitions.size(), workers);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (LateFeeRunPartition partition : partitions) {
+                if (partition.isDone()) {
+                    progress.completeUnit();
+                    continue;
+                }
+                futures.add(pool.submit(() -> {
+                    if (!progress.isCancelRequested()) {
+                        chargePartition(partition, cutoff, progress);
+                        progress.completeUnit();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        logger.info("Late fees for {} charged: {}", day, progress.getCounters());
+    }
+
+    private void chargePartition(LateFeeRunPartition partition, Instant cutoff, JobProgress progress) {
+        Document idBounds = new Document();
+        if (partition.getLastId() != null) {
+            idBounds.append("$gt", new ObjectId(partition.getLastId()));
+        } else if (partition.getLowerId() != null) {
+            idBounds.append("$gte", new ObjectId(partition.getLowerId()));
+        }
+        if (partition.getUpperId() != null) {
+            idBounds.append("$lt", new ObjectId(partition.getUpperId()));
+        }
+        Document filter = new Document(StudentFee.Fields.STATUS, new Document("$in", StudentFee.UNPAID_STATUSES))
+                .append(StudentFee.Fields.DUE_DATE, new Document("$lt", Date.from(cutoff)))
+                .append(StudentFee.Fields.LAST_PENALTY_DAY, new Document("$not", new Document("$gte", partition.getDay())));
+        if (!idBounds.isEmpty()) {
+            filter.append("_id", idBounds);
+        }
+
+        Batch batch = new Batch(partition);
+        Document projection = new Document(StudentFee.Fields.STUDENT_ID, 1)
+                .append(StudentFee.Fields.AMOUNT_ASSIGNED, 1)
+                .append(StudentFee.Fields.AMOUNT_PAID, 1);
+        try (MongoCursor<Document> fees = mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .find(filter)
+                .projection(projection)
+                .sort(new Document("_id", 1))
+                .batchSize(batchSize)
+                .cursor()) {
+            while (fees.hasNext() && !progress.isCancelRequested()) {
+                Document fee = fees.next();
+                batch.scanned++;
+                batch.lastId = fee.get("_id");
+                BigDecimal outstanding = MongoValues.decimal(fee.get(StudentFee.Fields.AMOUNT_ASSIGNED))
+                        .subtract(MongoValues.decimal(fee.get(StudentFee.Fields.AMOUNT_PAID)));
+                LateFeeCharge charge = chargeFor(fee.get("_id"), partition.getDay(), outstanding);
+                if (charge != null) {
+                    addCharge(batch, fee, charge);
+                }
+                if (batch.scanned >= batchSize) {
+                    flush(batch, progress);
+                }
+            }
+        }
+        flush(batch, progress);
+
+        if (!progress.isCancelRequested()) {
+            partition.setDone(true);
+            partition.setUpdatedAt(Instant.now());
+            partitionRepository.save(partition);
+
+            Map<String, Object> throughput = new LinkedHashMap<>();
+            throughput.put("partition", partition.getIndex());
+            throughput.put("feesScanned", partition.getFeesScanned());
+            throughput.put("feesCharged", partition.getFeesCharged());
+            throughput.put("amountCharged", partition.getAmountCharged());
+            throughput.put("elapsedMillis", partition.getElapsedMillis());
+            throughput.put("feesPerSecond", Math.round(partition.getFeesPerSecond()));
+            progress.addDetail(throughput);
+        }
+    }
+
+    /**
+     * The larger of the flat daily fee and the daily rate on the outstanding amount, in cents; null when nothing
+     * is outstanding or the charge rounds to zero.
+     */
+    LateFeeCharge chargeFor(Object feeId, String day, BigDecimal outstanding) {
+        if (outstanding.signum() <= 0) {
+            return null;
+        }
+        BigDecimal byRate = outstanding.multiply(dailyRate);
+        boolean flat = dailyFlat.compareTo(byRate) >= 0;
+        BigDecimal amount = (flat ? dailyFlat : byRate).setScale(2, RoundingMode.HALF_UP);
+        if (amount.signum() <= 0) {
+            return null;
+        }
+        String rule = flat ? "daily-flat " + dailyFlat.toPlainString() : "daily-rate " + dailyRate.toPlainString();
+        return new LateFeeCharge(feeId, day, amount, rule);
+    }
+
+    private void addCharge(Batch batch, Document fee, LateFeeCharge charge) {
+        batch.charges.add(charge);
+        Object studentId = fee.get(StudentFee.Fields.STUDENT_ID);
+        if (studentId != null) {
+            batch.byStudent.merge(studentId.toString(), charge.amount(), BigDecimal::add);
+        }
+        batch.amount = batch.amount.add(charge.amount());
+    }
+
+    /**
+     * Writes the pending charges, moves the affected balances and then the checkpoint. A crash between the
+     * write and the checkpoint is harmless: the resumed scan skips fees already charged today.
+     */
+    private void flush(Batch batch, JobProgress progress) {
+        if (batch.scanned == 0) {
+            return;
+        }
+        LateFeeRunPartition partition = batch.partition;
+        long charged = studentFeeRepository.applyLateFees(batch.charges);
+        progress.increment("feesScanned", batch.scanned);
+        progress.increment("feesCharged", charged);
+
+        if (charged == batch.charges.size()) {
+            partition.setAmountCharged(partition.getAmountCharged().add(batch.amount));
+            try {
+                studentBalanceService.assignedIncreased(batch.byStudent);
+            } catch (RuntimeException ex) {
+                logger.warn("Could not update balances after late fees in partition {}", partition.getId(), ex);
+            }
+        } else {
+            // Another run charged some of these fees first; without knowing which, leave balances to a rebuild
+            progress.increment("chargesSkipped", batch.charges.size() - charged);
+            logger.warn("{} late fees in partition {} were already charged; rebuild student balances to reconcile",
+                    batch.charges.size() - charged, partition.getId());
+        }
+
+        partition.setLastId(batch.lastId.toString());
+        partition.setFeesScanned(partition.getFeesScanned() + batch.scanned);
+        partition.setFeesCharged(partition.getFeesCharged() + charged);
+        long now = System.nanoTime();
+        partition.setElapsedMillis(partition.getElapsedMillis() + (now - batch.startedNanos) / 1_000_000);
+        partition.setUpdatedAt(Instant.now());
+        partitionRepository.save(partition);
+        batch.reset(now);
+    }
+
+    private static final class Batch {
+        private final LateFeeRunPartition partition;
+        private final List<LateFeeCharge> charges = new ArrayList<>();
+        private final Map<String, BigDecimal> byStudent = new HashMap<>();
+        private BigDecimal amount = BigDecimal.ZERO;
+        private Object lastId;
+        private int scanned;
+        private long startedNanos = System.nanoTime();
+
+        private Batch(LateFeeRunPartition partition) {
+            this.partition = partition;
+        }
+
+        private void reset(long now) {
+            charges.clear();
+            byStudent.clear();
+            amount = BigDecimal.ZERO;
+            scanned = 0;
+            startedNanos = now;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.organization.service;
+
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions for values read from raw documents, where amounts may be Decimal128 or legacy strings.
+ */
+final class MongoValues {
+
+    private MongoValues() {
+    }
+
+    static BigDecimal decimal(Object value) {
+        if (value instanceof Decimal128 decimal) {
+            return decimal.bigDecimalValue();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            return new BigDecimal(text.trim());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    static long longValue(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
@@ -0,0 +1,18 @@
+package com.organization.service;
+
+import com.organization.entity.ScanCheckpoint;
+
+public interface OverdueScanService {
+
+    /**
+     * Flags fees that became overdue since the last checkpoint and refreshes the owning students' balances.
+     */
+    ScanCheckpoint scan();
+
+    ScanCheckpoint checkpoint();
+
+    /**
+     * Creates the partial index the scan and the overdue listing rely on, if it is missing.
+     */
+    void ensureIndex();
+}
@@ -0,0 +1,107 @@
+package com.organization.service;
+
+import com.organization.entity.ScanCheckpoint;
+import com.organization.entity.StudentFee;
+import com.organization.repository.ScanCheckpointRepository;
+import com.organization.repository.StudentFeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Flags fees whose due date has passed. Payments and due date changes keep the flag current for the fees they
+ * touch, so each run only has to look at the due dates between the previous checkpoint and now, using the
+ * {@code overdue_due_date} partial index that covers unpaid fees only.
+ */
+@Service
+public class OverdueScanServiceImpl implements OverdueScanService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueScanServiceImpl.class);
+
+    static final String CHECKPOINT_ID = "overdue-fees";
+    static final String INDEX_NAME = "overdue_due_date";
+
+    private final MongoTemplate mongoTemplate;
+    private final StudentFeeRepository studentFeeRepository;
+    private final ScanCheckpointRepository scanCheckpointRepository;
+    private final StudentBalanceService studentBalanceService;
+    private final boolean enabled;
+
+    public OverdueScanServiceImpl(MongoTemplate mongoTemplate,
+                                  StudentFeeRepository studentFeeRepository,
+                                  ScanCheckpointRepository scanCheckpointRepository,
+                                  StudentBalanceService studentBalanceService,
+                                  @Value("${app.student-fees.overdue-scan.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.studentFeeRepository = studentFeeRepository;
+        this.scanCheckpointRepository = scanCheckpointRepository;
+        this.studentBalanceService = studentBalanceService;
+        this.enabled = enabled;
+    }
+
+    /**
+     * The partial filter cannot be declared on the entity, so {@link IndexService} creates this index through here
+     * after the annotated ones. A {@code $in} partial filter needs MongoDB 6.0 or later.
+     */
+    @Override
+    public void ensureIndex() {
+        try {
+            mongoTemplate.indexOps(StudentFee.class).ensureIndex(new Index()
+                    .on("dueDate", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC)
+                    .named(INDEX_NAME)
+                    .partial(PartialIndexFilter.of(Criteria.where("status").in(StudentFee.UNPAID_STATUSES))));
+        } catch (RuntimeException ex) {
+            logger.warn("Could not create the {} index; overdue queries will not be index-backed", INDEX_NAME, ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.student-fees.overdue-scan.interval:PT5M}",
+            initialDelayString = "${app.student-fees.overdue-scan.initial-delay:PT1M}")
+    void scheduledScan() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            scan();
+        } catch (RuntimeException ex) {
+            logger.error("Overdue fee scan failed; it will resume from the last checkpoint", ex);
+        }
+    }
+
+    @Override
+    public ScanCheckpoint scan() {
+        ScanCheckpoint previous = checkpoint();
+        Instant upTo = Instant.now();
+
+        Set<String> studentIds = studentFeeRepository.markOverdue(previous.getScannedUpTo(), upTo);
+        if (!studentIds.isEmpty()) {
+            try {
+                studentBalanceService.refreshOverdue(studentIds);
+            } catch (RuntimeException ex) {
+                logger.warn("Could not refresh overdue counts for {} students", studentIds.size(), ex);
+            }
+        }
+
+        ScanCheckpoint next = scanCheckpointRepository.save(
+                new ScanCheckpoint(CHECKPOINT_ID, upTo, studentIds.size(), Instant.now()));
+        logger.info("Overdue fee scan up to {} flagged fees of {} students", upTo, studentIds.size());
+        return next;
+    }
+
+    @Override
+    public ScanCheckpoint checkpoint() {
+        return scanCheckpointRepository.findById(CHECKPOINT_ID)
+                .orElseGet(() -> new ScanCheckpoint(CHECKPOINT_ID, null, 0, null));
+    }
+}
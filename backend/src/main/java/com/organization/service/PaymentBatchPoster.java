@@ -0,0 +1,239 @@
+package com.organization.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.organization.entity.Payment;
+import com.organization.entity.StudentFee;
+import com.organization.monitoring.DomainMetrics;
+import com.organization.repository.StudentFeeRepository;
+import com.organization.repository.StudentFeeRepositoryCustom;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Posts a batch of payments with a fixed number of round trips: one fee lookup, one unordered bulk insert
+ * and one bulk update carrying a single aggregated increment per {@code StudentFee}.
+ * <p>
+ * Drafts with a caller-chosen id may be replays of a batch that died part way. Their ids are recorded on the fee
+ * in the same update as the increment, so a payment found already stored still gets its increment if the earlier
+ * attempt never applied it, and never gets it twice.
+ * <p>
+ * Drafts without an id cannot be replayed, so a fee update that fails for them is compensated instead: their
+ * payments are deleted again and reported as rejected, like the single-payment path reverts its increment.
+ */
+@Component
+public class PaymentBatchPoster {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentBatchPoster.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final StudentFeeRepository studentFeeRepository;
+    private final PaymentRollupService paymentRollupService;
+    private final StudentBalanceService studentBalanceService;
+    private final DomainMetrics domainMetrics;
+
+    public PaymentBatchPoster(MongoTemplate mongoTemplate,
+                              StudentFeeRepository studentFeeRepository,
+                              PaymentRollupService paymentRollupService,
+                              StudentBalanceService studentBalanceService,
+                              DomainMetrics domainMetrics) {
+        this.mongoTemplate = mongoTemplate;
+        this.studentFeeRepository = studentFeeRepository;
+        this.paymentRollupService = paymentRollupService;
+        this.studentBalanceService = studentBalanceService;
+        this.domainMetrics = domainMetrics;
+    }
+
+    /**
+     * @param paymentId id to store the payment under, or {@code null} to generate one. A caller that may
+     *                  replay the same draft passes a stable id so the replay is detected as a duplicate.
+     */
+    public record Draft(String paymentId, String payerUserId, String studentFeeId, Payment.Method method,
+                        BigDecimal amount, String referenceNo, String notes) {
+    }
+
+    /**
+     * Result for the draft at the same position: {@code payment} is set unless {@code error} is, and
+     * {@code duplicate} marks a payment that had already been stored by an earlier attempt. Either way its
+     * increment has been applied exactly once.
+     */
+    public record Outcome(Payment payment, String error, boolean duplicate) {
+
+        public boolean posted() {
+            return payment != null;
+        }
+    }
+
+    public List<Outcome> post(List<Draft> drafts) {
+        Outcome[] outcomes = new Outcome[drafts.size()];
+
+        Set<String> feeIds = new HashSet<>();
+        drafts.forEach(draft -> feeIds.add(draft.studentFeeId()));
+        Map<String, StudentFee> fees = new HashMap<>();
+        studentFeeRepository.findAllById(feeIds).forEach(fee -> fees.put(fee.getId(), fee));
+
+        Instant paidAt = Instant.now();
+        List<Payment> payments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        for (int i = 0; i < drafts.size(); i++) {
+            Draft draft = drafts.get(i);
+            StudentFee fee = fees.get(draft.studentFeeId());
+            if (fee == null) {
+                outcomes[i] = new Outcome(null, "Student fee not found", false);
+                continue;
+            }
+            String id = draft.paymentId() != null ? draft.paymentId() : new ObjectId().toHexString();
+            payments.add(new Payment(id, fee.getId(), fee.getStudentId(), draft.payerUserId(),
+                    draft.method(), draft.amount(), paidAt, draft.referenceNo(), draft.notes()));
+            slots.add(i);
+        }
+
+        Map<Integer, BulkWriteError> failedInserts = insert(payments);
+
+        // Payments under a caller-chosen id may be replays, so their increments go through the once-only update
+        Map<String, BigDecimal> deltas = new HashMap<>();
+        List<Integer> incremented = new ArrayList<>();
+        Map<String, List<StudentFeeRepositoryCustom.PaymentIncrement>> replayable = new HashMap<>();
+        List<Payment> applied = new ArrayList<>(payments.size());
+        List<Payment> duplicates = new ArrayList<>();
+        for (int n = 0; n < payments.size(); n++) {
+            Payment payment = payments.get(n);
+            BulkWriteError error = failedInserts.get(n);
+            boolean duplicate = error != null && error.getCode() == DUPLICATE_KEY;
+            if (error != null && !duplicate) {
+                outcomes[slots.get(n)] = new Outcome(null, "Payment could not be stored", false);
+                continue;
+            }
+            outcomes[slots.get(n)] = new Outcome(payment, null, duplicate);
+            if (drafts.get(slots.get(n)).paymentId() != null) {
+                replayable.computeIfAbsent(payment.getStudentFeeId(), ignored -> new ArrayList<>())
+                        .add(new StudentFeeRepositoryCustom.PaymentIncrement(payment.getId(), payment.getAmount()));
+            } else {
+                deltas.merge(payment.getStudentFeeId(), payment.getAmount(), BigDecimal::add);
+                incremented.add(n);
+            }
+            (duplicate ? duplicates : applied).add(payment);
+        }
+
+        // A duplicate was stored by an earlier attempt, which may or may not have got as far as its increment
+        Set<String> alreadyApplied = duplicates.isEmpty() ? Set.of() : studentFeeRepository.findAppliedPayments(
+                duplicates.stream().map(Payment::getStudentFeeId).collect(Collectors.toSet()),
+                duplicates.stream().map(Payment::getId).collect(Collectors.toSet()));
+        // A failure here propagates: the caller replays the batch and the stored payments are applied then
+        studentFeeRepository.applyPaymentsOnce(replayable);
+        Set<String> failedFees = applyIncrements(deltas);
+        if (!failedFees.isEmpty()) {
+            Set<String> withdrawn = new HashSet<>();
+            for (int n : incremented) {
+                Payment payment = payments.get(n);
+                if (failedFees.contains(payment.getStudentFeeId())) {
+                    withdrawn.add(payment.getId());
+                    outcomes[slots.get(n)] = new Outcome(null, "Student fee could not be updated", false);
+                }
+            }
+            applied.removeIf(payment -> withdrawn.contains(payment.getId()));
+            withdraw(withdrawn);
+        }
+        for (Payment duplicate : duplicates) {
+            if (!alreadyApplied.contains(duplicate.getId())) {
+                applied.add(duplicate);
+            }
+        }
+
+        domainMetrics.paymentsPosted(applied);
+        try {
+            paymentRollupService.recordAll(applied, fees, 1);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not update payment rollups for a batch of {} payments", applied.size(), ex);
+        }
+        try {
+            studentBalanceService.paymentsApplied(applied);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not update student balances for a batch of {} payments", applied.size(), ex);
+        }
+        return List.of(outcomes);
+    }
+
+    /**
+     * Called once the caller has durably recorded the outcomes of a batch posted under caller-chosen ids. Until
+     * then the ids recorded on the fees keep a replay from applying a payment twice; leftovers are harmless.
+     */
+    public void forgetApplied(List<Outcome> outcomes) {
+        Map<String, List<String>> ids = new HashMap<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.posted()) {
+                ids.computeIfAbsent(outcome.payment().getStudentFeeId(), ignored -> new ArrayList<>())
+                        .add(outcome.payment().getId());
+            }
+        }
+        try {
+            studentFeeRepository.forgetAppliedPayments(ids);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not clear applied payment ids from {} fees", ids.size(), ex);
+        }
+    }
+
+    /**
+     * @return ids of the fees whose increment may not have been applied: those the bulk write reported as failed,
+     *         or all of them when the write failed as a whole
+     */
+    private Set<String> applyIncrements(Map<String, BigDecimal> deltas) {
+        try {
+            return studentFeeRepository.applyPayments(deltas);
+        } catch (RuntimeException ex) {
+            logger.error("Fee update failed for a batch of {} fees, withdrawing their payments", deltas.size(), ex);
+            return deltas.keySet();
+        }
+    }
+
+    /**
+     * Deletes payments whose increment failed. Should that fail too, they stay stored without their increment;
+     * the ledger reconciliation reports them.
+     */
+    private void withdraw(Set<String> paymentIds) {
+        try {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(paymentIds)), Payment.class);
+            logger.warn("Withdrew {} payments whose fee update failed", paymentIds.size());
+        } catch (RuntimeException ex) {
+            logger.error("Could not withdraw {} payments whose fee update failed: {}", paymentIds.size(), paymentIds, ex);
+        }
+    }
+
+    /**
+     * Inserts with one unordered bulk write and returns the failures keyed by position.
+     */
+    private Map<Integer, BulkWriteError> insert(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                    .insert(payments)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException ex) {
+            logger.warn("Bulk payment insert partially failed: {} errors", ex.getErrors().size());
+            Map<Integer, BulkWriteError> failures = new HashMap<>();
+            ex.getErrors().forEach(error -> failures.put(error.getIndex(), error));
+            return failures;
+        }
+    }
+}
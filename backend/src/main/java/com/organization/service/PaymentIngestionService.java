@@ -0,0 +1,14 @@
+package com.organization.service;
+
+import com.organization.dto.BulkPaymentReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface PaymentIngestionService {
+
+    /**
+     * Reads payments from a JSON array or NDJSON stream and posts them in batches.
+     */
+    BulkPaymentReport ingest(String payerUserId, InputStream body) throws IOException;
+}
@@ -0,0 +1,157 @@
+package com.organization.service;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.organization.dto.BulkPaymentRecord;
+import com.organization.dto.BulkPaymentReport;
+import com.organization.dto.BulkPaymentResult;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class PaymentIngestionServiceImpl implements PaymentIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentIngestionServiceImpl.class);
+
+    private final PaymentBatchPoster paymentBatchPoster;
+    private final Validator validator;
+    private final ObjectReader recordReader;
+    private final int batchSize;
+
+    public PaymentIngestionServiceImpl(PaymentBatchPoster paymentBatchPoster,
+                                       Validator validator,
+                                       ObjectMapper objectMapper,
+                                       @Value("${app.payments.bulk.batch-size:1000}") int batchSize) {
+        this.paymentBatchPoster = paymentBatchPoster;
+        this.validator = validator;
+        this.recordReader = objectMapper.readerFor(BulkPaymentRecord.class);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public BulkPaymentReport ingest(String payerUserId, InputStream body) throws IOException {
+        long started = System.nanoTime();
+        BulkPaymentReport report = new BulkPaymentReport();
+        List<IndexedRecord> batch = new ArrayList<>(batchSize);
+        int index = 0;
+
+        // readValues iterates the elements of a root-level array as well as a stream of root-level objects
+        try (MappingIterator<BulkPaymentRecord> records = recordReader.readValues(body)) {
+            while (hasNext(records)) {
+                try {
+                    batch.add(new IndexedRecord(index, records.nextValue(), null));
+                } catch (JsonMappingException ex) {
+                    // The iterator resynchronises on the next record, so one bad element does not abort the stream
+                    batch.add(new IndexedRecord(index, null, "Malformed record: " + ex.getOriginalMessage()));
+                } catch (JsonParseException ex) {
+                    // Invalid JSON inside a record: the iterator skips to the end of it before reading the next one
+                    batch.add(new IndexedRecord(index, null, "Malformed JSON: " + ex.getOriginalMessage()));
+                }
+                index++;
+                if (batch.size() == batchSize) {
+                    postBatch(payerUserId, batch, report);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            postBatch(payerUserId, batch, report);
+        }
+
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        logger.info("Bulk payment ingestion finished - received: {}, accepted: {}, rejected: {}, elapsed: {} ms",
+                report.getReceived(), report.getAccepted(), report.getRejected(), report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * Skipping to the end of a record with invalid JSON can run into more of it. Each retry resumes further into
+     * the body; when the parser makes no progress (the body ends inside the broken record) the stream is done.
+     */
+    private static boolean hasNext(MappingIterator<BulkPaymentRecord> records) throws IOException {
+        long lastOffset = -1;
+        while (true) {
+            try {
+                return records.hasNextValue();
+            } catch (JsonParseException ex) {
+                JsonLocation location = records.getParser().currentLocation();
+                long offset = Math.max(location.getByteOffset(), location.getCharOffset());
+                if (offset <= lastOffset) {
+                    logger.warn("Bulk payment body ends in invalid JSON at line {}, column {}",
+                            location.getLineNr(), location.getColumnNr());
+                    return false;
+                }
+                lastOffset = offset;
+            }
+        }
+    }
+
+    private void postBatch(String payerUserId, List<IndexedRecord> batch, BulkPaymentReport report) {
+        BulkPaymentResult[] results = new BulkPaymentResult[batch.size()];
+
+        List<PaymentBatchPoster.Draft> drafts = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            IndexedRecord entry = batch.get(i);
+            String error = entry.error() != null ? entry.error() : validate(entry.record());
+            if (error != null) {
+                results[i] = BulkPaymentResult.rejected(entry.index(), studentFeeIdOf(entry), error);
+                continue;
+            }
+            BulkPaymentRecord record = entry.record();
+            drafts.add(new PaymentBatchPoster.Draft(null, payerUserId, record.getStudentFeeId(), record.getMethod(),
+                    record.getAmount(), record.getReferenceNo(), record.getNotes()));
+            slots.add(i);
+        }
+
+        List<PaymentBatchPoster.Outcome> outcomes = drafts.isEmpty() ? List.of() : paymentBatchPoster.post(drafts);
+        for (int n = 0; n < outcomes.size(); n++) {
+            int slot = slots.get(n);
+            PaymentBatchPoster.Outcome outcome = outcomes.get(n);
+            String studentFeeId = drafts.get(n).studentFeeId();
+            results[slot] = outcome.posted()
+                    ? BulkPaymentResult.accepted(batch.get(slot).index(), studentFeeId, outcome.payment().getId())
+                    : BulkPaymentResult.rejected(batch.get(slot).index(), studentFeeId, outcome.error());
+        }
+
+        for (BulkPaymentResult result : results) {
+            report.add(result);
+        }
+    }
+
+    private String validate(BulkPaymentRecord record) {
+        if (record == null) {
+            return "Record is empty";
+        }
+        Set<ConstraintViolation<BulkPaymentRecord>> violations = validator.validate(record);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String studentFeeIdOf(IndexedRecord entry) {
+        return entry.record() != null ? entry.record().getStudentFeeId() : null;
+    }
+
+    private record IndexedRecord(int index, BulkPaymentRecord record, String error) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+import com.organization.dto.PaymentSummary;
+import com.organization.entity.Payment;
+import com.organization.entity.StudentFee;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface PaymentRollupService {
+
+    enum GroupBy { DAY, METHOD, COURSE, ACADEMIC_YEAR }
+
+    /**
+     * Adds ({@code sign = 1}) or removes ({@code sign = -1}) one payment from its daily bucket.
+     */
+    void record(Payment payment, StudentFee fee, int sign);
+
+    /**
+     * Same as {@link #record} for many payments, with one upsert per bucket.
+     *
+     * @param feesById the fee of each payment, used for the course and academic year of the bucket
+     */
+    void recordAll(Collection<Payment> payments, Map<String, StudentFee> feesById, int sign);
+
+    /**
+     * Rebuilds every bucket from the payments collection; the current buckets answer summaries until it completes.
+     */
+    JobProgress rebuild();
+
+    /**
+     * Totals for the inclusive day range, answered from the rollups only.
+     */
+    PaymentSummary summarize(LocalDate from, LocalDate to, List<GroupBy> groupBy);
+}
@@ -0,0 +1,246 @@
+package com.organization.service;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.RenameCollectionOptions;
+import com.organization.dto.JobProgress;
+import com.organization.dto.PaymentSummary;
+import com.organization.entity.Payment;
+import com.organization.entity.PaymentDailyRollup;
+import com.organization.entity.StudentFee;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class PaymentRollupServiceImpl implements PaymentRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRollupServiceImpl.class);
+
+    static final String JOB_TYPE = "payment-rollup-rebuild";
+
+    private static final String STAGING_SUFFIX = "_rebuild";
+
+    private static final Map<GroupBy, String> GROUP_FIELDS = Map.of(
+            GroupBy.DAY, "day",
+            GroupBy.METHOD, "method",
+            GroupBy.COURSE, "course",
+            GroupBy.ACADEMIC_YEAR, "academicYear");
+
+    private final MongoTemplate mongoTemplate;
+    private final JobService jobService;
+    private final ZoneId zone;
+
+    public PaymentRollupServiceImpl(MongoTemplate mongoTemplate,
+                                    JobService jobService,
+                                    @Value("${app.payments.rollup-zone:UTC}") ZoneId zone) {
+        this.mongoTemplate = mongoTemplate;
+        this.jobService = jobService;
+        this.zone = zone;
+    }
+
+    @Override
+    public void record(Payment payment, StudentFee fee, int sign) {
+        Bucket bucket = bucketOf(payment, fee);
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(bucket.key())),
+                increment(bucket, sign, payment.getAmount()), PaymentDailyRollup.class);
+    }
+
+    @Override
+    public void recordAll(Collection<Payment> payments, Map<String, StudentFee> feesById, int sign) {
+        if (payments.isEmpty()) {
+            return;
+        }
+        Map<Bucket, long[]> counts = new HashMap<>();
+        Map<Bucket, BigDecimal> amounts = new HashMap<>();
+        for (Payment payment : payments) {
+            Bucket bucket = bucketOf(payment, feesById.get(payment.getStudentFeeId()));
+            counts.computeIfAbsent(bucket, key -> new long[1])[0]++;
+            amounts.merge(bucket, payment.getAmount(), BigDecimal::add);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentDailyRollup.class);
+        counts.forEach((bucket, count) -> bulk.upsert(new Query(Criteria.where("_id").is(bucket.key())),
+                increment(bucket, sign * count[0], amounts.get(bucket))));
+        bulk.execute();
+    }
+
+    @Override
+    public JobProgress rebuild() {
+        return jobService.start(JOB_TYPE, this::rebuild);
+    }
+
+    /**
+     * Builds the buckets into a staging collection and renames it over the live one, so summaries keep answering
+     * from complete rollups while the build runs. Increments that reach the live collection meanwhile are dropped
+     * with it; new payments are stamped with the current time, so recounting the days since the build started
+     * restores them. A payment deleted from an earlier day during the build stays counted until the next rebuild.
+     */
+    private void rebuild(JobProgress progress) {
+        String rollups = mongoTemplate.getCollectionName(PaymentDailyRollup.class);
+        String staging = rollups + STAGING_SUFFIX;
+        progress.setTotalUnits(3);
+        LocalDate firstDay = LocalDate.now(zone);
+
+        MongoCollection<Document> stagingCollection = mongoTemplate.getCollection(staging);
+        stagingCollection.drop();
+        // $out keeps the indexes of an existing target, so the staging collection gets the live ones first
+        for (Document index : mongoTemplate.getCollection(rollups).listIndexes()) {
+            if (!"_id_".equals(index.getString("name"))) {
+                stagingCollection.createIndex(index.get("key", Document.class), new IndexOptions()
+                        .name(index.getString("name")).unique(index.getBoolean("unique", false)));
+            }
+        }
+        aggregate(null, new Document("$out", staging));
+        progress.increment("bucketsWritten", stagingCollection.countDocuments());
+        progress.completeUnit();
+
+        stagingCollection.renameCollection(new MongoNamespace(mongoTemplate.getDb().getName(), rollups),
+                new RenameCollectionOptions().dropTarget(true));
+        progress.completeUnit();
+
+        Date since = Date.from(firstDay.atStartOfDay(zone).toInstant());
+        aggregate(new Document(Payment.Fields.PAID_AT, new Document("$gte", since)), new Document("$merge",
+                new Document("into", rollups)
+                        .append("on", "_id")
+                        .append("whenMatched", "replace")
+                        .append("whenNotMatched", "insert")));
+        progress.increment("daysRecounted", ChronoUnit.DAYS.between(firstDay, LocalDate.now(zone)) + 1);
+        progress.completeUnit();
+        logger.info("Payment rollups rebuilt: {}", progress.getCounters());
+    }
+
+    /**
+     * Groups the payments matching {@code match} (all of them when {@code null}) into buckets and writes them with
+     * the given {@code $out} or {@code $merge} stage.
+     */
+    private void aggregate(Document match, Document sink) {
+        Document key = new Document("day", "$day").append("method", "$method")
+                .append("course", "$course").append("academicYear", "$academicYear");
+        List<Document> pipeline = new ArrayList<>();
+        if (match != null) {
+            pipeline.add(new Document("$match", match));
+        }
+        pipeline.addAll(List.of(
+                new Document("$addFields", new Document("feeId", new Document("$convert",
+                        new Document("input", "$" + Payment.Fields.STUDENT_FEE_ID)
+                        .append("to", "objectId").append("onError", null).append("onNull", null)))),
+                new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(StudentFee.class))
+                        .append("localField", "feeId")
+                        .append("foreignField", "_id")
+                        .append("pipeline", List.of(new Document("$project", new Document("course", "$" + StudentFee.Fields.COURSE)
+                                .append("academicYear", "$" + StudentFee.Fields.ACADEMIC_YEAR))))
+                        .append("as", "fee")),
+                new Document("$project", new Document("_id", 0)
+                        .append("day", new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                                .append("date", "$" + Payment.Fields.PAID_AT).append("timezone", zone.getId())))
+                        .append("method", "$" + Payment.Fields.METHOD)
+                        .append("course", new Document("$first", "$fee.course"))
+                        .append("academicYear", new Document("$first", "$fee.academicYear"))
+                        .append("amount", new Document("$toDecimal", "$" + Payment.Fields.AMOUNT))),
+                new Document("$group", new Document("_id", key)
+                        .append("count", new Document("$sum", 1))
+                        .append("amount", new Document("$sum", "$amount"))),
+                new Document("$project", new Document("_id", new Document("$concat", List.of(
+                                "$_id.day", "|", "$_id.method", "|",
+                                new Document("$ifNull", List.of("$_id.course", "")), "|",
+                                new Document("$ifNull", List.of("$_id.academicYear", "")))))
+                        .append("day", "$_id.day")
+                        .append("method", "$_id.method")
+                        .append("course", "$_id.course")
+                        .append("academicYear", "$_id.academicYear")
+                        .append("count", 1)
+                        .append("amount", 1)),
+                sink));
+
+        // The last stage writes on the server; iterating the empty result just runs the pipeline
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Payment.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+    }
+
+    @Override
+    public PaymentSummary summarize(LocalDate from, LocalDate to, List<GroupBy> groupBy) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        Document groupKey = new Document();
+        for (GroupBy group : groupBy) {
+            String field = GROUP_FIELDS.get(group);
+            groupKey.append(field, "$" + field);
+        }
+
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("day", new Document("$gte", from.toString()).append("$lte", to.toString()))),
+                new Document("$group", new Document("_id", groupKey)
+                        .append("count", new Document("$sum", "$count"))
+                        .append("amount", new Document("$sum", "$amount"))),
+                new Document("$sort", new Document("_id", 1)));
+
+        List<PaymentSummary.Row> rows = new ArrayList<>();
+        long totalCount = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (Document row : mongoTemplate.getCollection(mongoTemplate.getCollectionName(PaymentDailyRollup.class))
+                .aggregate(pipeline)) {
+            long count = MongoValues.longValue(row.get("count"));
+            BigDecimal amount = MongoValues.decimal(row.get("amount"));
+            if (count == 0 && amount.signum() == 0) {
+                continue;
+            }
+            Map<String, Object> group = new LinkedHashMap<>(row.get("_id", Document.class));
+            rows.add(new PaymentSummary.Row(group, count, amount));
+            totalCount += count;
+            totalAmount = totalAmount.add(amount);
+        }
+
+        List<String> groupNames = groupBy.stream().map(GROUP_FIELDS::get).toList();
+        return new PaymentSummary(from, to, groupNames, totalCount, totalAmount, rows);
+    }
+
+    private Bucket bucketOf(Payment payment, StudentFee fee) {
+        String day = LocalDate.ofInstant(payment.getPaidAt(), zone).toString();
+        return new Bucket(day, payment.getMethod(),
+                fee == null ? null : fee.getCourse(),
+                fee == null ? null : fee.getAcademicYear());
+    }
+
+    private static Update increment(Bucket bucket, long count, BigDecimal amount) {
+        BigDecimal signedAmount = count < 0 ? amount.negate() : amount;
+        return new Update()
+                .inc("count", count)
+                .inc("amount", new Decimal128(signedAmount))
+                .setOnInsert("day", bucket.day())
+                .setOnInsert("method", bucket.method())
+                .setOnInsert("course", bucket.course())
+                .setOnInsert("academicYear", bucket.academicYear());
+    }
+
+    private record Bucket(String day, Payment.Method method, String course, String academicYear) {
+
+        String key() {
+            return PaymentDailyRollup.key(day, method, course, academicYear);
+        }
+    }
+}
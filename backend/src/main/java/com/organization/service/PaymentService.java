@@ -1,13 +1,22 @@
 package com.organization.service;
 
+import com.organization.dto.CursorPage;
 import com.organization.entity.Payment;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface PaymentService {
     Payment create(String payerUserId, String studentFeeId, Payment.Method method, BigDecimal amount);
+
+    /**
+     * Same as {@link #create(String, String, Payment.Method, BigDecimal)}, storing the payment under a caller-chosen
+     * id so the caller can look it up again if it never hears back.
+     */
+    Payment create(String paymentId, String payerUserId, String studentFeeId, Payment.Method method, BigDecimal amount);
+
     List<Payment> listAll();
     List<Payment> listByStudentFee(String studentFeeId);
     List<Payment> listByStudent(String studentId);
@@ -18,5 +27,9 @@ public interface PaymentService {
 
     Payment getById(String id);
 
+    Optional<Payment> findById(String id);
+
     List<Payment> list(Payment.Method method, Instant from, Instant to);
+
+    CursorPage<Payment> page(Payment.Method method, Instant from, Instant to, String cursor, int size);
 }
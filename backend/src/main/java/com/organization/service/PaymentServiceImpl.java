@@ -1,7 +1,9 @@
 package com.organization.service;
 
+import com.organization.dto.CursorPage;
 import com.organization.entity.Payment;
 import com.organization.entity.StudentFee;
+import com.organization.monitoring.DomainMetrics;
 import com.organization.repository.PaymentRepository;
 import com.organization.repository.StudentFeeRepository;
 import org.slf4j.Logger;
@@ -11,6 +13,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class PaymentServiceImpl implements PaymentService {
@@ -19,43 +22,55 @@ public class PaymentServiceImpl implements PaymentService {
     
     private final PaymentRepository paymentRepository;
     private final StudentFeeRepository studentFeeRepository;
+    private final PaymentRollupService paymentRollupService;
+    private final StudentBalanceService studentBalanceService;
+    private final DomainMetrics domainMetrics;
 
     public PaymentServiceImpl(PaymentRepository paymentRepository,
-                              StudentFeeRepository studentFeeRepository) {
+                              StudentFeeRepository studentFeeRepository,
+                              PaymentRollupService paymentRollupService,
+                              StudentBalanceService studentBalanceService,
+                              DomainMetrics domainMetrics) {
         this.paymentRepository = paymentRepository;
         this.studentFeeRepository = studentFeeRepository;
+        this.paymentRollupService = paymentRollupService;
+        this.studentBalanceService = studentBalanceService;
+        this.domainMetrics = domainMetrics;
     }
 
     @Override
     public Payment create(String payerUserId, String studentFeeId, Payment.Method method, BigDecimal amount) {
-        StudentFee sf = studentFeeRepository.findById(studentFeeId).orElseThrow();
-        
-        logger.info("Creating payment - StudentFee ID: {}, Amount: {}, Current Amount Paid: {}, Amount Assigned: {}", 
-                   studentFeeId, amount, sf.getAmountPaid(), sf.getAmountAssigned());
+        return create(null, payerUserId, studentFeeId, method, amount);
+    }
+
+    @Override
+    public Payment create(String paymentId, String payerUserId, String studentFeeId, Payment.Method method, BigDecimal amount) {
+        // Increment and status derivation happen server-side so concurrent postings cannot overwrite each other
+        StudentFee sf = studentFeeRepository.applyPayment(studentFeeId, amount).orElseThrow();
+
+        logger.info("Payment applied - StudentFee ID: {}, Amount: {}, New Amount Paid: {}, Amount Assigned: {}, Status: {}",
+                   studentFeeId, amount, sf.getAmountPaid(), sf.getAmountAssigned(), sf.getStatus());
 
         Payment p = new Payment();
+        p.setId(paymentId);
         p.setStudentFeeId(studentFeeId);
         p.setStudentId(sf.getStudentId()); // Store which student this payment belongs to
         p.setPayerUserId(payerUserId);
         p.setMethod(method);
         p.setAmount(amount);
         p.setPaidAt(Instant.now());
-        paymentRepository.save(p);
-
-        BigDecimal previousAmountPaid = sf.getAmountPaid();
-        sf.setAmountPaid(sf.getAmountPaid().add(amount));
-        
-        logger.info("Payment calculation - Previous Amount Paid: {}, Payment Amount: {}, New Amount Paid: {}, Balance: {}", 
-                   previousAmountPaid, amount, sf.getAmountPaid(), sf.getBalance());
-        
-        if (sf.getAmountPaid().compareTo(sf.getAmountAssigned()) >= 0) {
-            sf.setStatus(StudentFee.Status.PAID);
-            logger.info("Status updated to PAID");
-        } else if (sf.getAmountPaid().signum() > 0) {
-            sf.setStatus(StudentFee.Status.PARTIAL);
-            logger.info("Status updated to PARTIAL");
+        try {
+            // insert, not save: with a caller-chosen id save would upsert, so a replayed id would increment the fee
+            // again while overwriting the one payment document; a duplicate key fails here and is reverted below
+            paymentRepository.insert(p);
+        } catch (RuntimeException ex) {
+            logger.warn("Payment insert failed for StudentFee ID: {}, reverting amount {}", studentFeeId, amount);
+            studentFeeRepository.applyPayment(studentFeeId, amount.negate());
+            throw ex;
         }
-        studentFeeRepository.save(sf);
+        updateRollups(p, sf, 1);
+        updateBalance(p, 1);
+        domainMetrics.paymentPosted(p);
 
         return p;
     }
@@ -77,35 +92,65 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public void deleteById(String id) {
-        paymentRepository.deleteById(id);
+        paymentRepository.removeById(id).ifPresent(payment ->
+                updateRollups(payment, studentFeeRepository.findById(payment.getStudentFeeId()).orElse(null), -1));
     }
 
     @Override
     public void deleteByIdAndRollbackStudentFee(String id) {
         logger.info("Deleting payment with id: {}", id);
-        Payment payment = paymentRepository.findById(id).orElseThrow();
-        logger.debug("Found payment: {}", payment);
-        StudentFee studentFee = studentFeeRepository.findById(payment.getStudentFeeId()).orElseThrow();
-        logger.debug("Found student fee before update: {}", studentFee);
-
-        studentFee.setAmountPaid(studentFee.getAmountPaid().subtract(payment.getAmount()));
-        if (studentFee.getAmountPaid().compareTo(BigDecimal.ZERO) <= 0) {
-            studentFee.setStatus(StudentFee.Status.PENDING);
-        } else {
-            studentFee.setStatus(StudentFee.Status.PARTIAL);
+        // Remove first: only the delete that actually removed the payment reverses it, so concurrent deletes of
+        // the same payment cannot decrement the fee twice
+        Payment payment = paymentRepository.removeById(id).orElseThrow();
+        logger.debug("Removed payment: {}", payment);
+
+        StudentFee studentFee;
+        try {
+            studentFee = studentFeeRepository
+                    .applyPayment(payment.getStudentFeeId(), payment.getAmount().negate())
+                    .orElseThrow();
+        } catch (RuntimeException ex) {
+            logger.warn("Reversal failed for payment {}, restoring it", id);
+            paymentRepository.insert(payment);
+            throw ex;
         }
-        studentFeeRepository.save(studentFee);
         logger.debug("Updated student fee: {}", studentFee);
 
-        paymentRepository.deleteById(id);
+        updateRollups(payment, studentFee, -1);
+        updateBalance(payment, -1);
         logger.info("Payment deleted successfully");
     }
 
+    /**
+     * Rollups are derived data; a failed update is logged rather than failing the payment, and the
+     * rollup rebuild job restores them.
+     */
+    private void updateRollups(Payment payment, StudentFee fee, int sign) {
+        try {
+            paymentRollupService.record(payment, fee, sign);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not update payment rollups for payment {}", payment.getId(), ex);
+        }
+    }
+
+    private void updateBalance(Payment payment, int sign) {
+        try {
+            studentBalanceService.paymentApplied(payment, sign);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not update the balance of student {} for payment {}", payment.getStudentId(), payment.getId(), ex);
+        }
+    }
+
     @Override
     public Payment getById(String id) {
         return paymentRepository.findById(id).orElseThrow();
     }
 
+    @Override
+    public Optional<Payment> findById(String id) {
+        return paymentRepository.findById(id);
+    }
+
     @Override
     public List<Payment> list(Payment.Method method, Instant from, Instant to) {
         logger.info("PaymentService.list() called with method: {}, from: {}, to: {}", method, from, to);
@@ -128,4 +173,9 @@ public class PaymentServiceImpl implements PaymentService {
         logger.info("PaymentService.list() returning {} payments", result.size());
         return result;
     }
+
+    @Override
+    public CursorPage<Payment> page(Payment.Method method, Instant from, Instant to, String cursor, int size) {
+        return paymentRepository.findPage(method, from, to, cursor, size);
+    }
 }
@@ -0,0 +1,13 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+
+public interface ReconciliationService {
+
+    /**
+     * Starts a full pass comparing every {@code StudentFee.amountPaid} with the sum of its payments.
+     *
+     * @param repair whether mismatched fees should be corrected (amountPaid and status) or only reported
+     */
+    JobProgress start(boolean repair);
+}
@@ -0,0 +1,224 @@
+package com.organization.service;
+
+import com.mongodb.client.MongoCursor;
+import com.organization.dto.JobProgress;
+import com.organization.entity.Payment;
+import com.organization.entity.StudentFee;
+import com.organization.repository.IdRange;
+import com.organization.repository.StudentFeeRepository;
+import com.organization.repository.StudentFeeRepositoryCustom.AmountPaidCorrection;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recomputes each fee's paid total from its payments and compares it with the running total kept on the fee.
+ * The {@code _id} space of {@code student_fees} is split into ranges that are processed in parallel; for each
+ * range the payment totals come from one {@code $group} aggregation and the fees are streamed in id order,
+ * so memory is bounded by the size of a single range.
+ * <p>
+ * A posting increments the fee before it inserts the payment, so a scan that reads both in between sees drift
+ * that is not there. A repair therefore only corrects a mismatch that a second read, taken after the batch is
+ * scanned, finds unchanged: the same recorded total and the same payment total. A posting that completed in
+ * between changes one of them and is left for the next run.
+ */
+@Service
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReconciliationServiceImpl.class);
+
+    static final String JOB_TYPE = "ledger-reconciliation";
+
+    private final MongoTemplate mongoTemplate;
+    private final StudentFeeRepository studentFeeRepository;
+    private final JobService jobService;
+    private final int workers;
+    private final int partitionsPerWorker;
+    private final int batchSize;
+
+    public ReconciliationServiceImpl(MongoTemplate mongoTemplate,
+                                     StudentFeeRepository studentFeeRepository,
+                                     JobService jobService,
+                                     @Value("${app.reconciliation.workers:4}") int workers,
+                                     @Value("${app.reconciliation.partitions-per-worker:8}") int partitionsPerWorker,
+                                     @Value("${app.reconciliation.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.studentFeeRepository = studentFeeRepository;
+        this.jobService = jobService;
+        this.workers = workers;
+        this.partitionsPerWorker = partitionsPerWorker;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public JobProgress start(boolean repair) {
+        return jobService.start(JOB_TYPE, progress -> run(progress, repair));
+    }
+
+    private void run(JobProgress progress, boolean repair) throws Exception {
+        String feeCollection = mongoTemplate.getCollectionName(StudentFee.class);
+        List<IdRange> ranges = IdRange.partition(mongoTemplate, feeCollection, workers * partitionsPerWorker);
+        progress.setTotalUnits(ranges.size());
+        logger.info("Reconciling {} in {} ranges on {} workers (repair: {})", feeCollection, ranges.size(), workers, repair);
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (IdRange range : ranges) {
+                futures.add(pool.submit(() -> {
+                    if (!progress.isCancelRequested()) {
+                        reconcileRange(range, repair, progress);
+                        progress.completeUnit();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void reconcileRange(IdRange range, boolean repair, JobProgress progress) {
+        Map<String, PaidTotal> totals = paymentTotals(range);
+        List<Mismatch> suspects = new ArrayList<>();
+
+        Document projection = new Document(StudentFee.Fields.AMOUNT_PAID, 1)
+                .append(StudentFee.Fields.AMOUNT_ASSIGNED, 1)
+                .append(StudentFee.Fields.STATUS, 1);
+        try (MongoCursor<Document> fees = mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .find(range.idFilter())
+                .projection(projection)
+                .batchSize(batchSize)
+                .cursor()) {
+            while (fees.hasNext() && !progress.isCancelRequested()) {
+                Document fee = fees.next();
+                progress.increment("feesScanned");
+
+                Object id = fee.get("_id");
+                PaidTotal actual = totals.remove(id.toString());
+                BigDecimal actualPaid = actual == null ? BigDecimal.ZERO : actual.amount();
+                Object recordedRaw = fee.get(StudentFee.Fields.AMOUNT_PAID);
+                BigDecimal recordedPaid = MongoValues.decimal(recordedRaw);
+
+                if (recordedPaid.compareTo(actualPaid) == 0) {
+                    continue;
+                }
+                progress.increment("mismatches");
+                Map<String, Object> mismatch = new LinkedHashMap<>();
+                mismatch.put("studentFeeId", id.toString());
+                mismatch.put("recordedAmountPaid", recordedPaid);
+                mismatch.put("paymentsTotal", actualPaid);
+                mismatch.put("paymentCount", actual == null ? 0 : actual.count());
+                mismatch.put("status", fee.get(StudentFee.Fields.STATUS));
+                progress.addDetail(mismatch);
+
+                if (repair) {
+                    suspects.add(new Mismatch(id, recordedRaw, recordedPaid, actualPaid));
+                    if (suspects.size() >= batchSize) {
+                        confirmAndRepair(suspects, progress);
+                    }
+                }
+            }
+        }
+        confirmAndRepair(suspects, progress);
+
+        // Whatever is left references a fee id inside this range that does not exist any more
+        if (!progress.isCancelRequested() && !totals.isEmpty()) {
+            progress.increment("orphanedPaymentGroups", totals.size());
+            totals.forEach((studentFeeId, total) -> progress.addDetail(Map.of(
+                    "studentFeeId", studentFeeId,
+                    "orphanedPaymentsTotal", total.amount(),
+                    "paymentCount", total.count())));
+        }
+    }
+
+    private Map<String, PaidTotal> paymentTotals(IdRange range) {
+        return paymentTotals(range.hexFilter(Payment.Fields.STUDENT_FEE_ID));
+    }
+
+    private Map<String, PaidTotal> paymentTotals(Document match) {
+        List<Document> pipeline = List.of(
+                new Document("$match", match),
+                new Document("$group", new Document("_id", "$" + Payment.Fields.STUDENT_FEE_ID)
+                        .append("total", new Document("$sum", new Document("$toDecimal", "$" + Payment.Fields.AMOUNT)))
+                        .append("count", new Document("$sum", 1))));
+
+        Map<String, PaidTotal> totals = new HashMap<>();
+        for (Document group : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Payment.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .batchSize(batchSize)) {
+            totals.put(group.getString("_id"),
+                    new PaidTotal(MongoValues.decimal(group.get("total")), MongoValues.longValue(group.get("count"))));
+        }
+        return totals;
+    }
+
+    /**
+     * Reads the suspects' payments and then their fees again, and corrects only those whose mismatch is exactly
+     * what the scan saw. The correction itself still requires the recorded total to be unchanged at write time.
+     */
+    private void confirmAndRepair(List<Mismatch> suspects, JobProgress progress) {
+        if (suspects.isEmpty()) {
+            return;
+        }
+        List<String> hexIds = new ArrayList<>(suspects.size());
+        List<Object> ids = new ArrayList<>(suspects.size());
+        for (Mismatch suspect : suspects) {
+            hexIds.add(suspect.id().toString());
+            ids.add(suspect.id());
+        }
+        Map<String, PaidTotal> totals = paymentTotals(new Document(Payment.Fields.STUDENT_FEE_ID, new Document("$in", hexIds)));
+        Map<String, BigDecimal> recorded = new HashMap<>();
+        for (Document fee : mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class))
+                .find(new Document("_id", new Document("$in", ids)))
+                .projection(new Document(StudentFee.Fields.AMOUNT_PAID, 1))) {
+            recorded.put(fee.get("_id").toString(), MongoValues.decimal(fee.get(StudentFee.Fields.AMOUNT_PAID)));
+        }
+
+        List<AmountPaidCorrection> corrections = new ArrayList<>();
+        for (Mismatch suspect : suspects) {
+            String key = suspect.id().toString();
+            PaidTotal total = totals.get(key);
+            BigDecimal paymentsNow = total == null ? BigDecimal.ZERO : total.amount();
+            BigDecimal recordedNow = recorded.get(key);
+            if (recordedNow != null && recordedNow.compareTo(suspect.recordedPaid()) == 0
+                    && paymentsNow.compareTo(suspect.paymentsTotal()) == 0) {
+                corrections.add(new AmountPaidCorrection(suspect.id(), suspect.recordedRaw(),
+                        suspect.paymentsTotal().subtract(suspect.recordedPaid())));
+            } else {
+                progress.increment("repairDeferred");
+            }
+        }
+        suspects.clear();
+        if (corrections.isEmpty()) {
+            return;
+        }
+        long repaired = studentFeeRepository.correctAmountPaid(corrections);
+        progress.increment("repaired", repaired);
+        // Fees that changed between the read and the write are left for the next pass
+        progress.increment("repairSkipped", corrections.size() - repaired);
+    }
+
+    private record PaidTotal(BigDecimal amount, long count) {
+    }
+
+    private record Mismatch(Object id, Object recordedRaw, BigDecimal recordedPaid, BigDecimal paymentsTotal) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.organization.service;
+
+import com.organization.dto.JobProgress;
+
+public interface StorageMigrationService {
+
+    /**
+     * Starts a job that rewrites {@code payments} and {@code student_fees} documents still stored with long
+     * field names and string amounts into the compact layout, then rebuilds their indexes. The same migration
+     * runs at startup until it has completed once.
+     */
+    JobProgress compact();
+}
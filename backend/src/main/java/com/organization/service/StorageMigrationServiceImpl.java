@@ -0,0 +1,270 @@
+package com.organization.service;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.organization.dto.JobProgress;
+import com.organization.entity.Payment;
+import com.organization.entity.StudentFee;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves documents written before the compact mapping to short field names and Decimal128 amounts.
+ * <p>
+ * Indexes on the long names are dropped first: documents that lose {@code studentId} and {@code feePlanId}
+ * would otherwise collide on the old unique index. Each batch of ids is then rewritten with one pipeline
+ * {@code updateMany}, so a stopped job simply resumes with the documents that still have long names. The
+ * mapped indexes are recreated at the end. Collection stats and timings of a full {@code $sum} before and
+ * after are recorded in the job details.
+ * <p>
+ * The mapping only reads the short names, so a document still stored with long names would read as empty and a
+ * settle pipeline would take its missing {@code amountPaid} as zero. The migration therefore also runs once at
+ * startup, after the beans are created and before the web server, schedulers and startup listeners begin, and
+ * a failure stops the application from starting. A completed run leaves a marker in {@code migrations} so later
+ * startups skip the scan. Instances of the previous version still writing long names must be stopped first;
+ * documents they write afterwards are only moved by {@code POST /api/migrations/compact-storage}.
+ */
+@Service
+public class StorageMigrationServiceImpl implements StorageMigrationService, SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageMigrationServiceImpl.class);
+
+    static final String JOB_TYPE = "compact-storage-migration";
+
+    static final String MIGRATIONS = "migrations";
+
+    private static final String MARKER_ID = "compact-storage";
+
+    private static final Map<String, String> PAYMENT_FIELDS = Map.of(
+            "studentFeeId", Payment.Fields.STUDENT_FEE_ID,
+            "studentId", Payment.Fields.STUDENT_ID,
+            "payerUserId", Payment.Fields.PAYER_USER_ID,
+            "method", Payment.Fields.METHOD,
+            "amount", Payment.Fields.AMOUNT,
+            "paidAt", Payment.Fields.PAID_AT,
+            "referenceNo", Payment.Fields.REFERENCE_NO,
+            "notes", Payment.Fields.NOTES);
+
+    private static final Map<String, String> STUDENT_FEE_FIELDS = Map.ofEntries(
+            Map.entry("studentId", StudentFee.Fields.STUDENT_ID),
+            Map.entry("feePlanId", StudentFee.Fields.FEE_PLAN_ID),
+            Map.entry("planVersionId", StudentFee.Fields.PLAN_VERSION_ID),
+            Map.entry("course", StudentFee.Fields.COURSE),
+            Map.entry("academicYear", StudentFee.Fields.ACADEMIC_YEAR),
+            Map.entry("amountAssigned", StudentFee.Fields.AMOUNT_ASSIGNED),
+            Map.entry("amountPaid", StudentFee.Fields.AMOUNT_PAID),
+            Map.entry("status", StudentFee.Fields.STATUS),
+            Map.entry("assignedAt", StudentFee.Fields.ASSIGNED_AT),
+            Map.entry("dueDate", StudentFee.Fields.DUE_DATE),
+            Map.entry("overdue", StudentFee.Fields.OVERDUE),
+            Map.entry("penalties", StudentFee.Fields.PENALTIES),
+            Map.entry("lastPenaltyDay", StudentFee.Fields.LAST_PENALTY_DAY));
+
+    private final MongoTemplate mongoTemplate;
+    private final IndexService indexService;
+    private final JobService jobService;
+    private final int batchSize;
+    private final int maxDetails;
+
+    public StorageMigrationServiceImpl(MongoTemplate mongoTemplate,
+                                       IndexService indexService,
+                                       JobService jobService,
+                                       @Value("${app.storage-migration.batch-size:1000}") int batchSize,
+                                       @Value("${app.jobs.max-details:500}") int maxDetails) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexService = indexService;
+        this.jobService = jobService;
+        this.batchSize = batchSize;
+        this.maxDetails = maxDetails;
+    }
+
+    @Override
+    public JobProgress compact() {
+        return jobService.start(JOB_TYPE, progress -> compact(progress, true));
+    }
+
+    /**
+     * Runs on the startup thread, so nothing reads or writes fees and payments until every document has been
+     * moved to the short names.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (mongoTemplate.getCollection(MIGRATIONS).find(new Document("_id", MARKER_ID)).first() != null) {
+            return;
+        }
+        JobProgress progress = new JobProgress(new ObjectId().toHexString(), JOB_TYPE, maxDetails);
+        logger.info("Moving payments and student fees to the compact layout before serving requests");
+        compact(progress, false);
+        logger.info("Compact storage migration at startup finished: {}", progress.getCounters());
+    }
+
+    private void compact(JobProgress progress, boolean benchmark) {
+        MongoCollection<Document> payments = collection(Payment.class);
+        MongoCollection<Document> fees = collection(StudentFee.class);
+        progress.setTotalUnits(2);
+        progress.increment("paymentsToMigrate", countLegacy(payments, PAYMENT_FIELDS));
+        progress.increment("studentFeesToMigrate", countLegacy(fees, STUDENT_FEE_FIELDS));
+
+        recordStats(progress, "before");
+        if (benchmark) {
+            // Legacy amounts are strings, which $sum skips; they have to be converted first
+            recordSum(progress, "before", payments, new Document("$toDecimal", "$amount"));
+        }
+
+        dropLegacyIndexes(payments, PAYMENT_FIELDS, progress);
+        dropLegacyIndexes(fees, STUDENT_FEE_FIELDS, progress);
+
+        rewrite(payments, PAYMENT_FIELDS, paymentStage(), "paymentsMigrated", progress);
+        rewrite(fees, STUDENT_FEE_FIELDS, studentFeeStage(), "studentFeesMigrated", progress);
+        if (progress.isCancelRequested()) {
+            return;
+        }
+
+        indexService.ensureIndexes();
+        mongoTemplate.getCollection(MIGRATIONS).replaceOne(new Document("_id", MARKER_ID),
+                new Document("_id", MARKER_ID).append("completedAt", Date.from(Instant.now()))
+                        .append("paymentsMigrated", progress.getCounters().getOrDefault("paymentsMigrated", 0L))
+                        .append("studentFeesMigrated", progress.getCounters().getOrDefault("studentFeesMigrated", 0L)),
+                new ReplaceOptions().upsert(true));
+
+        recordStats(progress, "after");
+        if (benchmark) {
+            recordSum(progress, "after", payments, "$" + Payment.Fields.AMOUNT);
+        }
+        logger.info("Compact storage migration finished: {}", progress.getCounters());
+    }
+
+    private Document paymentStage() {
+        Document set = new Document();
+        PAYMENT_FIELDS.forEach((legacy, compact) -> set.append(compact, "$" + legacy));
+        set.append(Payment.Fields.AMOUNT, new Document("$toDecimal", "$amount"));
+        return set;
+    }
+
+    private Document studentFeeStage() {
+        Document set = new Document();
+        STUDENT_FEE_FIELDS.forEach((legacy, compact) -> set.append(compact, "$" + legacy));
+        set.append(StudentFee.Fields.AMOUNT_ASSIGNED, decimal("$amountAssigned"));
+        set.append(StudentFee.Fields.AMOUNT_PAID, decimal("$amountPaid"));
+        set.append(StudentFee.Fields.PENALTIES, new Document("$ifNull", List.of(
+                new Document("$map", new Document("input", "$penalties").append("in", new Document()
+                        .append(StudentFee.Fields.PENALTY_DAY, "$$this.day")
+                        .append(StudentFee.Fields.PENALTY_AMOUNT, decimal("$$this.amount"))
+                        .append(StudentFee.Fields.PENALTY_RULE, "$$this.rule"))),
+                "$$REMOVE")));
+        return set;
+    }
+
+    private static Document decimal(String path) {
+        return new Document("$toDecimal", new Document("$ifNull", List.of(path, 0)));
+    }
+
+    /**
+     * Rewrites documents that still have a long field name, one batch of ids at a time. Legacy fields absent
+     * from a document evaluate to missing and are not copied. Each batch resumes after the last id of the
+     * previous one, so documents already rewritten are not scanned again.
+     */
+    private void rewrite(MongoCollection<Document> collection, Map<String, String> fields, Document set,
+                         String counter, JobProgress progress) {
+        Document legacy = legacyFilter(fields);
+        List<Document> pipeline = List.of(
+                new Document("$set", set),
+                new Document("$unset", List.copyOf(fields.keySet())));
+        Object lastId = null;
+        while (!progress.isCancelRequested()) {
+            Document filter = lastId == null ? legacy
+                    : new Document("$and", List.of(new Document("_id", new Document("$gt", lastId)), legacy));
+            List<Object> ids = new ArrayList<>(batchSize);
+            for (Document doc : collection.find(filter)
+                    .projection(new Document("_id", 1))
+                    .sort(new Document("_id", 1))
+                    .limit(batchSize)) {
+                ids.add(doc.get("_id"));
+            }
+            if (ids.isEmpty()) {
+                progress.completeUnit();
+                return;
+            }
+            lastId = ids.get(ids.size() - 1);
+            long modified = collection.updateMany(new Document("_id", new Document("$in", ids)), pipeline)
+                    .getModifiedCount();
+            progress.increment(counter, modified);
+        }
+    }
+
+    private void dropLegacyIndexes(MongoCollection<Document> collection, Map<String, String> fields, JobProgress progress) {
+        for (Document index : collection.listIndexes()) {
+            Document key = index.get("key", Document.class);
+            if (key != null && key.keySet().stream().anyMatch(fields::containsKey)) {
+                collection.dropIndex(index.getString("name"));
+                progress.increment("legacyIndexesDropped");
+                logger.info("Dropped index {} on legacy field names of {}", index.getString("name"),
+                        collection.getNamespace().getCollectionName());
+            }
+        }
+    }
+
+    private static long countLegacy(MongoCollection<Document> collection, Map<String, String> fields) {
+        return collection.countDocuments(legacyFilter(fields));
+    }
+
+    private static Document legacyFilter(Map<String, String> fields) {
+        List<Document> any = new ArrayList<>();
+        fields.keySet().forEach(field -> any.add(new Document(field, new Document("$exists", true))));
+        return new Document("$or", any);
+    }
+
+    private void recordStats(JobProgress progress, String phase) {
+        for (Class<?> type : List.of(Payment.class, StudentFee.class)) {
+            String name = mongoTemplate.getCollectionName(type);
+            Document stats;
+            try {
+                stats = mongoTemplate.executeCommand(new Document("collStats", name));
+            } catch (RuntimeException ex) {
+                // Older servers reject collStats for a collection that has not been created yet, as on a fresh database
+                logger.debug("No stats for {}", name, ex);
+                stats = new Document();
+            }
+            Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("phase", phase);
+            detail.put("collection", name);
+            detail.put("count", stats.get("count"));
+            detail.put("avgObjSize", stats.get("avgObjSize"));
+            detail.put("size", stats.get("size"));
+            detail.put("storageSize", stats.get("storageSize"));
+            detail.put("totalIndexSize", stats.get("totalIndexSize"));
+            progress.addDetail(detail);
+        }
+    }
+
+    private void recordSum(JobProgress progress, String phase, MongoCollection<Document> payments, Object amount) {
+        long started = System.nanoTime();
+        Document total = payments.aggregate(List.of(new Document("$group", new Document("_id", null)
+                        .append("total", new Document("$sum", amount)))))
+                .allowDiskUse(true)
+                .first();
+        Map<String, Object> detail = new LinkedHashMap<>();
+        detail.put("phase", phase);
+        detail.put("benchmark", "payments $sum");
+        detail.put("total", total == null ? null : String.valueOf(total.get("total")));
+        detail.put("millis", (System.nanoTime() - started) / 1_000_000);
+        progress.addDetail(detail);
+    }
+
+    private MongoCollection<Document> collection(Class<?> type) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(type));
+    }
+}
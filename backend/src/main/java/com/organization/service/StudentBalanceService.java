@@ -0,0 +1,63 @@
+package com.organization.service;
+
+import com.organization.dto.CursorPage;
+import com.organization.dto.JobProgress;
+import com.organization.entity.Payment;
+import com.organization.entity.StudentBalance;
+import com.organization.entity.StudentFee;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface StudentBalanceService {
+
+    void feeAssigned(StudentFee fee);
+
+    /**
+     * Applies a batch of new assignments with one update per student.
+     */
+    void feesAssigned(Collection<StudentFee> fees);
+
+    /**
+     * Moves the assigned totals by amounts charged or repriced on existing fees, keyed by student id.
+     */
+    void assignedIncreased(Map<String, BigDecimal> amountsByStudent);
+
+    /**
+     * Removes the fee's assigned and paid amounts from the student's totals.
+     */
+    void feeRemoved(StudentFee fee);
+
+    /**
+     * Applies a payment ({@code sign} 1) or its reversal ({@code sign} -1) to the student's totals.
+     */
+    void paymentApplied(Payment payment, int sign);
+
+    /**
+     * Applies a batch of posted payments with one update per student.
+     */
+    void paymentsApplied(Collection<Payment> payments);
+
+    /**
+     * Recounts the overdue fees of each student, after a due date change or when fees become overdue.
+     */
+    void refreshOverdue(Collection<String> studentIds);
+
+    void studentRemoved(String studentId);
+
+    StudentBalance get(String studentId);
+
+    List<StudentBalance> list(BigDecimal minBalance, BigDecimal maxBalance, Sort.Direction direction);
+
+    CursorPage<StudentBalance> page(BigDecimal minBalance, BigDecimal maxBalance, Sort.Direction direction,
+                                    String cursor, int size);
+
+    /**
+     * Recomputes every balance from {@code students}, {@code student_fees} and {@code payments} while live updates
+     * keep landing, then removes the balances of students that no longer exist.
+     */
+    JobProgress rebuild();
+}
@@ -0,0 +1,391 @@
+package com.organization.service;
+
+import com.organization.dto.CursorPage;
+import com.organization.dto.JobProgress;
+import com.organization.entity.Payment;
+import com.organization.entity.Student;
+import com.organization.entity.StudentBalance;
+import com.organization.entity.StudentFee;
+import com.organization.repository.StudentBalanceRepository;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Balances are derived data kept next to the fees rather than inside the same write: there are no multi-document
+ * transactions here, so a balance lags its fee write by one round trip and can miss an update when that write fails.
+ * <p>
+ * Totals move by {@code $inc} so concurrent changes compose. The overdue count is not recounted per change; the
+ * students touched are queued and recounted together by {@link #repair()}. When a balance write fails, the students
+ * it covered are queued for an exact recompute from their fees and payments on the next repair instead. The queues
+ * live in memory, so a crash between a fee write and its balance update is only repaired by {@link #rebuild()}.
+ */
+@Service
+public class StudentBalanceServiceImpl implements StudentBalanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentBalanceServiceImpl.class);
+
+    static final String JOB_TYPE = "student-balance-rebuild";
+
+    // Set by recompute only (from the application clock, like updatedAt), so a live update during a rebuild
+    // can be told apart by its later updatedAt
+    static final String REBUILT_AT = "rebuiltAt";
+
+    private static final int REFRESH_BATCH_SIZE = 1000;
+
+    // Passes over students changed while a rebuild was recomputing them, before the rest is left to repair()
+    private static final int REBUILD_CATCH_UP_PASSES = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final StudentBalanceRepository studentBalanceRepository;
+    private final JobService jobService;
+    private final Set<String> overdueStale = ConcurrentHashMap.newKeySet();
+    private final Set<String> totalsStale = ConcurrentHashMap.newKeySet();
+
+    public StudentBalanceServiceImpl(MongoTemplate mongoTemplate,
+                                     StudentBalanceRepository studentBalanceRepository,
+                                     JobService jobService) {
+        this.mongoTemplate = mongoTemplate;
+        this.studentBalanceRepository = studentBalanceRepository;
+        this.jobService = jobService;
+    }
+
+    @Override
+    public void feeAssigned(StudentFee fee) {
+        adjust(fee.getStudentId(), fee.getAmountAssigned(), BigDecimal.ZERO, null);
+    }
+
+    @Override
+    public void feesAssigned(Collection<StudentFee> fees) {
+        Map<String, BigDecimal> assigned = new HashMap<>();
+        for (StudentFee fee : fees) {
+            if (fee.getStudentId() != null) {
+                assigned.merge(fee.getStudentId(), orZero(fee.getAmountAssigned()), BigDecimal::add);
+            }
+        }
+        assignedIncreased(assigned);
+    }
+
+    @Override
+    public void assignedIncreased(Map<String, BigDecimal> amountsByStudent) {
+        if (amountsByStudent.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        write(amountsByStudent.keySet(), () -> {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StudentBalance.class);
+            amountsByStudent.forEach((studentId, amount) -> bulk.upsert(byStudent(studentId),
+                    increment(amount, BigDecimal.ZERO, null, now)));
+            bulk.execute();
+        });
+    }
+
+    @Override
+    public void feeRemoved(StudentFee fee) {
+        adjust(fee.getStudentId(), orZero(fee.getAmountAssigned()).negate(), orZero(fee.getAmountPaid()).negate(), null);
+    }
+
+    @Override
+    public void paymentApplied(Payment payment, int sign) {
+        BigDecimal amount = sign < 0 ? payment.getAmount().negate() : payment.getAmount();
+        adjust(payment.getStudentId(), BigDecimal.ZERO, amount, sign < 0 ? null : payment.getPaidAt());
+    }
+
+    @Override
+    public void paymentsApplied(Collection<Payment> payments) {
+        Map<String, BigDecimal> paid = new HashMap<>();
+        Map<String, Instant> latest = new HashMap<>();
+        for (Payment payment : payments) {
+            if (payment.getStudentId() == null) {
+                continue;
+            }
+            paid.merge(payment.getStudentId(), payment.getAmount(), BigDecimal::add);
+            latest.merge(payment.getStudentId(), payment.getPaidAt(), (a, b) -> a.isAfter(b) ? a : b);
+        }
+        if (paid.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        write(paid.keySet(), () -> {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StudentBalance.class);
+            paid.forEach((studentId, amount) -> bulk.upsert(byStudent(studentId),
+                    increment(BigDecimal.ZERO, amount, latest.get(studentId), now)));
+            bulk.execute();
+        });
+    }
+
+    @Override
+    public void refreshOverdue(Collection<String> studentIds) {
+        List<String> ids = List.copyOf(studentIds);
+        for (int from = 0; from < ids.size(); from += REFRESH_BATCH_SIZE) {
+            Set<String> chunk = Set.copyOf(ids.subList(from, Math.min(from + REFRESH_BATCH_SIZE, ids.size())));
+            Map<String, Integer> overdue = countOverdue(chunk);
+            Instant now = Instant.now();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, StudentBalance.class);
+            chunk.forEach(studentId -> bulk.upsert(byStudent(studentId), new Update()
+                    .set("overdueCount", overdue.getOrDefault(studentId, 0))
+                    .setOnInsert("totalAssigned", new Decimal128(BigDecimal.ZERO))
+                    .setOnInsert("totalPaid", new Decimal128(BigDecimal.ZERO))
+                    .setOnInsert("balance", new Decimal128(BigDecimal.ZERO))
+                    .set("updatedAt", now)));
+            bulk.execute();
+        }
+    }
+
+    /**
+     * Recounts the overdue fees of the students changed since the last run and recomputes the totals of those
+     * whose balance update failed. Students that still cannot be written stay queued for the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.student-balances.repair-interval:5s}")
+    public void repair() {
+        Set<String> totals = drain(totalsStale);
+        if (!totals.isEmpty()) {
+            try {
+                recompute(totals, Instant.now());
+                logger.info("Recomputed the balances of {} students after failed updates", totals.size());
+            } catch (RuntimeException ex) {
+                totalsStale.addAll(totals);
+                logger.warn("Could not recompute the balances of {} students; will retry", totals.size(), ex);
+            }
+        }
+
+        Set<String> overdue = drain(overdueStale);
+        overdue.removeAll(totals);
+        if (!overdue.isEmpty()) {
+            try {
+                refreshOverdue(overdue);
+            } catch (RuntimeException ex) {
+                overdueStale.addAll(overdue);
+                logger.warn("Could not recount overdue fees of {} students; will retry", overdue.size(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void studentRemoved(String studentId) {
+        studentBalanceRepository.deleteById(studentId);
+    }
+
+    @Override
+    public StudentBalance get(String studentId) {
+        return studentBalanceRepository.findById(studentId).orElseGet(() -> {
+            StudentBalance empty = new StudentBalance();
+            empty.setStudentId(studentId);
+            return empty;
+        });
+    }
+
+    @Override
+    public List<StudentBalance> list(BigDecimal minBalance, BigDecimal maxBalance, Sort.Direction direction) {
+        return studentBalanceRepository.findByBalance(minBalance, maxBalance, direction);
+    }
+
+    @Override
+    public CursorPage<StudentBalance> page(BigDecimal minBalance, BigDecimal maxBalance, Sort.Direction direction,
+                                           String cursor, int size) {
+        return studentBalanceRepository.findPage(minBalance, maxBalance, direction, cursor, size);
+    }
+
+    private void adjust(String studentId, BigDecimal assignedDelta, BigDecimal paidDelta, Instant paidAt) {
+        if (studentId == null) {
+            return;
+        }
+        write(Set.of(studentId), () -> mongoTemplate.upsert(byStudent(studentId),
+                increment(orZero(assignedDelta), paidDelta, paidAt, Instant.now()), StudentBalance.class));
+    }
+
+    /**
+     * Runs a balance write for {@code studentIds}. On success their overdue counts are queued for a recount; on
+     * failure their totals are queued for a recompute and the exception still reaches the caller.
+     */
+    private void write(Set<String> studentIds, Runnable update) {
+        try {
+            update.run();
+        } catch (RuntimeException ex) {
+            totalsStale.addAll(studentIds);
+            throw ex;
+        }
+        overdueStale.addAll(studentIds);
+    }
+
+    private static Set<String> drain(Set<String> queue) {
+        Set<String> drained = new HashSet<>();
+        for (Iterator<String> it = queue.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private Map<String, Integer> countOverdue(Set<String> studentIds) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document(StudentFee.Fields.STUDENT_ID, new Document("$in", List.copyOf(studentIds)))
+                        .append(StudentFee.Fields.STATUS, new Document("$in", StudentFee.UNPAID_STATUSES))
+                        .append(StudentFee.Fields.DUE_DATE, new Document("$lt", Date.from(Instant.now())))),
+                new Document("$group", new Document("_id", "$" + StudentFee.Fields.STUDENT_ID)
+                        .append("count", new Document("$sum", 1))));
+        Map<String, Integer> counts = new HashMap<>();
+        for (Document row : mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentFee.class)).aggregate(pipeline)) {
+            counts.put(row.getString("_id"), (int) MongoValues.longValue(row.get("count")));
+        }
+        return counts;
+    }
+
+    private static Query byStudent(String studentId) {
+        return new Query(Criteria.where("_id").is(studentId));
+    }
+
+    private static Update increment(BigDecimal assignedDelta, BigDecimal paidDelta, Instant paidAt, Instant now) {
+        Update update = new Update()
+                .inc("totalAssigned", new Decimal128(assignedDelta))
+                .inc("totalPaid", new Decimal128(paidDelta))
+                .inc("balance", new Decimal128(assignedDelta.subtract(paidDelta)))
+                .setOnInsert("overdueCount", 0)
+                .set("updatedAt", now);
+        if (paidAt != null) {
+            update.max("lastPaymentAt", paidAt);
+        }
+        return update;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    @Override
+    public JobProgress rebuild() {
+        return jobService.start(JOB_TYPE, this::rebuild);
+    }
+
+    /**
+     * Overwrites every student's balance with totals recomputed from its fees and payments, one document at a
+     * time, so balances stay readable and live updates keep landing throughout. A live update that lands between
+     * the read of a student's fees and the write of its totals would be overwritten, so students updated after the
+     * rebuild started are recomputed again; anything still racing after that is left to {@link #repair()}.
+     * Balances of students that no longer exist are removed last.
+     */
+    private void rebuild(JobProgress progress) {
+        Instant startedAt = Instant.now();
+        progress.setTotalUnits(3);
+
+        recompute(null, startedAt);
+        progress.completeUnit();
+        if (progress.isCancelRequested()) {
+            return;
+        }
+
+        Instant passStartedAt = startedAt;
+        for (int pass = 0; pass < REBUILD_CATCH_UP_PASSES; pass++) {
+            Set<String> touched = updatedSince(passStartedAt);
+            if (touched.isEmpty()) {
+                break;
+            }
+            passStartedAt = Instant.now();
+            recompute(touched, passStartedAt);
+            progress.increment("balancesRecomputedAgain", touched.size());
+        }
+        progress.completeUnit();
+
+        progress.increment("balancesRemoved", mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentBalance.class))
+                .deleteMany(new Document("$and", List.of(
+                        new Document("$or", List.of(
+                                new Document(REBUILT_AT, new Document("$exists", false)),
+                                new Document(REBUILT_AT, new Document("$lt", Date.from(startedAt))))),
+                        new Document("$or", List.of(
+                                new Document("updatedAt", new Document("$exists", false)),
+                                new Document("updatedAt", new Document("$lt", Date.from(startedAt))))))))
+                .getDeletedCount());
+        progress.completeUnit();
+
+        progress.increment("balancesWritten",
+                mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentBalance.class)).countDocuments());
+        logger.info("Student balances rebuilt: {}", progress.getCounters());
+    }
+
+    private Set<String> updatedSince(Instant since) {
+        Set<String> ids = new HashSet<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(StudentBalance.class))
+                .find(new Document("updatedAt", new Document("$gte", Date.from(since))))
+                .projection(new Document("_id", 1))
+                .forEach(row -> ids.add(row.get("_id").toString()));
+        return ids;
+    }
+
+    /**
+     * Recomputes the balances of {@code studentIds}, or of every student when {@code null}, on the server: each
+     * student's fees and payments are looked up on their {@code sid} indexes and the totals, overdue count and
+     * latest payment are merged over its balance document, stamped with {@code rebuiltAt}.
+     */
+    private void recompute(Set<String> studentIds, Instant rebuiltAt) {
+        Decimal128 zero = new Decimal128(BigDecimal.ZERO);
+        Document overdue = new Document("$and", List.of(
+                new Document("$in", List.of("$" + StudentFee.Fields.STATUS, StudentFee.UNPAID_STATUSES)),
+                new Document("$lt", List.of("$" + StudentFee.Fields.DUE_DATE, "$$NOW"))));
+
+        List<Document> pipeline = new ArrayList<>();
+        if (studentIds != null) {
+            pipeline.add(new Document("$match", new Document("_id", new Document("$in",
+                    studentIds.stream().map(StudentBalanceServiceImpl::studentKey).toList()))));
+        }
+        pipeline.add(new Document("$project", new Document("_id", 1).append("key", new Document("$toString", "$_id"))));
+        pipeline.add(new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(StudentFee.class))
+                .append("localField", "key")
+                .append("foreignField", StudentFee.Fields.STUDENT_ID)
+                .append("pipeline", List.of(new Document("$group", new Document("_id", null)
+                        .append("totalAssigned", new Document("$sum", new Document("$toDecimal",
+                                new Document("$ifNull", List.of("$" + StudentFee.Fields.AMOUNT_ASSIGNED, 0)))))
+                        .append("totalPaid", new Document("$sum", new Document("$toDecimal",
+                                new Document("$ifNull", List.of("$" + StudentFee.Fields.AMOUNT_PAID, 0)))))
+                        .append("overdueCount", new Document("$sum", new Document("$cond", List.of(overdue, 1, 0)))))))
+                .append("as", "fees")));
+        pipeline.add(new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(Payment.class))
+                .append("localField", "key")
+                .append("foreignField", Payment.Fields.STUDENT_ID)
+                .append("pipeline", List.of(new Document("$group", new Document("_id", null)
+                        .append("lastPaymentAt", new Document("$max", "$" + Payment.Fields.PAID_AT)))))
+                .append("as", "payments")));
+        pipeline.add(new Document("$project", new Document("_id", 1)
+                .append("totalAssigned", new Document("$ifNull", List.of(new Document("$first", "$fees.totalAssigned"), zero)))
+                .append("totalPaid", new Document("$ifNull", List.of(new Document("$first", "$fees.totalPaid"), zero)))
+                .append("overdueCount", new Document("$ifNull", List.of(new Document("$first", "$fees.overdueCount"), 0)))
+                .append("lastPaymentAt", new Document("$first", "$payments.lastPaymentAt"))
+                .append(REBUILT_AT, new Document("$literal", Date.from(rebuiltAt)))));
+        pipeline.add(new Document("$set", new Document("balance", new Document("$subtract", List.of("$totalAssigned", "$totalPaid")))));
+        pipeline.add(new Document("$merge", new Document("into", mongoTemplate.getCollectionName(StudentBalance.class))
+                .append("on", "_id").append("whenMatched", "merge").append("whenNotMatched", "insert")));
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Student.class)).aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+    }
+
+    // Student ids are stored as ObjectIds when they look like one, as Spring Data maps a String @Id
+    private static Object studentKey(String studentId) {
+        return ObjectId.isValid(studentId) ? new ObjectId(studentId) : studentId;
+    }
+}
@@ -0,0 +1,37 @@
+package com.organization.service;
+
+import com.organization.entity.FeePlanVersion;
+import com.organization.entity.StudentFee;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the plan amounts of every fee read from Mongo from its plan version, so callers and serialized responses
+ * see the same fields as before versioning. Versions come from the in-process cache.
+ */
+@Component
+class StudentFeePlanCallback implements AfterConvertCallback<StudentFee> {
+
+    private final FeePlanVersionService feePlanVersionService;
+
+    StudentFeePlanCallback(FeePlanVersionService feePlanVersionService) {
+        this.feePlanVersionService = feePlanVersionService;
+    }
+
+    @Override
+    public StudentFee onAfterConvert(StudentFee fee, Document document, String collection) {
+        if (fee.getPlanVersionId() == null) {
+            return fee;
+        }
+        FeePlanVersion version = feePlanVersionService.get(fee.getPlanVersionId());
+        if (version != null) {
+            fee.setTuition(version.getTuition());
+            fee.setHostel(version.getHostel());
+            fee.setLibrary(version.getLibrary());
+            fee.setLab(version.getLab());
+            fee.setSports(version.getSports());
+        }
+        return fee;
+    }
+}
@@ -1,5 +1,6 @@
 package com.organization.service;
 
+import com.organization.dto.CursorPage;
 import com.organization.entity.StudentFee;
 
 import java.time.Instant;
@@ -8,6 +9,8 @@ import java.util.List;
 public interface StudentFeeService {
     StudentFee assign(String studentId, String feePlanId, Instant dueDate);
     List<StudentFee> listAll();
+    CursorPage<StudentFee> page(String cursor, int size);
+    CursorPage<StudentFee> overduePage(String cursor, int size);
     List<StudentFee> listMine(String studentId);
     StudentFee updateDueDate(String id, Instant dueDate);
     void deleteIfNoPayments(String id);
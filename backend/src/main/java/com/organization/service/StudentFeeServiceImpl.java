@@ -1,55 +1,60 @@
 package com.organization.service;
 
+import com.organization.dto.CursorPage;
 import com.organization.entity.FeePlan;
+import com.organization.entity.FeePlanVersion;
 import com.organization.entity.Payment;
 import com.organization.entity.Student;
 import com.organization.entity.StudentFee;
+import com.organization.monitoring.DomainMetrics;
 import com.organization.repository.FeePlanRepository;
 import com.organization.repository.PaymentRepository;
 import com.organization.repository.StudentFeeRepository;
 import com.organization.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class StudentFeeServiceImpl implements StudentFeeService {
 
+    private static final Logger logger = LoggerFactory.getLogger(StudentFeeServiceImpl.class);
+
     private final StudentFeeRepository studentFeeRepository;
     private final FeePlanRepository feePlanRepository;
     private final PaymentRepository paymentRepository;
     private final StudentRepository studentRepository;
+    private final PaymentRollupService paymentRollupService;
+    private final StudentBalanceService studentBalanceService;
+    private final FeePlanVersionService feePlanVersionService;
+    private final DomainMetrics domainMetrics;
 
     public StudentFeeServiceImpl(StudentFeeRepository studentFeeRepository,
                                  FeePlanRepository feePlanRepository,
                                  PaymentRepository paymentRepository,
-                                 StudentRepository studentRepository) {
+                                 StudentRepository studentRepository,
+                                 PaymentRollupService paymentRollupService,
+                                 StudentBalanceService studentBalanceService,
+                                 FeePlanVersionService feePlanVersionService,
+                                 DomainMetrics domainMetrics) {
         this.studentFeeRepository = studentFeeRepository;
         this.feePlanRepository = feePlanRepository;
         this.paymentRepository = paymentRepository;
         this.studentRepository = studentRepository;
+        this.paymentRollupService = paymentRollupService;
+        this.studentBalanceService = studentBalanceService;
+        this.feePlanVersionService = feePlanVersionService;
+        this.domainMetrics = domainMetrics;
     }
 
     @Override
     public StudentFee assign(String studentId, String feePlanId, Instant dueDate) {
         FeePlan plan = feePlanRepository.findById(feePlanId).orElseThrow();
-        String[] planYears = plan.getAcademicYear().split("-");
-        if (planYears.length != 2) {
-            throw new IllegalStateException("Fee plan academic year is invalid");
-        }
-
-        int planStartYear;
-        int planEndYear;
-        try {
-            planStartYear = Integer.parseInt(planYears[0].trim());
-            planEndYear = Integer.parseInt(planYears[1].trim());
-        } catch (NumberFormatException ex) {
-            throw new IllegalStateException("Fee plan academic year is invalid");
-        }
+        FeeAssignments.PlanYears years = FeeAssignments.planYears(plan);
 
         boolean alreadyAssigned = studentFeeRepository
                 .existsByStudentIdAndFeePlanIdAndAcademicYear(studentId, plan.getId(), plan.getAcademicYear());
@@ -59,49 +64,13 @@ public class StudentFeeServiceImpl implements StudentFeeService {
         }
 
         Student student = studentRepository.findById(studentId).orElseThrow();
-        List<Student.CourseEnrollment> courses = student.getEffectiveCourses();
-
-        boolean courseMatches = courses.stream()
-                .map(Student.CourseEnrollment::getCourseName)
-                .filter(Objects::nonNull)
-                .anyMatch(name -> name.equalsIgnoreCase(plan.getCourse()));
-
-        if (!courseMatches) {
-            String studentCourses = courses.stream()
-                    .map(Student.CourseEnrollment::getCourseName)
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .collect(Collectors.joining(", "));
-            throw new IllegalStateException(
-                    "Fee plan course must match one of the student's enrolled courses. Student courses: "
-                            + (studentCourses.isEmpty() ? "None" : studentCourses));
-        }
+        Student.CourseEnrollment matchingCourse = FeeAssignments.matchingEnrollment(student, plan, years);
 
-        Student.CourseEnrollment matchingCourse = courses.stream()
-                .filter(courseEnrollment ->
-                        courseEnrollment.getStartYear() != null &&
-                                courseEnrollment.getEndYear() != null &&
-                                planStartYear >= courseEnrollment.getStartYear() &&
-                                planEndYear <= courseEnrollment.getEndYear())
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("Fee plan academic year must fall within the student's course duration"));
-
-        StudentFee sf = new StudentFee();
-        sf.setStudentId(studentId);
-        sf.setFeePlanId(plan.getId());
-        sf.setCourse(matchingCourse.getCourseName());
-        sf.setAcademicYear(plan.getAcademicYear());
-        sf.setTuition(plan.getTuition());
-        sf.setHostel(plan.getHostel());
-        sf.setLibrary(plan.getLibrary());
-        sf.setLab(plan.getLab());
-        sf.setSports(plan.getSports());
-        sf.setAmountAssigned(plan.getTotal());
-        sf.setAmountPaid(BigDecimal.ZERO);
-        sf.setStatus(StudentFee.Status.PENDING);
-        sf.setAssignedAt(Instant.now());
-        sf.setDueDate(dueDate);
-        return studentFeeRepository.save(sf);
+        FeePlanVersion version = feePlanVersionService.snapshot(plan);
+        StudentFee saved = studentFeeRepository.save(FeeAssignments.newStudentFee(studentId, version, matchingCourse, dueDate));
+        updateBalance(saved.getStudentId(), () -> studentBalanceService.feeAssigned(saved));
+        domainMetrics.feesAssigned(1);
+        return saved;
     }
 
     @Override
@@ -109,6 +78,16 @@ public class StudentFeeServiceImpl implements StudentFeeService {
         return studentFeeRepository.findAll();
     }
 
+    @Override
+    public CursorPage<StudentFee> page(String cursor, int size) {
+        return studentFeeRepository.findPage(cursor, size);
+    }
+
+    @Override
+    public CursorPage<StudentFee> overduePage(String cursor, int size) {
+        return studentFeeRepository.findOverduePage(Instant.now(), cursor, size);
+    }
+
     @Override
     public List<StudentFee> listMine(String studentId) {
         return studentFeeRepository.findByStudentId(studentId);
@@ -116,17 +95,37 @@ public class StudentFeeServiceImpl implements StudentFeeService {
 
     @Override
     public StudentFee updateDueDate(String id, Instant dueDate) {
-        StudentFee sf = studentFeeRepository.findById(id).orElseThrow();
-        sf.setDueDate(dueDate);
-        return studentFeeRepository.save(sf);
+        // A targeted update: saving the whole entity would drop the read-only plan amounts of unversioned fees
+        StudentFee saved = studentFeeRepository.updateDueDate(id, dueDate).orElseThrow();
+        updateBalance(saved.getStudentId(), () -> studentBalanceService.refreshOverdue(List.of(saved.getStudentId())));
+        return saved;
     }
 
     @Override
     public void deleteIfNoPayments(String id) {
+        StudentFee fee = studentFeeRepository.findById(id).orElse(null);
         List<Payment> payments = paymentRepository.findByStudentFeeId(id);
         if (!payments.isEmpty()) {
             paymentRepository.deleteAll(payments);
+            if (fee != null) {
+                paymentRollupService.recordAll(payments, Map.of(fee.getId(), fee), -1);
+            }
         }
         studentFeeRepository.deleteById(id);
+        if (fee != null) {
+            updateBalance(fee.getStudentId(), () -> studentBalanceService.feeRemoved(fee));
+        }
+    }
+
+    /**
+     * Balances are derived data; a failed update is logged and the balance service recomputes the student's
+     * balance on its next repair.
+     */
+    private void updateBalance(String studentId, Runnable update) {
+        try {
+            update.run();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not update the balance of student {}", studentId, ex);
+        }
     }
 }
@@ -3,14 +3,22 @@ package com.organization.service;
 import java.util.List;
 
 
+import com.organization.dto.CursorPage;
 import com.organization.entity.Student;
 
 public interface StudentService {
 
 	List<Student> findAll();
 
+	CursorPage<Student> findPage(String cursor, int size);
+
 	Student findById(String id);
 
+	/**
+	 * Students enrolled in {@code course} at any point during {@code academicYear} ("2025-2026").
+	 */
+	CursorPage<Student> findEnrolled(String course, String academicYear, String cursor, int size);
+
 	Student save(Student student);
 
 	List<Student> saveAll(List<Student> studentList);
@@ -13,6 +13,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.organization.dto.CursorPage;
 import com.organization.entity.Student;
 import com.organization.exception.StudentApiException;
 import com.organization.exception.StudentNotFoundException;
@@ -25,11 +26,19 @@ public class StudentServiceImpl implements StudentService {
 	@Autowired
 	private StudentRepository repository;
 
+	@Autowired
+	private StudentBalanceService studentBalanceService;
+
 	@Override
 	public List<Student> findAll() {
 		return repository.findAll();
 	}
 
+	@Override
+	public CursorPage<Student> findPage(String cursor, int size) {
+		return repository.findPage(cursor, size);
+	}
+
 	@Override
 	public Student findById(String id) {
 		Optional<Student> optional = repository.findById(id);
@@ -40,6 +49,27 @@ public class StudentServiceImpl implements StudentService {
 		
 	}
 
+	@Override
+	public CursorPage<Student> findEnrolled(String course, String academicYear, String cursor, int size) {
+		if (course == null || course.isBlank()) {
+			throw new StudentApiException(HttpStatus.BAD_REQUEST, "Course is required");
+		}
+		String[] years = academicYear == null ? new String[0] : academicYear.split("-");
+		int startYear = 0;
+		int endYear = 0;
+		if (years.length == 2) {
+			try {
+				startYear = Integer.parseInt(years[0].trim());
+				endYear = Integer.parseInt(years[1].trim());
+			} catch (NumberFormatException ignored) {
+			}
+		}
+		if (endYear <= startYear) {
+			throw new StudentApiException(HttpStatus.BAD_REQUEST, "Academic year must look like 2025-2026");
+		}
+		return repository.findEnrolledPage(course.trim(), startYear, endYear, cursor, size);
+	}
+
 	@Transactional
 	@Override
 	public Student save(Student student) {
@@ -51,6 +81,7 @@ public class StudentServiceImpl implements StudentService {
 	@Override
 	public void deleteById(String id) {
 		repository.deleteById(id);
+		studentBalanceService.studentRemoved(id);
 
 	}
 
@@ -0,0 +1,20 @@
+package com.organization.service;
+
+import com.organization.dto.WriteBehindStats;
+import com.organization.entity.Payment;
+import com.organization.entity.PendingPayment;
+
+import java.math.BigDecimal;
+
+public interface WriteBehindPaymentService {
+
+    /**
+     * Journals the payment as pending and queues it for the background committer.
+     * Fails with 429 when the queue is full and 503 when write-behind posting is disabled.
+     */
+    PendingPayment submit(String payerUserId, String studentFeeId, Payment.Method method, BigDecimal amount);
+
+    PendingPayment getPending(String id);
+
+    WriteBehindStats stats();
+}
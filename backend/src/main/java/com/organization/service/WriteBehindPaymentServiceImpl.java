@@ -0,0 +1,283 @@
+package com.organization.service;
+
+import com.mongodb.WriteConcern;
+import com.organization.dto.WriteBehindStats;
+import com.organization.entity.Payment;
+import com.organization.entity.PendingPayment;
+import com.organization.exception.BackpressureException;
+import com.organization.exception.StudentApiException;
+import com.organization.repository.PendingPaymentRepository;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Accepts payments with a single journaled insert into {@code pending_payments} and posts them from one
+ * committer thread. The committer drains up to {@code batch-size} entries (waiting at most {@code linger}
+ * for a batch to fill) and hands them to {@link PaymentBatchPoster}, which coalesces payments to the same fee
+ * into one increment. Capacity is reserved before the insert and released once the batch is committed, so the
+ * number of acknowledged but uncommitted payments never exceeds {@code capacity}.
+ * <p>
+ * The pending id doubles as the payment id. Entries still {@code QUEUED} at startup, or left by a failed commit,
+ * are replayed; the poster applies each payment's increment exactly once even if the earlier attempt had already
+ * stored the payment, applied the increment, or both.
+ */
+@Service
+public class WriteBehindPaymentServiceImpl implements WriteBehindPaymentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindPaymentServiceImpl.class);
+
+    private static final long POLL_MILLIS = 500;
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+
+    private final PaymentBatchPoster paymentBatchPoster;
+    private final PendingPaymentRepository pendingPaymentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration linger;
+    private final Duration retryAfter;
+
+    private final Semaphore permits;
+    private final BlockingQueue<PendingPayment> queue = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread committer;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejectedByBackpressure = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedPayments = new AtomicLong();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final AtomicLong commitMillis = new AtomicLong();
+    private final AtomicLong maxCommitMillis = new AtomicLong();
+
+    public WriteBehindPaymentServiceImpl(PaymentBatchPoster paymentBatchPoster,
+                                         PendingPaymentRepository pendingPaymentRepository,
+                                         MongoTemplate mongoTemplate,
+                                         @Value("${app.payments.write-behind.enabled:false}") boolean enabled,
+                                         @Value("${app.payments.write-behind.capacity:10000}") int capacity,
+                                         @Value("${app.payments.write-behind.batch-size:500}") int batchSize,
+                                         @Value("${app.payments.write-behind.linger:20ms}") Duration linger,
+                                         @Value("${app.payments.write-behind.retry-after:1s}") Duration retryAfter) {
+        this.paymentBatchPoster = paymentBatchPoster;
+        this.pendingPaymentRepository = pendingPaymentRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.retryAfter = retryAfter;
+        this.permits = new Semaphore(capacity);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        Instant startedAt = Instant.now();
+        running = true;
+        committer = new Thread(() -> {
+            recover(startedAt);
+            drain();
+        }, "payment-committer");
+        committer.setDaemon(true);
+        committer.start();
+        logger.info("Write-behind payment posting enabled: capacity={}, batchSize={}, linger={}", capacity, batchSize, linger);
+    }
+
+    @Override
+    public PendingPayment submit(String payerUserId, String studentFeeId, Payment.Method method, BigDecimal amount) {
+        if (!enabled) {
+            throw new StudentApiException(HttpStatus.SERVICE_UNAVAILABLE, "Asynchronous payment posting is disabled");
+        }
+        if (!permits.tryAcquire()) {
+            rejectedByBackpressure.incrementAndGet();
+            throw new BackpressureException(HttpStatus.TOO_MANY_REQUESTS, "Payment queue is full",
+                    Math.max(1, retryAfter.toSeconds()));
+        }
+
+        PendingPayment pending = new PendingPayment(new ObjectId().toHexString(), studentFeeId, payerUserId, method, amount);
+        try {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(pending, document);
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(PendingPayment.class))
+                    .withWriteConcern(WriteConcern.JOURNALED)
+                    .insertOne(document);
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+        queue.add(pending);
+        accepted.incrementAndGet();
+        return pending;
+    }
+
+    @Override
+    public PendingPayment getPending(String id) {
+        return pendingPaymentRepository.findById(id)
+                .orElseThrow(() -> new StudentApiException(HttpStatus.NOT_FOUND, "Pending payment not found: " + id));
+    }
+
+    @Override
+    public WriteBehindStats stats() {
+        long batchCount = batches.get();
+        return new WriteBehindStats(enabled, queue.size(), capacity, accepted.get(), rejectedByBackpressure.get(),
+                committed.get(), failed.get(), batchCount,
+                batchCount == 0 ? 0 : (double) batchedPayments.get() / batchCount,
+                lastBatchSize.get(),
+                batchCount == 0 ? 0 : (double) commitMillis.get() / batchCount,
+                maxCommitMillis.get());
+    }
+
+    /**
+     * Replays entries left {@code QUEUED} by a previous run. Only entries created before this run started are
+     * read so they cannot be confused with new submissions, which go through the queue.
+     */
+    private void recover(Instant startedAt) {
+        long recovered = 0;
+        while (running) {
+            List<PendingPayment> batch = pendingPaymentRepository
+                    .findByStatusOrderByIdAsc(PendingPayment.Status.QUEUED, PageRequest.of(0, batchSize)).stream()
+                    .filter(pending -> pending.getCreatedAt() == null || pending.getCreatedAt().isBefore(startedAt))
+                    .toList();
+            if (batch.isEmpty()) {
+                break;
+            }
+            commitWithRetry(batch);
+            recovered += batch.size();
+        }
+        if (recovered > 0) {
+            logger.info("Recovered {} queued payments from a previous run", recovered);
+        }
+    }
+
+    private void drain() {
+        List<PendingPayment> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingPayment first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingPayment next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                commitWithRetry(batch);
+                permits.release(batch.size());
+                batch.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Keeps retrying a batch while Mongo is unavailable; the entries stay {@code QUEUED} until it succeeds.
+     */
+    private void commitWithRetry(List<PendingPayment> batch) {
+        while (running) {
+            try {
+                commit(batch);
+                return;
+            } catch (RuntimeException ex) {
+                logger.error("Could not commit a batch of {} payments, retrying", batch.size(), ex);
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void commit(List<PendingPayment> batch) {
+        long start = System.nanoTime();
+        List<PaymentBatchPoster.Draft> drafts = new ArrayList<>(batch.size());
+        for (PendingPayment pending : batch) {
+            drafts.add(new PaymentBatchPoster.Draft(pending.getId(), pending.getPayerUserId(),
+                    pending.getStudentFeeId(), pending.getMethod(), pending.getAmount(), null, null));
+        }
+        List<PaymentBatchPoster.Outcome> outcomes = paymentBatchPoster.post(drafts);
+
+        Instant now = Instant.now();
+        BulkOperations marks = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PendingPayment.class);
+        int posted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PaymentBatchPoster.Outcome outcome = outcomes.get(i);
+            Update update = new Update().set("committedAt", now);
+            if (outcome.posted()) {
+                update.set("status", PendingPayment.Status.COMMITTED).set("paymentId", outcome.payment().getId());
+                posted++;
+            } else {
+                update.set("status", PendingPayment.Status.REJECTED).set("error", outcome.error());
+            }
+            marks.updateOne(new Query(where("_id").is(new ObjectId(batch.get(i).getId()))), update);
+        }
+        marks.execute();
+        paymentBatchPoster.forgetApplied(outcomes);
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        committed.addAndGet(posted);
+        failed.addAndGet(batch.size() - posted);
+        batches.incrementAndGet();
+        batchedPayments.addAndGet(batch.size());
+        lastBatchSize.set(batch.size());
+        commitMillis.addAndGet(elapsed);
+        maxCommitMillis.accumulateAndGet(elapsed, Math::max);
+        logger.debug("Committed {} of {} queued payments in {} ms", posted, batch.size(), elapsed);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        if (committer != null) {
+            committer.interrupt();
+            committer.join(TimeUnit.SECONDS.toMillis(5));
+            if (!queue.isEmpty()) {
+                logger.info("{} payments left queued; they will be posted on the next start", queue.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.organization.exception;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StudentResponseExceptionHandlerTest {
+
+    private MockMvc mockMvc;
+
+    @RestController
+    static class ThrowingController {
+
+        @GetMapping("/backpressure")
+        String backpressure() {
+            throw new BackpressureException(HttpStatus.TOO_MANY_REQUESTS, "Too many attempts", 30);
+        }
+
+        @GetMapping("/unavailable")
+        String unavailable() {
+            throw new BackpressureException(HttpStatus.SERVICE_UNAVAILABLE, "Dashboard is busy", 2);
+        }
+
+        @GetMapping("/conflict")
+        String conflict() {
+            throw new StudentApiException(HttpStatus.CONFLICT, "Request with this key is still in progress");
+        }
+
+        @GetMapping("/not-found")
+        String notFound() {
+            throw new StudentNotFoundException("Student not found");
+        }
+
+        @GetMapping("/admin-only")
+        String adminOnly() {
+            throw new AuthorizationDeniedException("Access Denied", new AuthorizationDecision(false));
+        }
+
+        @GetMapping("/unexpected")
+        String unexpected() {
+            throw new IllegalStateException("boom");
+        }
+
+        @GetMapping("/illegal-argument")
+        String illegalArgument() {
+            throw new IllegalArgumentException("bad size");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Registered catch-all first: the order annotation, not the registration order, must decide
+        mockMvc = MockMvcBuilders.standaloneSetup(new ThrowingController())
+                .setControllerAdvice(new GlobalExceptionHandler(), new StudentResponseExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void backpressureAnswersItsStatusWithRetryAfter() throws Exception {
+        mockMvc.perform(get("/backpressure"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"))
+                .andExpect(jsonPath("$.message").value("Too many attempts"));
+
+        mockMvc.perform(get("/unavailable"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+    }
+
+    @Test
+    void apiExceptionsAnswerTheirOwnStatus() throws Exception {
+        mockMvc.perform(get("/conflict"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+
+        mockMvc.perform(get("/not-found")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void aDeniedRoleCheckAnswersForbidden() throws Exception {
+        mockMvc.perform(get("/admin-only"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status").value(403));
+    }
+
+    @Test
+    void otherExceptionsStillReachTheGlobalHandler() throws Exception {
+        mockMvc.perform(get("/unexpected"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("An unexpected error occurred: boom"));
+
+        mockMvc.perform(get("/illegal-argument"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("bad size"));
+    }
+}
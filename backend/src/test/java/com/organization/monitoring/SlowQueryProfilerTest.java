@@ -0,0 +1,95 @@
+package com.organization.monitoring;
+
+import org.bson.BsonArray;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryProfilerTest {
+
+    @Test
+    void literalsAreReplacedAndFieldReferencesKept() {
+        BsonDocument find = BsonDocument.parse("{find: 'student_fees', filter: {sid: 'abc', s: {$in: ['A', 'B']},"
+                + " $expr: {$gt: ['$pa', 10]}}, sort: {dd: 1}, limit: 5, lsid: {id: 1}}");
+
+        assertEquals("{\"filter\": {\"sid\": \"?\", \"s\": {\"$in\": \"?\"}, \"$expr\": {\"$gt\": [\"$pa\", \"?\"]}},"
+                + " \"sort\": {\"dd\": 1}}", SlowQueryProfiler.shapeOf("find", find).toJson());
+    }
+
+    @Test
+    void queriesThatDifferOnlyInValuesShareAShape() {
+        BsonDocument first = BsonDocument.parse("{find: 'payments', filter: {sid: 'a', pa: {$gte: 5}}}");
+        BsonDocument second = BsonDocument.parse("{find: 'payments', filter: {sid: 'b', pa: {$gte: 900}}}");
+        BsonDocument other = BsonDocument.parse("{find: 'payments', filter: {sid: 'b'}}");
+
+        assertEquals(SlowQueryProfiler.shapeOf("find", first), SlowQueryProfiler.shapeOf("find", second));
+        assertFalse(SlowQueryProfiler.shapeOf("find", first).equals(SlowQueryProfiler.shapeOf("find", other)));
+    }
+
+    @Test
+    void anAggregationIsShapedStageByStage() {
+        BsonDocument aggregate = BsonDocument.parse("{aggregate: 'student_fees', pipeline: [{$match: {s: 'OVERDUE'}},"
+                + " {$group: {_id: '$sid', total: {$sum: '$pa'}}}], cursor: {}}");
+
+        assertEquals("{\"pipeline\": [{\"$match\": {\"s\": \"?\"}}, {\"$group\": {\"_id\": \"$sid\","
+                + " \"total\": {\"$sum\": \"$pa\"}}}]}", SlowQueryProfiler.shapeOf("aggregate", aggregate).toJson());
+    }
+
+    @Test
+    void aBulkUpdateIsShapedAndCapturedByItsFirstStatement() {
+        BsonArray updates = new BsonArray();
+        for (int i = 0; i < 1000; i++) {
+            updates.add(new BsonDocument("q", new BsonDocument("_id", new BsonInt32(i)))
+                    .append("u", BsonDocument.parse("{$set: {s: 'PAID'}}")));
+        }
+        BsonDocument update = new BsonDocument("update", new BsonString("student_fees")).append("updates", updates)
+                .append("ordered", BsonBoolean.TRUE)
+                .append("lsid", BsonDocument.parse("{id: 1}"));
+
+        BsonDocument captured = SlowQueryProfiler.capture("update", update);
+
+        assertEquals("student_fees", captured.getString("update").getValue());
+        assertEquals(1, captured.getArray("updates").size());
+        assertEquals(updates.get(0), captured.getArray("updates").get(0));
+        assertFalse(captured.containsKey("lsid"));
+        assertFalse(captured.containsKey("ordered"));
+        assertEquals("{\"q\": {\"_id\": \"?\"}}", SlowQueryProfiler.shapeOf("update", captured).toJson());
+    }
+
+    @Test
+    void theCaptureKeepsOnlyThePlanFieldsAndIsACopy() {
+        BsonDocument find = BsonDocument.parse("{find: 'students', filter: {email: 'a@b.c'}, sort: {lastName: 1},"
+                + " projection: {email: 1}, batchSize: 100, lsid: {id: 1}, $db: 'fees', $clusterTime: {t: 1}}");
+
+        BsonDocument captured = SlowQueryProfiler.capture("find", find);
+        find.getDocument("filter").put("email", new BsonString("changed"));
+
+        assertEquals(List.of("find", "filter", "sort", "projection"), new ArrayList<>(captured.keySet()));
+        assertEquals("a@b.c", captured.getDocument("filter").getString("email").getValue());
+    }
+
+    @Test
+    void aLongInListIsCutWithoutChangingTheShape() {
+        BsonArray ids = new BsonArray();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(new BsonString("student-" + i));
+        }
+        BsonDocument find = new BsonDocument("find", new BsonString("payments"))
+                .append("filter", new BsonDocument("sid", new BsonDocument("$in", ids)));
+
+        BsonDocument captured = SlowQueryProfiler.capture("find", find);
+
+        int kept = captured.getDocument("filter").getDocument("sid").getArray("$in").size();
+        assertTrue(kept > 0 && kept <= 50, () -> "kept " + kept);
+        assertEquals(SlowQueryProfiler.shapeOf("find", find), SlowQueryProfiler.shapeOf("find", captured));
+    }
+}
@@ -0,0 +1,135 @@
+package com.organization.repository;
+
+import com.organization.dto.CursorPage;
+import com.organization.entity.Payment;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KeysetPagerTest {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(mongoTemplate.find(any(Query.class), eq(Payment.class))).thenReturn(List.of(payment("a", T0)));
+
+        CursorPage<Payment> page = byPaidAt(null, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void fullPageFetchesOneExtraRowAndPointsTheCursorAtTheLastReturnedRow() {
+        when(mongoTemplate.find(any(Query.class), eq(Payment.class))).thenReturn(List.of(
+                payment("a", T0), payment("b", T0), payment("c", T0.plusSeconds(1))));
+
+        CursorPage<Payment> page = byPaidAt(null, 2);
+
+        Query query = lastQuery();
+        assertEquals(3, query.getLimit());
+        assertEquals(new Document("paidAt", 1).append("_id", 1), query.getSortObject());
+        assertEquals(List.of("a", "b"), page.getItems().stream().map(Payment::getId).toList());
+        assertEquals(T0.toEpochMilli() + "|b", decode(page.getNextCursor()));
+    }
+
+    @Test
+    void cursorSeeksPastTheLastKeyWithTheIdAsTieBreaker() {
+        when(mongoTemplate.find(any(Query.class), eq(Payment.class))).thenReturn(List.of());
+        String cursor = encode(T0.toEpochMilli() + "|b");
+
+        byPaidAt(cursor, 2);
+
+        Document seek = new Document("$or", List.of(
+                new Document("paidAt", new Document("$gt", T0)),
+                new Document("$and", List.of(new Document("paidAt", T0), new Document("_id", new Document("$gt", "b"))))));
+        assertEquals(seek, lastQuery().getQueryObject());
+    }
+
+    @Test
+    void descendingDecimalCursorSeeksBelowTheLastKey() {
+        when(mongoTemplate.find(any(Query.class), eq(Payment.class))).thenReturn(List.of());
+        String cursor = encode("125.50|b");
+
+        KeysetPager.byDecimal(mongoTemplate, new Query(), Payment.class, "balance", Sort.Direction.DESC,
+                Payment::getAmount, Payment::getId, cursor, 10);
+
+        Decimal128 after = new Decimal128(new BigDecimal("125.50"));
+        Document seek = new Document("$or", List.of(
+                new Document("balance", new Document("$lt", after)),
+                new Document("$and", List.of(new Document("balance", after), new Document("_id", new Document("$lt", "b"))))));
+        Query query = lastQuery();
+        assertEquals(seek, query.getQueryObject());
+        assertEquals(new Document("balance", -1).append("_id", -1), query.getSortObject());
+    }
+
+    @Test
+    void idCursorRoundTrips() {
+        when(mongoTemplate.find(any(Query.class), eq(Payment.class)))
+                .thenReturn(List.of(payment("a", T0), payment("b", T0)));
+
+        CursorPage<Payment> page = KeysetPager.byId(mongoTemplate, new Query(), Payment.class, Payment::getId, null, 1);
+        KeysetPager.byId(mongoTemplate, new Query(), Payment.class, Payment::getId, page.getNextCursor(), 1);
+
+        assertEquals(new Document("_id", new Document("$gt", "a")), lastQuery().getQueryObject());
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> byPaidAt("not base64!", 2));
+        assertThrows(IllegalArgumentException.class, () -> byPaidAt(encode("only-one-part"), 2));
+        assertThrows(IllegalArgumentException.class, () -> byPaidAt(encode("yesterday|b"), 2));
+        assertThrows(IllegalArgumentException.class, () -> KeysetPager.byDecimal(mongoTemplate, new Query(),
+                Payment.class, "balance", Sort.Direction.ASC, Payment::getAmount, Payment::getId, encode("lots|b"), 2));
+    }
+
+    private CursorPage<Payment> byPaidAt(String cursor, int size) {
+        return KeysetPager.byInstant(mongoTemplate, new Query(), Payment.class, "paidAt",
+                Payment::getPaidAt, Payment::getId, cursor, size);
+    }
+
+    private Query lastQuery() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, atLeastOnce()).find(query.capture(), eq(Payment.class));
+        return query.getValue();
+    }
+
+    private static Payment payment(String id, Instant paidAt) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setPaidAt(paidAt);
+        payment.setAmount(BigDecimal.TEN);
+        return payment;
+    }
+
+    private static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,134 @@
+package com.organization.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.organization.entity.StudentFee;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Posts payments to one fee from many threads at once against a real server, so it only runs when
+ * {@code MONGODB_TEST_URI} points at one. A scratch database is created and dropped per test.
+ */
+@EnabledIfEnvironmentVariable(named = "MONGODB_TEST_URI", matches = ".+")
+class StudentFeeRepositoryCustomImplTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 50;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private StudentFeeRepositoryCustomImpl repository;
+    private String database;
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(System.getenv("MONGODB_TEST_URI"));
+        database = "fee_posting_" + System.nanoTime();
+        mongoTemplate = new MongoTemplate(client, database);
+        repository = new StudentFeeRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.getDatabase(database).drop();
+        client.close();
+    }
+
+    @Test
+    void concurrentPostingsBelowTheAssignedAmountAddUpAndLeaveTheFeePartial() throws Exception {
+        String feeId = fee("6000.00");
+
+        concurrently(() -> {
+            StudentFee updated = repository.applyPayment(feeId, new BigDecimal("12.50")).orElseThrow();
+            assertTrue(updated.getAmountPaid().compareTo(updated.getAmountAssigned()) <= 0);
+        });
+
+        StudentFee fee = mongoTemplate.findById(feeId, StudentFee.class);
+        assertEquals(0, new BigDecimal("5000.00").compareTo(fee.getAmountPaid()), () -> "paid " + fee.getAmountPaid());
+        assertEquals(StudentFee.Status.PARTIAL, fee.getStatus());
+    }
+
+    @Test
+    void concurrentPostingsThatSettleTheFeeMarkItPaid() throws Exception {
+        String feeId = fee("5000.00");
+
+        concurrently(() -> {
+            StudentFee updated = repository.applyPayment(feeId, new BigDecimal("12.50")).orElseThrow();
+            assertTrue(updated.getAmountPaid().compareTo(updated.getAmountAssigned()) <= 0);
+        });
+
+        StudentFee fee = mongoTemplate.findById(feeId, StudentFee.class);
+        assertEquals(0, new BigDecimal("5000.00").compareTo(fee.getAmountPaid()), () -> "paid " + fee.getAmountPaid());
+        assertEquals(StudentFee.Status.PAID, fee.getStatus());
+    }
+
+    @Test
+    void concurrentPostingsAndReversalsCancelOut() throws Exception {
+        String feeId = fee("5000.00");
+        repository.applyPayment(feeId, new BigDecimal("5000.00")).orElseThrow();
+
+        // Every round posts a reversal and the payment again, so only the opening payment remains
+        concurrently(() -> {
+            repository.applyPayment(feeId, new BigDecimal("-100.00")).orElseThrow();
+            repository.applyPayment(feeId, new BigDecimal("100.00")).orElseThrow();
+        });
+
+        StudentFee fee = mongoTemplate.findById(feeId, StudentFee.class);
+        assertEquals(0, new BigDecimal("5000.00").compareTo(fee.getAmountPaid()), () -> "paid " + fee.getAmountPaid());
+        assertEquals(StudentFee.Status.PAID, fee.getStatus());
+    }
+
+    /**
+     * Runs {@code round} {@value #ROUNDS} times on each of {@value #THREADS} threads, all released together.
+     */
+    private static void concurrently(Runnable round) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> posters = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                posters.add(pool.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < ROUNDS; j++) {
+                        round.run();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> poster : posters) {
+                poster.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private String fee(String amountAssigned) {
+        Instant now = Instant.now();
+        StudentFee fee = new StudentFee(new ObjectId().toHexString(), "student-1", "plan-1", "Computer Science",
+                "2025-2026", new BigDecimal(amountAssigned), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.ZERO, new BigDecimal(amountAssigned), BigDecimal.ZERO, StudentFee.Status.PENDING, now,
+                now.plus(30, ChronoUnit.DAYS));
+        return mongoTemplate.insert(fee).getId();
+    }
+}
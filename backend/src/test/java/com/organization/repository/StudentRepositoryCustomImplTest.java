@@ -0,0 +1,113 @@
+package com.organization.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.organization.entity.Student;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the plans of the course queries against a real server, so it only runs when {@code MONGODB_TEST_URI}
+ * points at one. A scratch database is created and dropped per test.
+ */
+@EnabledIfEnvironmentVariable(named = "MONGODB_TEST_URI", matches = ".+")
+class StudentRepositoryCustomImplTest {
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private String database;
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(System.getenv("MONGODB_TEST_URI"));
+        database = "enrollment_plan_" + System.nanoTime();
+        mongoTemplate = new MongoTemplate(client, database);
+
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(Student.class);
+        IndexResolver.create(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(entity.getTypeInformation())
+                .forEach(index -> mongoTemplate.indexOps(Student.class).ensureIndex(index));
+
+        List<Document> students = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            students.add(new Document("firstName", "Student" + i).append("lastName", "Number" + i)
+                    .append("email", "student" + i + "@example.org")
+                    .append("courses", List.of(new Document("courseName", i % 5 == 0 ? "Computer Science" : "History " + i)
+                            .append("startYear", 2020 + i % 4).append("endYear", 2024 + i % 4).append("primary", true))));
+        }
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Student.class)).insertMany(students);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.getDatabase(database).drop();
+        client.close();
+    }
+
+    @Test
+    void enrollmentQueryIsServedByTheEnrollmentIndex() {
+        Query query = StudentRepositoryCustomImpl.enrolledQuery("computer science", 2022, 2023);
+        MongoCollection<Document> students = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Student.class));
+
+        Document explain = students.find(query.getQueryObject())
+                .collation(query.getCollation().orElseThrow().toMongoCollation())
+                .explain();
+
+        List<String> stages = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        walk(explain.get("queryPlanner", Document.class).get("winningPlan"), stages, indexes);
+        assertTrue(stages.contains("IXSCAN"), () -> "winning plan " + stages);
+        assertFalse(stages.contains("COLLSCAN"), () -> "winning plan " + stages);
+        assertTrue(indexes.contains("course_enrollment"), () -> "indexes " + indexes);
+    }
+
+    @Test
+    void courseQueryIsServedByTheEnrollmentIndex() {
+        Query query = StudentRepositoryCustomImpl.courseQuery("COMPUTER science");
+        MongoCollection<Document> students = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Student.class));
+
+        Document explain = students.find(query.getQueryObject())
+                .collation(query.getCollation().orElseThrow().toMongoCollation())
+                .explain();
+
+        List<String> stages = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        walk(explain.get("queryPlanner", Document.class).get("winningPlan"), stages, indexes);
+        assertFalse(stages.contains("COLLSCAN"), () -> "winning plan " + stages);
+        assertTrue(indexes.contains("course_enrollment"), () -> "indexes " + indexes);
+        assertEquals(100, mongoTemplate.count(query, Student.class));
+    }
+
+    private static void walk(Object value, List<String> stages, List<String> indexes) {
+        if (value instanceof Document node) {
+            if (node.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            if (node.get("indexName") instanceof String index) {
+                indexes.add(index);
+            }
+            for (Map.Entry<String, Object> entry : node.entrySet()) {
+                walk(entry.getValue(), stages, indexes);
+            }
+        } else if (value instanceof List<?> list) {
+            list.forEach(item -> walk(item, stages, indexes));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.organization.security;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    static final String SECRET = "64ec88ca00b268e5ba1a35678a1b5316d212f4f366b2477232534a8aeca37f3c";
+
+    private final JwtVerifier jwtVerifier = new JwtVerifier(SECRET, 100);
+    private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(jwtVerifier);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final TokenRevocationCache revocations = new TokenRevocationCache(null);
+    private final JwtAuthenticationFilter filter =
+            new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, revocations);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationDate", 60_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void aTokenWithSignedClaimsAuthenticatesWithoutLoadingTheUser() throws Exception {
+        String token = issue(new AuthenticatedUser("user-1", "alice", "hash", 3,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        filter(token);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        AuthenticatedUser principal = assertInstanceOf(AuthenticatedUser.class, authentication.getPrincipal());
+        assertEquals("user-1", principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals(3, principal.getTokenVersion());
+        assertEquals(List.of("ROLE_ADMIN"), authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void aRevokedTokenVersionLeavesTheRequestUnauthenticated() throws Exception {
+        String token = issue(new AuthenticatedUser("user-1", "alice", "hash", 3,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        revocations.revoked("user-1", 4);
+
+        MockFilterChain chain = filter(token);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(chain.getRequest(), "the request still continues down the chain");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void aTokenIssuedBeforeTheClaimsExistedFallsBackToALookup() throws Exception {
+        String token = Jwts.builder().setSubject("bob")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(jwtVerifier.signingKey())
+                .compact();
+        when(userDetailsService.loadUserByUsername("bob")).thenReturn(
+                new User("bob", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        filter(token);
+
+        assertEquals("bob", SecurityContextHolder.getContext().getAuthentication().getName());
+        verify(userDetailsService).loadUserByUsername("bob");
+    }
+
+    private String issue(AuthenticatedUser user) {
+        return jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private MockFilterChain filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/students");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+}
@@ -0,0 +1,83 @@
+package com.organization.security;
+
+import com.organization.dto.TokenVerificationStats;
+import com.organization.exception.StudentApiException;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtVerifierTest {
+
+    private final JwtVerifier verifier = new JwtVerifier(JwtAuthenticationFilterTest.SECRET, 2);
+
+    @Test
+    void aRepeatedTokenIsVerifiedOnce() {
+        String token = token("alice", System.currentTimeMillis() + 60_000);
+
+        verifier.verify(token);
+        verifier.verify(token);
+        verifier.verify(token);
+
+        TokenVerificationStats stats = verifier.stats();
+        assertEquals(1, stats.getVerifications());
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    @Test
+    void aCachedTokenIsRejectedOnceItExpires() throws InterruptedException {
+        // JWT expiry has whole-second precision, so aim just past the next second boundary
+        long expiresAt = (System.currentTimeMillis() / 1000 + 2) * 1000;
+        String token = token("alice", expiresAt);
+        verifier.verify(token);
+        verifier.verify(token);
+
+        Thread.sleep(Math.max(0, expiresAt - System.currentTimeMillis()) + 50);
+
+        StudentApiException ex = assertThrows(StudentApiException.class, () -> verifier.verify(token));
+        assertEquals("Expired JWT token", ex.getMessage());
+        assertEquals(0, verifier.stats().getCacheSize());
+    }
+
+    @Test
+    void aTokenWithoutExpiryIsVerifiedEveryTime() {
+        String token = Jwts.builder().setSubject("alice").signWith(verifier.signingKey()).compact();
+
+        verifier.verify(token);
+        verifier.verify(token);
+
+        assertEquals(2, verifier.stats().getVerifications());
+        assertEquals(0, verifier.stats().getCacheSize());
+    }
+
+    @Test
+    void theCacheKeepsOnlyTheMostRecentlyUsedTokens() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        String first = token("first", expiresAt);
+        String second = token("second", expiresAt);
+        String third = token("third", expiresAt);
+
+        verifier.verify(first);
+        verifier.verify(second);
+        verifier.verify(first);
+        verifier.verify(third);
+        verifier.verify(first);
+        verifier.verify(second);
+
+        // second was the least recently used when third arrived, so it alone is verified again
+        assertEquals(4, verifier.stats().getVerifications());
+        assertEquals(2, verifier.stats().getCacheSize());
+    }
+
+    private String token(String subject, long expiresAtMillis) {
+        return Jwts.builder().setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(expiresAtMillis))
+                .signWith(verifier.signingKey())
+                .compact();
+    }
+}
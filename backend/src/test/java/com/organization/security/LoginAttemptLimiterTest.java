@@ -0,0 +1,149 @@
+package com.organization.security;
+
+import com.organization.exception.BackpressureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginAttemptLimiterTest {
+
+    @Test
+    void anAccountIsLockedAfterTooManyFailures() {
+        LoginAttemptLimiter limiter = limiter(Duration.ofMinutes(15), Duration.ofMinutes(15));
+
+        for (int i = 0; i < 2; i++) {
+            limiter.failed("alice");
+            assertAllowed(limiter, "alice");
+        }
+        limiter.failed("alice");
+
+        BackpressureException ex = assertThrows(BackpressureException.class, () -> limiter.reserve("alice"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatus());
+        assertTrue(ex.getRetryAfterSeconds() > 14 * 60 && ex.getRetryAfterSeconds() <= 15 * 60);
+        assertAllowed(limiter, "bob");
+    }
+
+    @Test
+    void accountNamesAreMatchedIgnoringCaseAndSpaces() {
+        LoginAttemptLimiter limiter = limiter(Duration.ofMinutes(15), Duration.ofMinutes(15));
+
+        limiter.failed("Alice");
+        limiter.failed(" alice ");
+        limiter.failed("ALICE");
+
+        assertThrows(BackpressureException.class, () -> limiter.reserve("alice"));
+    }
+
+    @Test
+    void aSuccessfulSignInClearsEarlierFailures() {
+        LoginAttemptLimiter limiter = limiter(Duration.ofMinutes(15), Duration.ofMinutes(15));
+
+        limiter.failed("alice");
+        limiter.failed("alice");
+        limiter.succeeded("alice");
+        limiter.failed("alice");
+        limiter.failed("alice");
+
+        assertAllowed(limiter, "alice");
+    }
+
+    @Test
+    void failuresOutsideTheWindowAreForgotten() throws InterruptedException {
+        LoginAttemptLimiter limiter = limiter(Duration.ofMillis(100), Duration.ofMinutes(15));
+
+        limiter.failed("alice");
+        limiter.failed("alice");
+        Thread.sleep(150);
+        limiter.failed("alice");
+
+        assertAllowed(limiter, "alice");
+    }
+
+    @Test
+    void theLockoutEnds() throws InterruptedException {
+        LoginAttemptLimiter limiter = limiter(Duration.ofMinutes(15), Duration.ofMillis(100));
+        for (int i = 0; i < 3; i++) {
+            limiter.failed("alice");
+        }
+        assertThrows(BackpressureException.class, () -> limiter.reserve("alice"));
+
+        Thread.sleep(150);
+
+        assertAllowed(limiter, "alice");
+    }
+
+    @Test
+    void parallelGuessesCannotOvershootTheLimit() {
+        LoginAttemptLimiter limiter = limiter(Duration.ofMinutes(15), Duration.ofMinutes(15));
+
+        // Three guesses reserved before any has been judged
+        for (int i = 0; i < 3; i++) {
+            limiter.reserve("alice");
+        }
+        BackpressureException ex = assertThrows(BackpressureException.class, () -> limiter.reserve("alice"));
+        assertEquals(1, ex.getRetryAfterSeconds());
+
+        for (int i = 0; i < 3; i++) {
+            limiter.failed("alice");
+        }
+        assertTrue(assertThrows(BackpressureException.class, () -> limiter.reserve("alice")).getRetryAfterSeconds() > 60);
+    }
+
+    @Test
+    void anAttemptThatWasNeverJudgedFreesItsReservation() {
+        LoginAttemptLimiter limiter = limiter(Duration.ofMinutes(15), Duration.ofMinutes(15));
+        for (int i = 0; i < 3; i++) {
+            limiter.reserve("alice");
+            limiter.released("alice");
+        }
+
+        assertAllowed(limiter, "alice");
+    }
+
+    @Test
+    void aSweepOfUnknownAccountsDoesNotEndALockout() {
+        // One entry per stripe
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(3, Duration.ofMinutes(15), Duration.ofMinutes(15), 64);
+        for (int i = 0; i < 3; i++) {
+            limiter.failed("alice");
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.failed("random-" + i);
+        }
+
+        assertThrows(BackpressureException.class, () -> limiter.reserve("alice"));
+        // Only the locked entry is kept beyond the bound
+        assertTrue(limiter.tracked() <= 65, () -> "tracked " + limiter.tracked());
+    }
+
+    @Test
+    void anExpiredLockoutIsDroppedWhenItsStripeFills() throws InterruptedException {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(3, Duration.ofMinutes(15), Duration.ofMillis(50), 64);
+        for (int i = 0; i < 3; i++) {
+            limiter.failed("alice");
+        }
+        Thread.sleep(80);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.failed("random-" + i);
+        }
+
+        assertEquals(64, limiter.tracked());
+    }
+
+    private static void assertAllowed(LoginAttemptLimiter limiter, String account) {
+        assertDoesNotThrow(() -> limiter.reserve(account));
+        limiter.released(account);
+    }
+
+    private static LoginAttemptLimiter limiter(Duration window, Duration lockout) {
+        return new LoginAttemptLimiter(3, window, lockout, 1000);
+    }
+}
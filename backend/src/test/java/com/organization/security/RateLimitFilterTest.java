@@ -0,0 +1,152 @@
+package com.organization.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+
+    private final RateLimitFilter filter = new RateLimitFilter(true, "2/1m", "2/1m", "2/1m", "2/1m", "3/1m",
+            Duration.ofMinutes(10), new ObjectMapper());
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void aBurstUpToTheLimitPassesAndTheNextRequestIsRejected() throws Exception {
+        MockHttpServletResponse first = send("GET", "/api/students", "10.0.0.1");
+        assertEquals(200, first.getStatus());
+        assertEquals("3", first.getHeader("RateLimit-Limit"));
+        assertEquals("3;w=60", first.getHeader("RateLimit-Policy"));
+        assertEquals("2", first.getHeader("RateLimit-Remaining"));
+
+        assertEquals("1", send("GET", "/api/students", "10.0.0.1").getHeader("RateLimit-Remaining"));
+        assertEquals("0", send("GET", "/api/students", "10.0.0.1").getHeader("RateLimit-Remaining"));
+
+        MockHttpServletResponse rejected = send("GET", "/api/students", "10.0.0.1");
+        assertEquals(429, rejected.getStatus());
+        // One token comes back every 20 seconds
+        assertEquals("20", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Too many requests"));
+    }
+
+    @Test
+    void tokensComeBackAtTheConfiguredRate() throws Exception {
+        RateLimitFilter fast = new RateLimitFilter(true, "2/1m", "2/1m", "2/1m", "2/1m", "2/200ms",
+                Duration.ofMinutes(10), new ObjectMapper());
+        assertEquals(200, send(fast, "GET", "/api/students", "10.0.0.1").getStatus());
+        assertEquals(200, send(fast, "GET", "/api/students", "10.0.0.1").getStatus());
+        assertEquals(429, send(fast, "GET", "/api/students", "10.0.0.1").getStatus());
+
+        Thread.sleep(130);
+
+        assertEquals(200, send(fast, "GET", "/api/students", "10.0.0.1").getStatus());
+        assertEquals(429, send(fast, "GET", "/api/students", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void eachClientAddressHasItsOwnBucket() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            send("GET", "/api/students", "10.0.0.1");
+        }
+
+        assertEquals(429, send("GET", "/api/students", "10.0.0.1").getStatus());
+        assertEquals(200, send("GET", "/api/students", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void aSignedInUserDrawsFromTheirOwnBucketFromAnyAddress() throws Exception {
+        signIn("alice");
+        send("GET", "/api/students", "10.0.0.1");
+        send("GET", "/api/students", "10.0.0.2");
+        send("GET", "/api/students", "10.0.0.3");
+
+        assertEquals(429, send("GET", "/api/students", "10.0.0.4").getStatus());
+
+        signIn("bob");
+        assertEquals(200, send("GET", "/api/students", "10.0.0.4").getStatus());
+    }
+
+    @Test
+    void signInIsLimitedByAddressEvenWhenAuthenticated() throws Exception {
+        signIn("alice");
+        send("POST", "/api/auth/login", "10.0.0.1");
+        send("POST", "/api/auth/login", "10.0.0.1");
+
+        assertEquals(429, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    void groupsHaveSeparateBuckets() throws Exception {
+        send("POST", "/api/payments", "10.0.0.1");
+        send("POST", "/api/payments", "10.0.0.1");
+        assertEquals(429, send("POST", "/api/payments", "10.0.0.1").getStatus());
+
+        assertEquals(200, send("POST", "/api/students", "10.0.0.1").getStatus());
+        assertEquals(200, send("GET", "/api/payments", "10.0.0.1").getStatus());
+    }
+
+    @Test
+    void requestsOutsideTheApiAreNotLimited() throws Exception {
+        MockHttpServletResponse response = null;
+        for (int i = 0; i < 10; i++) {
+            response = send("GET", "/actuator/health", "10.0.0.1");
+        }
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("RateLimit-Limit"));
+    }
+
+    @Test
+    void idleBucketsAreEvictedOnceRefilled() throws Exception {
+        RateLimitFilter evicting = new RateLimitFilter(true, "2/1m", "2/1m", "2/1m", "2/1m", "2/100ms",
+                Duration.ZERO, new ObjectMapper());
+        send(evicting, "GET", "/api/students", "10.0.0.1");
+        send(evicting, "GET", "/api/students", "10.0.0.1");
+        Thread.sleep(120);
+
+        evicting.evictIdle();
+
+        MockHttpServletResponse fresh = send(evicting, "GET", "/api/students", "10.0.0.1");
+        assertEquals("1", fresh.getHeader("RateLimit-Remaining"));
+    }
+
+    private MockHttpServletResponse send(String method, String path, String remoteAddr) throws Exception {
+        return send(filter, method, path, remoteAddr);
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, String method, String path, String remoteAddr)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        if (response.getStatus() == 200) {
+            assertNotNull(chain.getRequest());
+        }
+        return response;
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+}
@@ -0,0 +1,118 @@
+package com.organization.service;
+
+import com.organization.dto.PaymentLine;
+import com.organization.dto.StudentDashboard;
+import com.organization.dto.StudentFeeLine;
+import com.organization.entity.Student;
+import com.organization.exception.BackpressureException;
+import com.organization.repository.PaymentRepository;
+import com.organization.repository.StudentFeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardServiceImplTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final StudentFeeRepository studentFeeRepository = mock(StudentFeeRepository.class);
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private DashboardServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(studentFeeRepository.findByStudentId(anyString(), eq(StudentFeeLine.class))).thenReturn(List.of());
+        when(paymentRepository.findByStudentIdOrderByPaidAtDesc(anyString(), eq(PaymentLine.class))).thenReturn(List.of());
+        // Every admin query hangs until released
+        when(mongoTemplate.getCollectionName(Student.class)).thenAnswer(invocation -> {
+            release.await();
+            return "students";
+        });
+        service = service(16);
+    }
+
+    private DashboardServiceImpl service(int adminQueueCapacity) {
+        return new DashboardServiceImpl(mongoTemplate, studentFeeRepository, paymentRepository,
+                Duration.ofSeconds(5), 10, ZoneId.of("UTC"), Duration.ofMillis(300), 1, adminQueueCapacity, 2, 4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        service.shutdown();
+        callers.shutdownNow();
+        callers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void aStuckAdminRefreshDoesNotHoldUpStudentDashboards() {
+        callers.submit(service::adminStats);
+
+        StudentDashboard dashboard = service.studentDashboard("student-1");
+
+        assertEquals("student-1", dashboard.getStudentId());
+    }
+
+    @Test
+    void aSlowAdminRefreshAnswersServiceUnavailableAfterTheTimeout() {
+        BackpressureException ex = assertThrows(BackpressureException.class, service::adminStats);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+    }
+
+    @Test
+    void everyCallerSharingATimedOutRefreshGetsServiceUnavailable() throws Exception {
+        List<Future<Throwable>> waiting = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            waiting.add(callers.submit(() -> {
+                try {
+                    service.adminStats();
+                    return null;
+                } catch (Throwable ex) {
+                    return ex;
+                }
+            }));
+        }
+
+        for (Future<Throwable> caller : waiting) {
+            Throwable error = caller.get(5, TimeUnit.SECONDS);
+            BackpressureException ex = assertInstanceOf(BackpressureException.class, error);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+        }
+    }
+
+    @Test
+    void aFullAdminQueueAnswersServiceUnavailable() {
+        // One thread and a one-slot queue cannot take the six admin queries of a refresh
+        DashboardServiceImpl saturated = service(1);
+        BackpressureException ex;
+        try {
+            ex = assertThrows(BackpressureException.class, saturated::adminStats);
+        } finally {
+            saturated.shutdown();
+        }
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+    }
+}
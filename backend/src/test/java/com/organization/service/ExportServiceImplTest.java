@@ -0,0 +1,113 @@
+package com.organization.service;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.organization.entity.Payment;
+import com.organization.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exports a million generated payments and samples the live heap as the cursor advances. Buffering the rows would
+ * retain several hundred megabytes; streaming keeps the live set within a small fixed ceiling.
+ */
+class ExportServiceImplTest {
+
+    private static final long ROWS = 1_000_000;
+    private static final long SAMPLE_EVERY = 100_000;
+    private static final long HEAP_CEILING_BYTES = 64L * 1024 * 1024;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @Test
+    void csvExportOfAMillionPaymentsStaysUnderTheHeapCeiling() throws Exception {
+        assertExportStaysFlat(ExportService.Format.CSV);
+    }
+
+    @Test
+    void ndjsonExportOfAMillionPaymentsStaysUnderTheHeapCeiling() throws Exception {
+        assertExportStaysFlat(ExportService.Format.NDJSON);
+    }
+
+    private void assertExportStaysFlat(ExportService.Format format) throws Exception {
+        AtomicLong peakGrowth = new AtomicLong();
+        long baseline = liveHeap();
+        PaymentRepository paymentRepository = mock(PaymentRepository.class);
+        when(paymentRepository.streamByFilter(any(), any(), any())).thenAnswer(invocation -> payments(i -> {
+            if (i % SAMPLE_EVERY == 0) {
+                peakGrowth.accumulateAndGet(liveHeap() - baseline, Math::max);
+            }
+        }));
+        ExportServiceImpl service = new ExportServiceImpl(mock(MongoTemplate.class), paymentRepository,
+                JsonMapper.builder().findAndAddModules().build(), 500);
+
+        LineCounter out = new LineCounter();
+        service.exportPayments(null, null, null, format, out);
+
+        long expectedLines = format == ExportService.Format.CSV ? ROWS + 1 : ROWS;
+        assertEquals(expectedLines, out.lines);
+        assertTrue(peakGrowth.get() < HEAP_CEILING_BYTES,
+                "live heap grew by " + peakGrowth.get() / (1024 * 1024) + " MB during the export");
+    }
+
+    private static Stream<Payment> payments(LongConsumer onRow) {
+        Instant paidAt = Instant.parse("2024-01-01T00:00:00Z");
+        return LongStream.range(0, ROWS).mapToObj(i -> {
+            onRow.accept(i);
+            Payment payment = new Payment();
+            payment.setId(Long.toHexString(0x6500000000000000L + i));
+            payment.setStudentFeeId("fee-" + (i % 5000));
+            payment.setStudentId("student-" + (i % 5000));
+            payment.setPayerUserId("user-" + (i % 5000));
+            payment.setMethod(Payment.Method.values()[(int) (i % Payment.Method.values().length)]);
+            payment.setAmount(BigDecimal.valueOf(i % 100_000, 2));
+            payment.setPaidAt(paidAt.plusSeconds(i));
+            payment.setReferenceNo("REF-" + i);
+            return payment;
+        });
+    }
+
+    private long liveHeap() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Discards the export, keeping only the number of rows written.
+     */
+    private static final class LineCounter extends OutputStream {
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
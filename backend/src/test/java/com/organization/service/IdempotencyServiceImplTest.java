@@ -0,0 +1,99 @@
+package com.organization.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.organization.entity.IdempotencyRecord;
+import com.organization.exception.StudentApiException;
+import com.organization.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceImplTest {
+
+    private static final String KEY = "key-1";
+    private static final String FINGERPRINT = "fee-1|CASH|100";
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final IdempotencyServiceImpl service = new IdempotencyServiceImpl(repository, mongoTemplate,
+            new ObjectMapper(), 100, Duration.ofMillis(200), Duration.ofHours(24), Duration.ofMinutes(1));
+
+    @Test
+    void responseIsReturnedEvenWhenStoringItFails() {
+        when(repository.save(any())).thenThrow(new DataAccessResourceFailureException("primary stepped down"));
+
+        IdempotencyService.Result result = service.execute(KEY, FINGERPRINT,
+                id -> Map.of("id", id), id -> Optional.empty());
+
+        assertFalse(result.replayed());
+        assertTrue(result.body().startsWith("{\"id\":"));
+    }
+
+    @Test
+    void liveClaimIsReportedAsInProgress() {
+        inProgress(Instant.now().plusSeconds(30));
+
+        StudentApiException ex = assertThrows(StudentApiException.class, () -> service.execute(KEY, FINGERPRINT,
+                id -> Map.of("id", id), id -> Optional.empty()));
+        assertTrue(ex.getMessage().contains("still in progress"));
+    }
+
+    @Test
+    void abandonedClaimRecoversWhatTheFirstAttemptCreated() {
+        IdempotencyRecord abandoned = inProgress(Instant.now().minusSeconds(1));
+        takeOverSucceeds(abandoned);
+        AtomicInteger actions = new AtomicInteger();
+
+        IdempotencyService.Result result = service.execute(KEY, FINGERPRINT,
+                id -> actions.incrementAndGet(),
+                id -> Optional.of(Map.of("id", id)));
+
+        assertEquals(0, actions.get());
+        assertTrue(result.replayed());
+        assertEquals("{\"id\":\"payment-1\"}", result.body());
+    }
+
+    @Test
+    void abandonedClaimThatCreatedNothingRunsAgainUnderTheSameId() {
+        IdempotencyRecord abandoned = inProgress(Instant.now().minusSeconds(1));
+        takeOverSucceeds(abandoned);
+
+        IdempotencyService.Result result = service.execute(KEY, FINGERPRINT,
+                id -> Map.of("id", id), id -> Optional.empty());
+
+        assertFalse(result.replayed());
+        assertEquals("{\"id\":\"payment-1\"}", result.body());
+    }
+
+    private IdempotencyRecord inProgress(Instant leaseExpiresAt) {
+        IdempotencyRecord record = new IdempotencyRecord(KEY, FINGERPRINT, IdempotencyRecord.Status.IN_PROGRESS, null,
+                "payment-1", leaseExpiresAt, Instant.now().minusSeconds(120));
+        when(repository.insert(any(IdempotencyRecord.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(repository.findById(KEY)).thenReturn(Optional.of(record));
+        return record;
+    }
+
+    private void takeOverSucceeds(IdempotencyRecord abandoned) {
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(IdempotencyRecord.class))).thenReturn(abandoned);
+    }
+}
@@ -0,0 +1,83 @@
+package com.organization.service;
+
+import com.organization.exception.StudentApiException;
+import com.organization.repository.LateFeeRunPartitionRepository;
+import com.organization.repository.StudentFeeRepository;
+import com.organization.repository.StudentFeeRepositoryCustom.LateFeeCharge;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class LateFeeServiceImplTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    private final JobService jobService = mock(JobService.class);
+    private final LateFeeServiceImpl service = new LateFeeServiceImpl(mock(MongoTemplate.class),
+            mock(StudentFeeRepository.class), mock(LateFeeRunPartitionRepository.class),
+            mock(StudentBalanceService.class), jobService, false, 1, 1, 100,
+            new BigDecimal("1.00"), new BigDecimal("0.001"), 0, ZONE);
+
+    @Test
+    void smallBalancesPayTheFlatDailyFee() {
+        LateFeeCharge charge = service.chargeFor("fee-1", "2026-03-01", new BigDecimal("250.00"));
+
+        assertEquals(new BigDecimal("1.00"), charge.amount());
+        assertEquals("daily-flat 1.00", charge.rule());
+        assertEquals("2026-03-01", charge.day());
+    }
+
+    @Test
+    void largeBalancesPayTheDailyRateRoundedToCents() {
+        LateFeeCharge charge = service.chargeFor("fee-1", "2026-03-01", new BigDecimal("4321.55"));
+
+        assertEquals(new BigDecimal("4.32"), charge.amount());
+        assertEquals("daily-rate 0.001", charge.rule());
+    }
+
+    @Test
+    void theFlatFeeWinsATie() {
+        LateFeeCharge charge = service.chargeFor("fee-1", "2026-03-01", new BigDecimal("1000.00"));
+
+        assertEquals("daily-flat 1.00", charge.rule());
+    }
+
+    @Test
+    void nothingIsChargedWithoutAnOutstandingAmount() {
+        assertNull(service.chargeFor("fee-1", "2026-03-01", BigDecimal.ZERO));
+        assertNull(service.chargeFor("fee-1", "2026-03-01", new BigDecimal("-5.00")));
+    }
+
+    @Test
+    void aChargeThatRoundsToZeroIsSkipped() {
+        LateFeeServiceImpl rateOnly = new LateFeeServiceImpl(mock(MongoTemplate.class),
+                mock(StudentFeeRepository.class), mock(LateFeeRunPartitionRepository.class),
+                mock(StudentBalanceService.class), jobService, false, 1, 1, 100,
+                BigDecimal.ZERO, new BigDecimal("0.001"), 0, ZONE);
+
+        assertNull(rateOnly.chargeFor("fee-1", "2026-03-01", new BigDecimal("4.99")));
+        assertEquals(new BigDecimal("0.01"), rateOnly.chargeFor("fee-1", "2026-03-01", new BigDecimal("5.00")).amount());
+    }
+
+    @Test
+    void aDayAfterTodayIsRejected() {
+        LocalDate tomorrow = LocalDate.now(ZONE).plusDays(1);
+
+        StudentApiException ex = assertThrows(StudentApiException.class, () -> service.start(tomorrow));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+        verify(jobService, never()).start(any(), any());
+    }
+}
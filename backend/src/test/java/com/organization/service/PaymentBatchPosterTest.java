@@ -0,0 +1,157 @@
+package com.organization.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.organization.entity.Payment;
+import com.organization.entity.StudentFee;
+import com.organization.monitoring.DomainMetrics;
+import com.organization.repository.StudentFeeRepository;
+import com.organization.repository.StudentFeeRepositoryCustom.PaymentIncrement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentBatchPosterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final StudentFeeRepository studentFeeRepository = mock(StudentFeeRepository.class);
+    private final StudentBalanceService studentBalanceService = mock(StudentBalanceService.class);
+    private PaymentBatchPoster poster;
+
+    @BeforeEach
+    void setUp() {
+        StudentFee fee = new StudentFee();
+        fee.setId("fee-1");
+        fee.setStudentId("student-1");
+        when(studentFeeRepository.findAllById(any())).thenReturn(List.of(fee));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        poster = new PaymentBatchPoster(mongoTemplate, studentFeeRepository, mock(PaymentRollupService.class),
+                studentBalanceService, new DomainMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void replayAfterAFailedFeeUpdateStillAppliesTheStoredPayments() {
+        // First attempt: both payments inserted, then the fee update fails
+        when(studentFeeRepository.findAppliedPayments(anyCollection(), anyCollection())).thenReturn(Set.of());
+        poster.post(drafts());
+
+        // Replay: both inserts now collide, and neither increment was recorded as applied
+        insertsCollide();
+        List<PaymentBatchPoster.Outcome> outcomes = poster.post(drafts());
+
+        assertTrue(outcomes.stream().allMatch(outcome -> outcome.posted() && outcome.duplicate()));
+        Map<String, List<PaymentIncrement>> replayed = lastOnceOnlyUpdate();
+        assertEquals(List.of(new PaymentIncrement("p1", new BigDecimal("100")), new PaymentIncrement("p2", new BigDecimal("50"))),
+                replayed.get("fee-1"));
+        assertEquals(2, lastBalanceUpdate().size());
+    }
+
+    @Test
+    void replayAfterACompletedFeeUpdateLeavesDerivedDataAlone() {
+        insertsCollide();
+        when(studentFeeRepository.findAppliedPayments(anyCollection(), anyCollection())).thenReturn(Set.of("p1", "p2"));
+
+        poster.post(drafts());
+
+        // The once-only update still runs; the ids recorded on the fee make it add nothing
+        assertEquals(2, lastOnceOnlyUpdate().get("fee-1").size());
+        assertTrue(lastBalanceUpdate().isEmpty());
+        verify(studentFeeRepository, never()).applyPayments(eq(Map.of("fee-1", new BigDecimal("150"))));
+    }
+
+    @Test
+    void paymentsWhoseFeeUpdateFailedAreWithdrawnAndRejected() {
+        StudentFee other = new StudentFee();
+        other.setId("fee-2");
+        other.setStudentId("student-2");
+        StudentFee fee = new StudentFee();
+        fee.setId("fee-1");
+        fee.setStudentId("student-1");
+        when(studentFeeRepository.findAllById(any())).thenReturn(List.of(fee, other));
+        when(studentFeeRepository.applyPayments(any())).thenReturn(Set.of("fee-2"));
+
+        List<PaymentBatchPoster.Outcome> outcomes = poster.post(List.of(
+                new PaymentBatchPoster.Draft(null, "user-1", "fee-1", Payment.Method.values()[0], new BigDecimal("100"), null, null),
+                new PaymentBatchPoster.Draft(null, "user-1", "fee-2", Payment.Method.values()[0], new BigDecimal("50"), null, null)));
+
+        assertTrue(outcomes.get(0).posted());
+        assertFalse(outcomes.get(1).posted());
+        assertEquals("Student fee could not be updated", outcomes.get(1).error());
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq(Payment.class));
+        assertTrue(removed.getValue().getQueryObject().toJson().contains("\"$in\""));
+        assertFalse(removed.getValue().getQueryObject().toJson().contains(outcomes.get(0).payment().getId()));
+        assertEquals(List.of("fee-1"), lastBalanceUpdate().stream().map(Payment::getStudentFeeId).toList());
+    }
+
+    @Test
+    void aFeeUpdateThatFailsOutrightWithdrawsTheWholeBatch() {
+        when(studentFeeRepository.applyPayments(any())).thenThrow(new DataAccessResourceFailureException("timed out"));
+
+        List<PaymentBatchPoster.Outcome> outcomes = poster.post(List.of(
+                new PaymentBatchPoster.Draft(null, "user-1", "fee-1", Payment.Method.values()[0], new BigDecimal("100"), null, null),
+                new PaymentBatchPoster.Draft(null, "user-1", "fee-1", Payment.Method.values()[0], new BigDecimal("50"), null, null)));
+
+        assertTrue(outcomes.stream().noneMatch(PaymentBatchPoster.Outcome::posted));
+        verify(mongoTemplate).remove(any(Query.class), eq(Payment.class));
+        assertTrue(lastBalanceUpdate().isEmpty());
+    }
+
+    private static List<PaymentBatchPoster.Draft> drafts() {
+        return List.of(
+                new PaymentBatchPoster.Draft("p1", "user-1", "fee-1", Payment.Method.values()[0], new BigDecimal("100"), null, null),
+                new PaymentBatchPoster.Draft("p2", "user-1", "fee-1", Payment.Method.values()[0], new BigDecimal("50"), null, null));
+    }
+
+    private void insertsCollide() {
+        List<BulkWriteError> errors = List.of(
+                new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0),
+                new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1));
+        when(bulk.execute()).thenThrow(new BulkOperationException("duplicate key", new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()), errors, null, new ServerAddress(), Set.of())));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, List<PaymentIncrement>> lastOnceOnlyUpdate() {
+        ArgumentCaptor<Map<String, List<PaymentIncrement>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(studentFeeRepository, atLeastOnce()).applyPaymentsOnce(captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Payment> lastBalanceUpdate() {
+        ArgumentCaptor<Collection<Payment>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(studentBalanceService, atLeastOnce()).paymentsApplied(captor.capture());
+        return captor.getValue();
+    }
+}
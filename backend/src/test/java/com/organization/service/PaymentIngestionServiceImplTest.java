@@ -0,0 +1,87 @@
+package com.organization.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.organization.dto.BulkPaymentReport;
+import com.organization.dto.BulkPaymentResult;
+import com.organization.entity.Payment;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentIngestionServiceImplTest {
+
+    private static final String VALID = "{\"studentFeeId\": \"fee-1\", \"method\": \"CASH\", \"amount\": 10.00}";
+
+    private final PaymentBatchPoster poster = mock(PaymentBatchPoster.class);
+    private PaymentIngestionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(poster.post(anyList())).thenAnswer(invocation -> {
+            List<PaymentBatchPoster.Draft> drafts = invocation.getArgument(0);
+            return drafts.stream().map(draft -> {
+                Payment payment = new Payment();
+                payment.setId("payment-" + draft.studentFeeId());
+                payment.setStudentFeeId(draft.studentFeeId());
+                return new PaymentBatchPoster.Outcome(payment, null, false);
+            }).toList();
+        });
+        service = new PaymentIngestionServiceImpl(poster, Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(), 100);
+    }
+
+    @Test
+    void invalidJsonInsideARecordRejectsOnlyThatRecord() throws Exception {
+        BulkPaymentReport report = ingest("[" + VALID + ", {\"studentFeeId\": \"fee-2\" \"method\": \"CASH\"}, "
+                + VALID + "]");
+
+        assertEquals(3, report.getReceived());
+        assertEquals(List.of(BulkPaymentResult.Status.ACCEPTED, BulkPaymentResult.Status.REJECTED,
+                BulkPaymentResult.Status.ACCEPTED), statuses(report));
+        assertTrue(report.getResults().get(1).getError().startsWith("Malformed JSON"));
+        assertEquals(2, report.getResults().get(2).getIndex());
+    }
+
+    @Test
+    void invalidJsonInAStreamOfObjectsRejectsOnlyThatRecord() throws Exception {
+        BulkPaymentReport report = ingest(VALID + "\n{\"studentFeeId\": fee-2}\n" + VALID + "\n");
+
+        assertEquals(List.of(BulkPaymentResult.Status.ACCEPTED, BulkPaymentResult.Status.REJECTED,
+                BulkPaymentResult.Status.ACCEPTED), statuses(report));
+    }
+
+    @Test
+    void aBodyThatEndsInsideABrokenRecordKeepsTheRecordsBeforeIt() throws Exception {
+        BulkPaymentReport report = ingest("[" + VALID + ", " + VALID + ", {\"studentFeeId\": ");
+
+        assertEquals(2, report.getAccepted());
+        assertEquals(1, report.getRejected());
+    }
+
+    @Test
+    void aRecordOfTheWrongTypeIsRejectedByItself() throws Exception {
+        BulkPaymentReport report = ingest("[" + VALID + ", {\"amount\": \"lots\"}, " + VALID + "]");
+
+        assertEquals(List.of(BulkPaymentResult.Status.ACCEPTED, BulkPaymentResult.Status.REJECTED,
+                BulkPaymentResult.Status.ACCEPTED), statuses(report));
+        assertTrue(report.getResults().get(1).getError().startsWith("Malformed record"));
+    }
+
+    private BulkPaymentReport ingest(String body) throws Exception {
+        return service.ingest("user-1", new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<BulkPaymentResult.Status> statuses(BulkPaymentReport report) {
+        return report.getResults().stream().map(BulkPaymentResult::getStatus).toList();
+    }
+}
@@ -0,0 +1,135 @@
+package com.organization.service;
+
+import com.organization.entity.Payment;
+import com.organization.entity.StudentFee;
+import com.organization.monitoring.DomainMetrics;
+import com.organization.repository.PaymentRepository;
+import com.organization.repository.StudentFeeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentServiceImplTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 200;
+
+    private final ConcurrentHashMap<String, Payment> payments = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<BigDecimal> reversals = new ConcurrentLinkedQueue<>();
+    private PaymentServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        PaymentRepository paymentRepository = mock(PaymentRepository.class);
+        // ConcurrentHashMap.remove stands in for findAndRemove: exactly one caller gets the document back
+        when(paymentRepository.removeById(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(payments.remove(invocation.<String>getArgument(0))));
+        when(paymentRepository.insert(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            if (payments.putIfAbsent(payment.getId(), payment) != null) {
+                throw new DuplicateKeyException("E11000 duplicate key error: " + payment.getId());
+            }
+            return payment;
+        });
+
+        StudentFeeRepository studentFeeRepository = mock(StudentFeeRepository.class);
+        when(studentFeeRepository.applyPayment(anyString(), any(BigDecimal.class))).thenAnswer(invocation -> {
+            reversals.add(invocation.getArgument(1));
+            return Optional.of(new StudentFee());
+        });
+
+        service = new PaymentServiceImpl(paymentRepository, studentFeeRepository,
+                mock(PaymentRollupService.class), mock(StudentBalanceService.class),
+                new DomainMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void concurrentDeletesOfOnePaymentReverseItOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                reversals.clear();
+                String id = "payment-" + round;
+                payments.put(id, payment(id, "250.00"));
+
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger notFound = new AtomicInteger();
+                List<Future<?>> deletes = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    deletes.add(pool.submit(() -> {
+                        start.await();
+                        try {
+                            service.deleteByIdAndRollbackStudentFee(id);
+                        } catch (NoSuchElementException ex) {
+                            notFound.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> delete : deletes) {
+                    delete.get(10, TimeUnit.SECONDS);
+                }
+
+                assertEquals(List.of(new BigDecimal("-250.00")), List.copyOf(reversals), "round " + round);
+                assertEquals(THREADS - 1, notFound.get(), "round " + round);
+                assertTrue(payments.isEmpty());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void deletingAMissingPaymentLeavesTheFeeAlone() {
+        assertThrows(NoSuchElementException.class, () -> service.deleteByIdAndRollbackStudentFee("missing"));
+        assertTrue(reversals.isEmpty());
+    }
+
+    @Test
+    void aReplayedPaymentIdIsRejectedAndItsIncrementReverted() {
+        service.create("payment-1", "anonymous", "fee-1", Payment.Method.values()[0], new BigDecimal("100.00"));
+
+        assertThrows(DuplicateKeyException.class, () -> service.create("payment-1", "anonymous", "fee-1",
+                Payment.Method.values()[0], new BigDecimal("100.00")));
+
+        assertEquals(List.of(new BigDecimal("100.00"), new BigDecimal("100.00"), new BigDecimal("-100.00")),
+                List.copyOf(reversals));
+        assertEquals(1, payments.size());
+    }
+
+    private static Payment payment(String id, String amount) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setStudentFeeId("fee-1");
+        payment.setStudentId("student-1");
+        payment.setMethod(Payment.Method.values()[0]);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setPaidAt(Instant.now());
+        return payment;
+    }
+}
@@ -0,0 +1,109 @@
+package com.organization.service;
+
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.organization.entity.Payment;
+import com.organization.entity.Student;
+import com.organization.entity.StudentBalance;
+import com.organization.entity.StudentFee;
+import com.organization.repository.StudentBalanceRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudentBalanceServiceImplTest {
+
+    private static final String STUDENT_ID = "65a0000000000000000000aa";
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final MongoCollection<Document> students = mock(MongoCollection.class);
+    @SuppressWarnings("unchecked")
+    private final AggregateIterable<Document> aggregate = mock(AggregateIterable.class);
+    private StudentBalanceServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.getCollectionName(Student.class)).thenReturn("students");
+        when(mongoTemplate.getCollectionName(StudentFee.class)).thenReturn("student_fees");
+        when(mongoTemplate.getCollectionName(Payment.class)).thenReturn("payments");
+        when(mongoTemplate.getCollectionName(StudentBalance.class)).thenReturn("student_balances");
+        when(mongoTemplate.getCollection("students")).thenReturn(students);
+        when(students.aggregate(anyList())).thenReturn(aggregate);
+        when(aggregate.allowDiskUse(true)).thenReturn(aggregate);
+        service = new StudentBalanceServiceImpl(mongoTemplate, mock(StudentBalanceRepository.class), mock(JobService.class));
+    }
+
+    @Test
+    void aPaymentMovesTheTotalsWithoutRecountingOverdueFees() {
+        service.paymentApplied(payment(), 1);
+
+        verify(mongoTemplate).upsert(any(Query.class), any(UpdateDefinition.class), eq(StudentBalance.class));
+        verify(mongoTemplate, never()).getCollection("student_fees");
+    }
+
+    @Test
+    void aFailedUpdateIsRecomputedFromTheFeesOnTheNextRepair() {
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(StudentBalance.class)))
+                .thenThrow(new DataAccessResourceFailureException("primary stepped down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> service.paymentApplied(payment(), 1));
+        service.repair();
+        service.repair();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Document>> pipeline = ArgumentCaptor.forClass(List.class);
+        verify(students, times(1)).aggregate(pipeline.capture());
+        Document match = pipeline.getValue().get(0).get("$match", Document.class);
+        assertEquals("{\"$in\": [{\"$oid\": \"" + STUDENT_ID + "\"}]}", match.get("_id", Document.class).toJson());
+        Document merge = pipeline.getValue().get(pipeline.getValue().size() - 1).get("$merge", Document.class);
+        assertEquals("student_balances", merge.getString("into"));
+        verify(aggregate).toCollection();
+    }
+
+    @Test
+    void aRecomputeThatFailsStaysQueued() {
+        when(mongoTemplate.upsert(any(Query.class), any(UpdateDefinition.class), eq(StudentBalance.class)))
+                .thenThrow(new DataAccessResourceFailureException("primary stepped down"));
+        when(aggregate.allowDiskUse(true))
+                .thenThrow(new DataAccessResourceFailureException("still down"))
+                .thenReturn(aggregate);
+
+        assertThrows(DataAccessResourceFailureException.class, () -> service.paymentApplied(payment(), 1));
+        service.repair();
+        service.repair();
+        service.repair();
+
+        verify(students, times(2)).aggregate(anyList());
+        verify(aggregate, times(1)).toCollection();
+    }
+
+    private static Payment payment() {
+        Payment payment = new Payment();
+        payment.setId("payment-1");
+        payment.setStudentId(STUDENT_ID);
+        payment.setAmount(new BigDecimal("50.00"));
+        payment.setPaidAt(Instant.parse("2026-03-01T10:00:00Z"));
+        return payment;
+    }
+}
@@ -16,7 +16,7 @@ import StudentsPage from './admin/StudentsPage'
 import FeePlansPage from './admin/FeePlansPage'
 import AssignmentsPage from './admin/AssignmentsPage'
 import PaymentsPage from './admin/PaymentsPage'
-import { studentAPI, feePlanAPI, studentFeeAPI } from '../services/api'
+import { dashboardAPI } from '../services/api'
 import { formatCurrency, formatDate } from '../lib/utils'
 
 const metricMeta = {
@@ -70,29 +70,19 @@ const AdminDashboard = ({ onBack }) => {
   const fetchDashboardStats = async () => {
     try {
       setLoading(true)
-      const [studentsRes, feePlansRes, assignmentsRes] = await Promise.all([
-        studentAPI.getAll(),
-        feePlanAPI.getAll(),
-        studentFeeAPI.getAll()
-      ])
-
-      const students = studentsRes.data || []
-      const feePlans = feePlansRes.data || []
-      const assignmentsData = assignmentsRes.data || []
+      const { data } = await dashboardAPI.getAdmin()
 
-      // Calculate stats from real data
-      const totalStudents = students.length
-      const activeFeePlans = feePlans.length
-      const totalAssignments = assignmentsData.length
-      const pendingAssignments = assignmentsData.filter(assignment => assignment.status !== 'PAID').length
+      const byStatus = data.assignmentsByStatus || {}
+      const totalAssignments = data.totalAssignments || 0
+      const pendingAssignments = (byStatus.PENDING || 0) + (byStatus.PARTIAL || 0)
 
       setStats([
-        { title: 'Total Students', value: totalStudents.toString(), color: 'stat-blue' },
-        { title: 'Active Fee Plans', value: activeFeePlans.toString(), color: 'stat-green' },
+        { title: 'Total Students', value: String(data.totalStudents || 0), color: 'stat-blue' },
+        { title: 'Active Fee Plans', value: String(data.activeFeePlans || 0), color: 'stat-green' },
         { title: 'Pending Payments', value: pendingAssignments.toString(), color: 'stat-yellow' },
         { title: 'Total Payments', value: totalAssignments.toString(), color: 'stat-info' },
       ])
-      setAssignments(assignmentsData)
+      setAssignments(data.overdueFees || [])
     } catch (error) {
       console.error('Failed to fetch dashboard stats:', error)
       // Set error state for stats
@@ -16,7 +16,7 @@ import {
 import { NavLink, Outlet, useLocation, useNavigate, useOutletContext } from 'react-router-dom'
 import { formatCurrency, formatDate } from '../lib/utils'
 import PaymentModal from './PaymentModal'
-import { studentFeeAPI, paymentAPI } from '../services/api'
+import { studentAPI } from '../services/api'
 
 const normalizeStatus = (status) => (status || 'PENDING').toUpperCase()
 
@@ -51,17 +51,9 @@ const StudentDashboard = ({ student, onBack }) => {
   const fetchStudentData = async () => {
     try {
       setLoading(true)
-      const [feesResponse, paymentsResponse] = await Promise.all([
-        studentFeeAPI.getByStudentId(student.id),
-        paymentAPI.getAll()
-      ])
-      const fees = feesResponse.data || []
-      setStudentFees(fees)
-      setPayments(
-        (paymentsResponse.data || []).filter(payment =>
-          fees.some(fee => fee.id === payment.studentFeeId)
-        )
-      )
+      const { data } = await studentAPI.getDashboard(student.id)
+      setStudentFees(data.fees || [])
+      setPayments(data.payments || [])
     } catch (err) {
       setError('Failed to fetch student data: ' + (err.response?.data?.message || err.message))
     } finally {
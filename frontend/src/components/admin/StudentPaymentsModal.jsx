@@ -20,11 +20,8 @@ const StudentPaymentsModal = ({ studentId, studentName, onClose }) => {
   const fetchStudentPayments = async () => {
     try {
       setLoading(true)
-      const response = await paymentAPI.getAll()
-      const studentPayments = (response.data || []).filter(
-        (payment) => payment.studentId === studentId
-      )
-      setPayments(studentPayments)
+      const response = await paymentAPI.getByStudentId(studentId)
+      setPayments(response.data || [])
     } catch (err) {
       setError('Failed to fetch payments: ' + (err.response?.data?.message || err.message))
     } finally {
@@ -43,24 +43,23 @@ useEffect(() => {
   const fetchStudents = async () => {
     try {
       setLoading(true)
-      const [studentsResponse, studentFeesResponse] = await Promise.all([
+      const [studentsResponse, balancesResponse] = await Promise.all([
         studentAPI.getAll(),
-        studentFeeAPI.getAll()
+        studentAPI.getBalances()
       ])
       
-      // Enrich students with fee information
+      // Enrich students with their pre-computed fee totals
+      const balancesByStudent = new Map(balancesResponse.data.map(b => [b.studentId, b]))
       const enrichedStudents = studentsResponse.data.map(student => {
-        const studentFees = studentFeesResponse.data.filter(sf => sf.studentId === student.id)
-        const totalFees = studentFees.reduce((sum, sf) => sum + (sf.amountAssigned || 0), 0)
-        const totalPaid = studentFees.reduce((sum, sf) => sum + (sf.amountPaid || 0), 0)
-        const balance = totalFees - totalPaid
+        const summary = balancesByStudent.get(student.id)
         
         return {
           ...student,
-          totalFees,
-          totalPaid,
-          balance,
-          studentFees
+          totalFees: summary?.totalAssigned || 0,
+          totalPaid: summary?.totalPaid || 0,
+          balance: summary?.balance || 0,
+          overdueCount: summary?.overdueCount || 0,
+          lastPaymentAt: summary?.lastPaymentAt || null
         }
       })
       
@@ -5,6 +5,8 @@ import { API_BASE_URL } from '../config'
 export const studentAPI = {
   getAll: () => axios.get(`${API_BASE_URL}/students`),
   getById: (id) => axios.get(`${API_BASE_URL}/students/${id}`),
+  getDashboard: (id) => axios.get(`${API_BASE_URL}/students/${id}/dashboard`),
+  getBalances: () => axios.get(`${API_BASE_URL}/students/balances`),
   create: (data) => axios.post(`${API_BASE_URL}/students`, data),
   update: (id, data) => axios.put(`${API_BASE_URL}/students`, data),
   delete: (id) => axios.delete(`${API_BASE_URL}/students/${id}`)
@@ -16,6 +18,7 @@ export const feePlanAPI = {
   getById: (id) => axios.get(`${API_BASE_URL}/fee-plans/${id}`),
   create: (data) => axios.post(`${API_BASE_URL}/fee-plans`, data),
   update: (id, data) => axios.put(`${API_BASE_URL}/fee-plans/${id}`, data),
+  reprice: (id, dryRun = true) => axios.post(`${API_BASE_URL}/fee-plans/${id}/reprice`, null, { params: { dryRun } }),
   delete: (id) => axios.delete(`${API_BASE_URL}/fee-plans/${id}`)
 }
 
@@ -43,7 +46,13 @@ export const paymentAPI = {
   },
   getById: (id) => axios.get(`${API_BASE_URL}/payments/${id}`),
   getByStudentFeeId: (studentFeeId) => axios.get(`${API_BASE_URL}/payments/student-fee/${studentFeeId}`),
+  getByStudentId: (studentId) => axios.get(`${API_BASE_URL}/payments/student/${studentId}`),
   create: (studentFeeId, method, amount) => axios.post(`${API_BASE_URL}/payments`, null, { params: { studentFeeId, method, amount } }),
   update: (id, data) => axios.put(`${API_BASE_URL}/payments/${id}`, data),
   delete: (id) => axios.delete(`${API_BASE_URL}/payments/${id}`)
 }
+
+// Dashboard API
+export const dashboardAPI = {
+  getAdmin: () => axios.get(`${API_BASE_URL}/dashboard/admin`)
+}